@@ -141,6 +141,64 @@ public final class ArrayUtils {
 		return (R[]) arr;
 	}
 
+	/**
+	 * Sorts an array of keys ascending and applies the same permutation to an
+	 * array of values. The sort is stable.
+	 *
+	 * @param keys   keys to be sorted
+	 * @param values values to be permuted along with the keys, same length as keys
+	 */
+	public static void sort(long[] keys, int[] values) {
+		Assert.notNull(keys, "Keys must not be null.");
+		Assert.notNull(values, "Values must not be null.");
+		Assert.isTrue(keys.length == values.length, "Keys and values must have the same length.");
+
+		final int length = keys.length;
+		if (length < 2) {
+			return;
+		}
+
+		long[] keysFrom = keys;
+		int[] valuesFrom = values;
+		long[] keysTo = new long[length];
+		int[] valuesTo = new int[length];
+		final int[] counts = new int[257];
+
+		for (int shift = 0; shift < 64; shift += 8) {
+			Arrays.fill(counts, 0);
+			for (int i = 0; i < length; i++) {
+				counts[ArrayUtils.radix(keysFrom[i], shift) + 1]++;
+			}
+			if (counts[ArrayUtils.radix(keysFrom[0], shift) + 1] == length) {
+				continue;
+			}
+			for (int i = 0; i < 256; i++) {
+				counts[i + 1] += counts[i];
+			}
+			for (int i = 0; i < length; i++) {
+				final int target = counts[ArrayUtils.radix(keysFrom[i], shift)]++;
+				keysTo[target] = keysFrom[i];
+				valuesTo[target] = valuesFrom[i];
+			}
+
+			final long[] keysSwap = keysFrom;
+			keysFrom = keysTo;
+			keysTo = keysSwap;
+			final int[] valuesSwap = valuesFrom;
+			valuesFrom = valuesTo;
+			valuesTo = valuesSwap;
+		}
+
+		if (keysFrom != keys) {
+			System.arraycopy(keysFrom, 0, keys, 0, length);
+			System.arraycopy(valuesFrom, 0, values, 0, length);
+		}
+	}
+
+	private static int radix(long key, int shift) {
+		return (int) (((key ^ Long.MIN_VALUE) >>> shift) & 0xFF);
+	}
+
 	private ArrayUtils() {
 	}
 }
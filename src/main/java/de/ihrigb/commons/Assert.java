@@ -31,6 +31,19 @@ public final class Assert {
 		Assert.notNull(obj, () -> new IllegalArgumentException(message));
 	}
 
+	/**
+	 * Expect condition to be true. Otherwise throws IllegalArgumentException with
+	 * message.
+	 *
+	 * @param condition condition to be checked
+	 * @param message   message for the exception
+	 */
+	public static void isTrue(boolean condition, String message) {
+		if (!condition) {
+			throw new IllegalArgumentException(message);
+		}
+	}
+
 	private Assert() {
 	}
 }
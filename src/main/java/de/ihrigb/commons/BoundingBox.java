@@ -0,0 +1,178 @@
+package de.ihrigb.commons;
+
+/**
+ * Latitude/longitude aligned bounding box. A box whose west bound is greater
+ * than its east bound crosses the antimeridian. Longitudes are expected within
+ * [-180, 180].
+ */
+public final class BoundingBox {
+
+	private static final double PADDING = 1e-9;
+
+	/**
+	 * Create the smallest bounding box containing all points within a radius
+	 * around a center. Handles the antimeridian and spans all longitudes if the
+	 * circle covers a pole.
+	 *
+	 * @param center center of the circle
+	 * @param radius radius of the circle
+	 * @return bounding box of the circle
+	 */
+	public static BoundingBox around(LatLng center, Distance radius) {
+		Assert.notNull(center, "Center must not be null.");
+		Assert.notNull(radius, "Radius must not be null.");
+		return BoundingBox.around(center.getLatitude(), center.getLongitude(), radius.getMeter());
+	}
+
+	static BoundingBox around(double lat, double lng, double radiusMeter) {
+		final double angle = Math.max(0, radiusMeter) / Haversine.MEAN_EARTH_RADIUS_METER;
+		final double latRad = Math.toRadians(lat);
+		final double south = latRad - angle;
+		final double north = latRad + angle;
+
+		if (south <= -Math.PI / 2 || north >= Math.PI / 2) {
+			return new BoundingBox(Math.max(-90, Math.toDegrees(south) - PADDING), -180,
+					Math.min(90, Math.toDegrees(north) + PADDING), 180);
+		}
+
+		final double dLng = Math.toDegrees(Math.asin(Math.sin(angle) / Math.cos(latRad))) + PADDING;
+		final double normalizedLng = normalizeLongitude(lng);
+		double west = normalizedLng - dLng;
+		double east = normalizedLng + dLng;
+		if (west < -180) {
+			west += 360;
+		}
+		if (east > 180) {
+			east -= 360;
+		}
+		return new BoundingBox(Math.toDegrees(south) - PADDING, west, Math.toDegrees(north) + PADDING, east);
+	}
+
+	/**
+	 * Create a bounding box by its bounds.
+	 *
+	 * @param south southern latitude
+	 * @param west  western longitude
+	 * @param north northern latitude
+	 * @param east  eastern longitude; less than west for boxes crossing the
+	 *              antimeridian
+	 * @return bounding box
+	 */
+	public static BoundingBox of(double south, double west, double north, double east) {
+		Assert.isTrue(south <= north, "South must not be greater than north.");
+		return new BoundingBox(south, west, north, east);
+	}
+
+	static double normalizeLongitude(double lng) {
+		if (lng >= -180 && lng <= 180) {
+			return lng;
+		}
+		return ((lng + 180) % 360 + 360) % 360 - 180;
+	}
+
+	private final double south;
+	private final double west;
+	private final double north;
+	private final double east;
+
+	private BoundingBox(double south, double west, double north, double east) {
+		this.south = south;
+		this.west = west;
+		this.north = north;
+		this.east = east;
+	}
+
+	/**
+	 * Get the southern latitude.
+	 *
+	 * @return southern latitude
+	 */
+	public double getSouth() {
+		return this.south;
+	}
+
+	/**
+	 * Get the western longitude.
+	 *
+	 * @return western longitude
+	 */
+	public double getWest() {
+		return this.west;
+	}
+
+	/**
+	 * Get the northern latitude.
+	 *
+	 * @return northern latitude
+	 */
+	public double getNorth() {
+		return this.north;
+	}
+
+	/**
+	 * Get the eastern longitude.
+	 *
+	 * @return eastern longitude
+	 */
+	public double getEast() {
+		return this.east;
+	}
+
+	/**
+	 * Check whether this box crosses the antimeridian.
+	 *
+	 * @return true, if west is greater than east
+	 */
+	public boolean crossesAntimeridian() {
+		return this.west > this.east;
+	}
+
+	/**
+	 * Check whether a point lies within this box.
+	 *
+	 * @param latLng the point
+	 * @return true, if contained
+	 */
+	public boolean contains(LatLng latLng) {
+		return this.contains(latLng.getLatitude(), latLng.getLongitude());
+	}
+
+	/**
+	 * Check whether a point lies within this box.
+	 *
+	 * @param lat latitude
+	 * @param lng longitude
+	 * @return true, if contained
+	 */
+	public boolean contains(double lat, double lng) {
+		if (lat < this.south || lat > this.north) {
+			return false;
+		}
+		if (this.west <= this.east) {
+			return lng >= this.west && lng <= this.east;
+		}
+		return lng >= this.west || lng <= this.east;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof BoundingBox)) {
+			return false;
+		}
+		BoundingBox o = (BoundingBox) obj;
+		return this.south == o.south && this.west == o.west && this.north == o.north && this.east == o.east;
+	}
+
+	@Override
+	public int hashCode() {
+		return java.util.Objects.hash(this.south, this.west, this.north, this.east);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("[%f, %f, %f, %f]", this.south, this.west, this.north, this.east);
+	}
+}
@@ -0,0 +1,86 @@
+package de.ihrigb.commons;
+
+/**
+ * Flat-earth distance approximation with scale factors computed once for a
+ * reference latitude. The longitude scale of each pair is derived from a second
+ * order expansion of the cosine around the reference latitude, so a distance
+ * costs a few multiplications and a <code>sqrt</code> without any trigonometric
+ * function. Meant for many distances within a limited area such as a city. Up
+ * to 80° latitude and for points within 2° latitude of the reference, the
+ * relative error to {@link Haversine} stays within the bounds of
+ * {@link DistanceMode#EQUIRECTANGULAR} plus 0.005 %.
+ */
+public final class CheapRuler {
+
+	/**
+	 * Create a ruler for a reference latitude.
+	 *
+	 * @param lat reference latitude
+	 * @return ruler
+	 */
+	public static CheapRuler of(double lat) {
+		return new CheapRuler(lat);
+	}
+
+	private final double lat;
+	private final double ky;
+	private final double cos;
+	private final double sin;
+
+	private CheapRuler(double lat) {
+		this.lat = lat;
+		this.ky = Math.toRadians(Haversine.MEAN_EARTH_RADIUS_METER);
+		this.cos = Math.cos(Math.toRadians(lat));
+		this.sin = Math.sin(Math.toRadians(lat));
+	}
+
+	/**
+	 * Get the reference latitude.
+	 *
+	 * @return reference latitude
+	 */
+	public double getLatitude() {
+		return this.lat;
+	}
+
+	/**
+	 * Calculate the distance in meter.
+	 *
+	 * @param latStart start latitude
+	 * @param lngStart start longitude
+	 * @param latEnd   end latitude
+	 * @param lngEnd   end longitude
+	 * @return distance between two points in meter
+	 */
+	public double distanceMeter(double latStart, double lngStart, double latEnd, double lngEnd) {
+		final double d = Math.toRadians((latStart + latEnd) / 2 - this.lat);
+		final double kx = this.ky * (this.cos - this.sin * d - this.cos * d * d / 2);
+		final double x = DistanceMode.wrapLongitudeDelta(lngEnd - lngStart) * kx;
+		final double y = (latEnd - latStart) * this.ky;
+		return Math.sqrt(x * x + y * y);
+	}
+
+	/**
+	 * Calculate the distance.
+	 *
+	 * @param latStart start latitude
+	 * @param lngStart start longitude
+	 * @param latEnd   end latitude
+	 * @param lngEnd   end longitude
+	 * @return distance between two points
+	 */
+	public Distance distance(double latStart, double lngStart, double latEnd, double lngEnd) {
+		return Distance.ofMeter(this.distanceMeter(latStart, lngStart, latEnd, lngEnd));
+	}
+
+	/**
+	 * Calculate the distance.
+	 *
+	 * @param start start LatLng
+	 * @param end   end LatLng
+	 * @return distance between two points
+	 */
+	public Distance distance(LatLng start, LatLng end) {
+		return this.distance(start.getLatitude(), start.getLongitude(), end.getLatitude(), end.getLongitude());
+	}
+}
@@ -0,0 +1,63 @@
+package de.ihrigb.commons;
+
+/**
+ * Circle shaped {@link Geofence}, containing all points within a haversine
+ * radius around a center. Points outside of the bounding box of the circle are
+ * rejected without trigonometry. Instances are immutable and thread-safe.
+ */
+public final class CircularGeofence implements Geofence {
+
+	/**
+	 * Create a circular fence.
+	 *
+	 * @param center center of the circle
+	 * @param radius radius of the circle
+	 * @return circular fence
+	 */
+	public static CircularGeofence of(LatLng center, Distance radius) {
+		Assert.notNull(center, "Center must not be null.");
+		Assert.notNull(radius, "Radius must not be null.");
+		return new CircularGeofence(center, radius);
+	}
+
+	private final LatLng center;
+	private final Haversine.Origin origin;
+	private final Haversine.Radius radius;
+	private final BoundingBox boundingBox;
+
+	private CircularGeofence(LatLng center, Distance radius) {
+		this.center = center;
+		this.origin = Haversine.origin(center);
+		this.radius = Haversine.radius(radius);
+		this.boundingBox = BoundingBox.around(center, radius);
+	}
+
+	/**
+	 * Get the center of the circle.
+	 *
+	 * @return center
+	 */
+	public LatLng getCenter() {
+		return this.center;
+	}
+
+	/**
+	 * Get the radius of the circle.
+	 *
+	 * @return radius
+	 */
+	public Distance getRadius() {
+		return this.radius.getDistance();
+	}
+
+	@Override
+	public BoundingBox getBoundingBox() {
+		return this.boundingBox;
+	}
+
+	@Override
+	public boolean contains(double lat, double lng) {
+		return this.boundingBox.contains(lat, BoundingBox.normalizeLongitude(lng))
+				&& this.origin.isWithin(lat, lng, this.radius);
+	}
+}
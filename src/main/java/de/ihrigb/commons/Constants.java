@@ -10,6 +10,16 @@ public final class Constants {
 	 */
 	public static final Distance MEAN_EARTH_RADIUS = Distance.ofKilometer(6371);
 
+	/**
+	 * Semi-major axis of the WGS84 ellipsoid (6,378,137 m).
+	 */
+	public static final Distance WGS84_SEMI_MAJOR_AXIS = Distance.ofMeter(6378137);
+
+	/**
+	 * Flattening of the WGS84 ellipsoid (1 / 298.257223563).
+	 */
+	public static final double WGS84_FLATTENING = 1 / 298.257223563;
+
 	private Constants() {
 	}
 }
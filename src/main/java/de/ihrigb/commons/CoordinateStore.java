@@ -0,0 +1,332 @@
+package de.ihrigb.commons;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Columnar store of coordinates outside the Java heap, either in direct memory
+ * or in a memory-mapped file. Latitudes and longitudes are kept in two
+ * separate columns of little-endian doubles, so opening a file takes no
+ * deserialization and the pages can be shared by all processes mapping it.
+ * <p>
+ * File layout: a 32 byte header (magic, version, capacity, size), followed by
+ * the latitude column and the longitude column of capacity elements each.
+ * <p>
+ * Appends are synchronized; reads do not lock and see all points appended
+ * before the last size update.
+ */
+public final class CoordinateStore {
+
+	private static final int MAGIC = 0x4C4C4353;
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 32;
+	private static final int SIZE_OFFSET = 16;
+	private static final int MAX_CAPACITY = Integer.MAX_VALUE / Double.BYTES;
+
+	/**
+	 * Create a store in direct memory.
+	 *
+	 * @param capacity maximum number of points
+	 * @return empty store
+	 */
+	public static CoordinateStore allocateDirect(int capacity) {
+		Assert.isTrue(capacity >= 0 && capacity <= MAX_CAPACITY, "Capacity must be within [0, " + MAX_CAPACITY + "].");
+		final ByteBuffer lats = ByteBuffer.allocateDirect(capacity * Double.BYTES);
+		final ByteBuffer lngs = ByteBuffer.allocateDirect(capacity * Double.BYTES);
+		return new CoordinateStore(null, lats, lngs, capacity, 0, true);
+	}
+
+	/**
+	 * Create a store in a memory-mapped file. An existing file is overwritten.
+	 *
+	 * @param file     the file
+	 * @param capacity maximum number of points
+	 * @return empty store
+	 * @throws IOException if the file cannot be created or mapped
+	 */
+	public static CoordinateStore create(Path file, int capacity) throws IOException {
+		Assert.notNull(file, "File must not be null.");
+		Assert.isTrue(capacity >= 0 && capacity <= MAX_CAPACITY, "Capacity must be within [0, " + MAX_CAPACITY + "].");
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+			header.order(ByteOrder.LITTLE_ENDIAN);
+			header.putInt(0, MAGIC);
+			header.putInt(4, VERSION);
+			header.putLong(8, capacity);
+			header.putLong(SIZE_OFFSET, 0);
+			final long columnSize = (long) capacity * Double.BYTES;
+			final MappedByteBuffer lats = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE, columnSize);
+			final MappedByteBuffer lngs = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + columnSize,
+					columnSize);
+			return new CoordinateStore(header, lats, lngs, capacity, 0, true);
+		}
+	}
+
+	/**
+	 * Open a store in a memory-mapped file created by
+	 * {@link #create(Path, int)}.
+	 *
+	 * @param file     the file
+	 * @param writable true to allow appends, false to map read-only
+	 * @return store
+	 * @throws IOException if the file cannot be read or mapped, or is no
+	 *                     coordinate store
+	 */
+	public static CoordinateStore open(Path file, boolean writable) throws IOException {
+		Assert.notNull(file, "File must not be null.");
+
+		final FileChannel.MapMode mode = writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY;
+		try (FileChannel channel = writable
+				? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+				: FileChannel.open(file, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE) {
+				throw new IOException("File is no coordinate store: " + file);
+			}
+			final MappedByteBuffer header = channel.map(mode, 0, HEADER_SIZE);
+			header.order(ByteOrder.LITTLE_ENDIAN);
+			final long capacity = header.getLong(8);
+			final long size = header.getLong(SIZE_OFFSET);
+			if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || capacity < 0 || capacity > MAX_CAPACITY
+					|| size < 0 || size > capacity
+					|| channel.size() < HEADER_SIZE + 2 * capacity * Double.BYTES) {
+				throw new IOException("File is no coordinate store: " + file);
+			}
+			final long columnSize = capacity * Double.BYTES;
+			final MappedByteBuffer lats = channel.map(mode, HEADER_SIZE, columnSize);
+			final MappedByteBuffer lngs = channel.map(mode, HEADER_SIZE + columnSize, columnSize);
+			return new CoordinateStore(header, lats, lngs, (int) capacity, (int) size, writable);
+		}
+	}
+
+	private final ByteBuffer header;
+	private final ByteBuffer latBytes;
+	private final ByteBuffer lngBytes;
+	private final DoubleBuffer lats;
+	private final DoubleBuffer lngs;
+	private final int capacity;
+	private final boolean writable;
+	private volatile int size;
+
+	private CoordinateStore(ByteBuffer header, ByteBuffer lats, ByteBuffer lngs, int capacity, int size,
+			boolean writable) {
+		this.header = header;
+		this.latBytes = lats;
+		this.lngBytes = lngs;
+		this.lats = lats.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+		this.lngs = lngs.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+		this.capacity = capacity;
+		this.size = size;
+		this.writable = writable;
+	}
+
+	/**
+	 * Get the number of stored points.
+	 *
+	 * @return number of points
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Get the maximum number of points.
+	 *
+	 * @return capacity
+	 */
+	public int capacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Get the latitude of a point.
+	 *
+	 * @param index index of the point
+	 * @return latitude
+	 */
+	public double getLatitude(int index) {
+		this.checkIndex(index);
+		return this.lats.get(index);
+	}
+
+	/**
+	 * Get the longitude of a point.
+	 *
+	 * @param index index of the point
+	 * @return longitude
+	 */
+	public double getLongitude(int index) {
+		this.checkIndex(index);
+		return this.lngs.get(index);
+	}
+
+	/**
+	 * Get a point.
+	 *
+	 * @param index index of the point
+	 * @return the point
+	 */
+	public LatLng get(int index) {
+		this.checkIndex(index);
+		return new LatLng(this.lats.get(index), this.lngs.get(index));
+	}
+
+	/**
+	 * Append a point.
+	 *
+	 * @param latLng the point
+	 * @return index of the point
+	 */
+	public int append(LatLng latLng) {
+		Assert.notNull(latLng, "LatLng must not be null.");
+		return this.append(latLng.getLatitude(), latLng.getLongitude());
+	}
+
+	/**
+	 * Append a point.
+	 *
+	 * @param lat latitude
+	 * @param lng longitude
+	 * @return index of the point
+	 */
+	public synchronized int append(double lat, double lng) {
+		this.checkAppend(1);
+		final int index = this.size;
+		this.lats.put(index, lat);
+		this.lngs.put(index, lng);
+		this.setSize(index + 1);
+		return index;
+	}
+
+	/**
+	 * Append points of coordinate columns.
+	 *
+	 * @param lats   latitudes
+	 * @param lngs   longitudes
+	 * @param offset index of the first point
+	 * @param length number of points
+	 * @return index of the first appended point
+	 */
+	public synchronized int append(double[] lats, double[] lngs, int offset, int length) {
+		Haversine.checkRange(lats, offset, length, "Latitudes");
+		Haversine.checkRange(lngs, offset, length, "Longitudes");
+		this.checkAppend(length);
+
+		final int index = this.size;
+		final DoubleBuffer latTarget = this.lats.duplicate();
+		latTarget.position(index);
+		latTarget.put(lats, offset, length);
+		final DoubleBuffer lngTarget = this.lngs.duplicate();
+		lngTarget.position(index);
+		lngTarget.put(lngs, offset, length);
+		this.setSize(index + length);
+		return index;
+	}
+
+	/**
+	 * Copy a range of points into coordinate columns.
+	 *
+	 * @param index  index of the first point
+	 * @param lats   target latitudes
+	 * @param lngs   target longitudes
+	 * @param offset index of the first point in the target columns
+	 * @param length number of points
+	 */
+	public void get(int index, double[] lats, double[] lngs, int offset, int length) {
+		Haversine.checkRange(lats, offset, length, "Latitudes");
+		Haversine.checkRange(lngs, offset, length, "Longitudes");
+		Assert.isTrue(index >= 0 && index <= this.size - length,
+				"Store does not contain the range [" + index + ", " + index + " + " + length + ").");
+
+		final DoubleBuffer latSource = this.lats.duplicate();
+		latSource.position(index);
+		latSource.get(lats, offset, length);
+		final DoubleBuffer lngSource = this.lngs.duplicate();
+		lngSource.position(index);
+		lngSource.get(lngs, offset, length);
+	}
+
+	/**
+	 * Find the indices of all points within a radius around a center, see
+	 * {@link RadiusQuery}.
+	 *
+	 * @param center center of the circle
+	 * @param radius radius of the circle
+	 * @return ascending indices of the points within the radius
+	 */
+	public int[] indicesWithin(LatLng center, Distance radius) {
+		final int[][] indices = { new int[16] };
+		final int[] count = { 0 };
+		this.forEachWithin(center, radius, index -> {
+			if (count[0] == indices[0].length) {
+				indices[0] = Arrays.copyOf(indices[0], count[0] * 2);
+			}
+			indices[0][count[0]++] = index;
+		});
+		return Arrays.copyOf(indices[0], count[0]);
+	}
+
+	/**
+	 * Pass the index of each point within a radius around a center to a consumer,
+	 * see {@link RadiusQuery}. Scans the columns in place.
+	 *
+	 * @param center   center of the circle
+	 * @param radius   radius of the circle
+	 * @param consumer consumer of the indices, called in ascending order
+	 */
+	public void forEachWithin(LatLng center, Distance radius, IntConsumer consumer) {
+		Assert.notNull(consumer, "Consumer must not be null.");
+
+		final RadiusQuery.Query query = new RadiusQuery.Query(center, radius);
+		final int size = this.size;
+		for (int i = 0; i < size; i++) {
+			if (query.test(this.lats.get(i), this.lngs.get(i))) {
+				consumer.accept(i);
+			}
+		}
+	}
+
+	/**
+	 * Write changes of a memory-mapped store to the file. Does nothing for direct
+	 * memory stores.
+	 */
+	public void force() {
+		if (this.header == null) {
+			return;
+		}
+		((MappedByteBuffer) this.latBytes).force();
+		((MappedByteBuffer) this.lngBytes).force();
+		((MappedByteBuffer) this.header).force();
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= this.size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.size + ".");
+		}
+	}
+
+	private void checkAppend(int length) {
+		if (!this.writable) {
+			throw new IllegalStateException("Store is read-only.");
+		}
+		if (length > this.capacity - this.size) {
+			throw new IllegalStateException("Store capacity of " + this.capacity + " exceeded.");
+		}
+	}
+
+	private void setSize(int size) {
+		if (this.header != null) {
+			this.header.putLong(SIZE_OFFSET, size);
+		}
+		this.size = size;
+	}
+}
@@ -0,0 +1,247 @@
+package de.ihrigb.commons;
+
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Density based clustering (DBSCAN) of points under the haversine distance.
+ * Neighbors are found through a {@link PointGrid} with cells of about
+ * epsilon, so well distributed inputs cluster in near-linear time. Core points
+ * are joined in a lock-free union-find, which lets the parallel variant
+ * process the points on a fork-join pool.
+ * <p>
+ * Results are deterministic: clusters are numbered in the order of their
+ * first core point and a border point joins the cluster of its first core
+ * neighbor, the same in sequential and parallel runs.
+ */
+public final class Dbscan {
+
+	/**
+	 * Label of points not belonging to any cluster.
+	 */
+	public static final int NOISE = -1;
+
+	private static final int PARALLEL_THRESHOLD = 1 << 12;
+
+	/**
+	 * Cluster a collection of points. Labels refer to the iteration order of the
+	 * collection.
+	 *
+	 * @param points    points to be clustered
+	 * @param epsilon   neighborhood radius
+	 * @param minPoints minimum number of points within the neighborhood of a
+	 *                  core point, including the point itself
+	 * @return cluster label of each point, {@link #NOISE} for noise
+	 */
+	public static int[] cluster(Collection<LatLng> points, Distance epsilon, int minPoints) {
+		Assert.notNull(points, "Points must not be null.");
+		final double[] lats = new double[points.size()];
+		final double[] lngs = new double[points.size()];
+		int i = 0;
+		for (LatLng point : points) {
+			lats[i] = point.getLatitude();
+			lngs[i] = point.getLongitude();
+			i++;
+		}
+		return Dbscan.cluster(lats, lngs, 0, lats.length, epsilon, minPoints, null);
+	}
+
+	/**
+	 * Cluster points of coordinate columns.
+	 *
+	 * @param lats      latitudes
+	 * @param lngs      longitudes
+	 * @param offset    index of the first point
+	 * @param length    number of points
+	 * @param epsilon   neighborhood radius
+	 * @param minPoints minimum number of points within the neighborhood of a
+	 *                  core point, including the point itself
+	 * @return cluster label of each point, starting with the one at offset,
+	 *         {@link #NOISE} for noise
+	 */
+	public static int[] cluster(double[] lats, double[] lngs, int offset, int length, Distance epsilon,
+			int minPoints) {
+		return Dbscan.cluster(lats, lngs, offset, length, epsilon, minPoints, null);
+	}
+
+	/**
+	 * Cluster points of coordinate columns in parallel. Results equal the ones
+	 * of {@link #cluster(double[], double[], int, int, Distance, int)}.
+	 *
+	 * @param lats      latitudes
+	 * @param lngs      longitudes
+	 * @param offset    index of the first point
+	 * @param length    number of points
+	 * @param epsilon   neighborhood radius
+	 * @param minPoints minimum number of points within the neighborhood of a
+	 *                  core point, including the point itself
+	 * @param pool      pool to run on
+	 * @return cluster label of each point, starting with the one at offset,
+	 *         {@link #NOISE} for noise
+	 */
+	public static int[] cluster(double[] lats, double[] lngs, int offset, int length, Distance epsilon,
+			int minPoints, ForkJoinPool pool) {
+		Haversine.checkRange(lats, offset, length, "Latitudes");
+		Haversine.checkRange(lngs, offset, length, "Longitudes");
+		Assert.notNull(epsilon, "Epsilon must not be null.");
+		Assert.isTrue(epsilon.getMeter() >= 0, "Epsilon must not be negative.");
+		Assert.isTrue(minPoints >= 1, "Minimum points must be positive.");
+		return new Dbscan(lats, lngs, offset, length, epsilon, minPoints).run(pool);
+	}
+
+	private final double[] lats;
+	private final double[] lngs;
+	private final int offset;
+	private final int length;
+	private final int minPoints;
+	private final Haversine.Radius radius;
+	private final PointGrid grid;
+	private final boolean[] core;
+	// parent links of the union-find, roots always are the smallest index of their set
+	private final AtomicIntegerArray parents;
+	private final int[] labels;
+
+	private Dbscan(double[] lats, double[] lngs, int offset, int length, Distance epsilon, int minPoints) {
+		this.lats = lats;
+		this.lngs = lngs;
+		this.offset = offset;
+		this.length = length;
+		this.minPoints = minPoints;
+		this.radius = Haversine.radius(epsilon);
+		this.grid = PointGrid.of(lats, lngs, offset, length, epsilon.getMeter());
+		this.core = new boolean[length];
+		this.parents = new AtomicIntegerArray(length);
+		this.labels = new int[length];
+	}
+
+	private int[] run(ForkJoinPool pool) {
+		for (int i = 0; i < this.length; i++) {
+			this.parents.set(i, i);
+		}
+		for (int phase = 0; phase < 3; phase++) {
+			if (pool == null || this.length < PARALLEL_THRESHOLD) {
+				this.run(phase, 0, this.length);
+			} else {
+				pool.invoke(new PhaseAction(phase, 0, this.length));
+			}
+		}
+
+		// root indices to consecutive cluster numbers, in order of the roots
+		final int[] clusters = new int[this.length];
+		int clusterCount = 0;
+		for (int i = 0; i < this.length; i++) {
+			if (this.core[i] && this.find(i) == i) {
+				clusters[i] = clusterCount++;
+			}
+		}
+		for (int i = 0; i < this.length; i++) {
+			this.labels[i] = this.labels[i] == NOISE ? NOISE : clusters[this.labels[i]];
+		}
+		return this.labels;
+	}
+
+	private void run(int phase, int from, int to) {
+		for (int position = from; position < to; position++) {
+			final int i = this.grid.index(position) - this.offset;
+			if (phase == 0) {
+				this.classify(i);
+			} else if (phase == 1) {
+				this.join(i);
+			} else {
+				this.label(i);
+			}
+		}
+	}
+
+	private void classify(int i) {
+		final int[] count = new int[1];
+		this.grid.forEachWithin(this.lats[this.offset + i], this.lngs[this.offset + i], this.radius,
+				j -> count[0]++);
+		this.core[i] = count[0] >= this.minPoints;
+	}
+
+	private void join(int i) {
+		if (!this.core[i]) {
+			return;
+		}
+		this.grid.forEachWithin(this.lats[this.offset + i], this.lngs[this.offset + i], this.radius, j -> {
+			final int neighbor = j - this.offset;
+			if (neighbor < i && this.core[neighbor]) {
+				this.union(i, neighbor);
+			}
+		});
+	}
+
+	private void label(int i) {
+		if (this.core[i]) {
+			this.labels[i] = this.find(i);
+			return;
+		}
+		final int[] first = { Integer.MAX_VALUE };
+		this.grid.forEachWithin(this.lats[this.offset + i], this.lngs[this.offset + i], this.radius, j -> {
+			final int neighbor = j - this.offset;
+			if (neighbor < first[0] && this.core[neighbor]) {
+				first[0] = neighbor;
+			}
+		});
+		this.labels[i] = first[0] == Integer.MAX_VALUE ? NOISE : this.find(first[0]);
+	}
+
+	private int find(int i) {
+		int parent = this.parents.get(i);
+		while (parent != i) {
+			final int grandParent = this.parents.get(parent);
+			// path halving, losing the race only skips the shortcut
+			this.parents.compareAndSet(i, parent, grandParent);
+			i = grandParent;
+			parent = this.parents.get(i);
+		}
+		return i;
+	}
+
+	private void union(int a, int b) {
+		while (true) {
+			int rootA = this.find(a);
+			int rootB = this.find(b);
+			if (rootA == rootB) {
+				return;
+			}
+			if (rootA < rootB) {
+				final int root = rootA;
+				rootA = rootB;
+				rootB = root;
+			}
+			// link the larger root below the smaller one, retry if it stopped being a root
+			if (this.parents.compareAndSet(rootA, rootA, rootB)) {
+				return;
+			}
+		}
+	}
+
+	private final class PhaseAction extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int phase;
+		private final int from;
+		private final int to;
+
+		private PhaseAction(int phase, int from, int to) {
+			this.phase = phase;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from <= PARALLEL_THRESHOLD) {
+				Dbscan.this.run(this.phase, this.from, this.to);
+				return;
+			}
+			final int mid = (this.from + this.to) >>> 1;
+			invokeAll(new PhaseAction(this.phase, this.from, mid), new PhaseAction(this.phase, mid, this.to));
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package de.ihrigb.commons;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Bounded cache of haversine distances between pairs of points. Points are
+ * quantized and packed by {@link LatLngE7}, so a pair is keyed by two longs
+ * regardless of its direction, and distances are calculated between the
+ * quantized points (within about 2 cm of the exact distance).
+ * <p>
+ * Entries are held in sets of {@value #WAYS} slots, each evicted by the CLOCK
+ * algorithm. Sets are guarded by striped {@link StampedLock}s: lookups are
+ * optimistic reads that only fall back to a read lock if they overlap a write,
+ * so concurrent readers never block each other. Hits and misses are counted to
+ * judge whether the cache pays off.
+ */
+public final class DistanceCache {
+
+	private static final int WAYS = 8;
+	private static final int MAX_STRIPES = 64;
+
+	/**
+	 * Create a cache.
+	 *
+	 * @param capacity minimum number of entries, rounded up to a power of two
+	 * @return empty cache
+	 */
+	public static DistanceCache create(int capacity) {
+		Assert.isTrue(capacity > 0 && capacity <= 1 << 28, "Capacity must be between 1 and 2^28.");
+		return new DistanceCache(capacity);
+	}
+
+	private final int setMask;
+	private final StampedLock[] locks;
+	private final long[] starts;
+	private final long[] ends;
+	// NaN marks empty slots
+	private final double[] meters;
+	private final boolean[] referenced;
+	private final byte[] hands;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	private DistanceCache(int capacity) {
+		final int needed = (capacity + WAYS - 1) / WAYS;
+		final int sets = needed <= 1 ? 1 : Integer.highestOneBit(needed - 1) << 1;
+		this.setMask = sets - 1;
+		this.locks = new StampedLock[Math.min(sets, MAX_STRIPES)];
+		for (int i = 0; i < this.locks.length; i++) {
+			this.locks[i] = new StampedLock();
+		}
+		this.starts = new long[sets * WAYS];
+		this.ends = new long[sets * WAYS];
+		this.meters = new double[sets * WAYS];
+		Arrays.fill(this.meters, Double.NaN);
+		this.referenced = new boolean[sets * WAYS];
+		this.hands = new byte[sets];
+	}
+
+	/**
+	 * Get the haversine distance between two points.
+	 *
+	 * @param start start point
+	 * @param end   end point
+	 * @return haversine distance of the quantized points
+	 */
+	public Distance distance(LatLng start, LatLng end) {
+		Assert.notNull(start, "Start must not be null.");
+		Assert.notNull(end, "End must not be null.");
+		return Distance.ofMeter(this.distanceMeter(LatLngE7.pack(start), LatLngE7.pack(end)));
+	}
+
+	/**
+	 * Get the haversine distance between two points in meter.
+	 *
+	 * @param latStart start latitude
+	 * @param lngStart start longitude
+	 * @param latEnd   end latitude
+	 * @param lngEnd   end longitude
+	 * @return haversine distance of the quantized points in meter
+	 */
+	public double distanceMeter(double latStart, double lngStart, double latEnd, double lngEnd) {
+		return this.distanceMeter(LatLngE7.pack(latStart, lngStart), LatLngE7.pack(latEnd, lngEnd));
+	}
+
+	/**
+	 * Get the haversine distance between two packed points in meter.
+	 *
+	 * @param start start point, packed by {@link LatLngE7}
+	 * @param end   end point, packed by {@link LatLngE7}
+	 * @return haversine distance in meter
+	 */
+	public double distanceMeter(long start, long end) {
+		final long a = Math.min(start, end);
+		final long b = Math.max(start, end);
+		final int set = this.set(a, b);
+		final StampedLock lock = this.locks[set & (this.locks.length - 1)];
+
+		long stamp = lock.tryOptimisticRead();
+		int slot = this.find(set, a, b);
+		double meter = slot < 0 ? Double.NaN : this.meters[slot];
+		if (!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				slot = this.find(set, a, b);
+				meter = slot < 0 ? Double.NaN : this.meters[slot];
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		if (slot >= 0 && !Double.isNaN(meter)) {
+			// racy by design, a lost mark only makes the entry an earlier eviction candidate
+			this.referenced[slot] = true;
+			this.hits.increment();
+			return meter;
+		}
+
+		this.misses.increment();
+		meter = LatLngE7.distanceMeter(a, b);
+		stamp = lock.writeLock();
+		try {
+			slot = this.find(set, a, b);
+			// the keys of an empty slot match the pair of two points at 0, 0
+			if (slot < 0 || Double.isNaN(this.meters[slot])) {
+				slot = slot < 0 ? this.evict(set) : slot;
+				this.starts[slot] = a;
+				this.ends[slot] = b;
+				this.meters[slot] = meter;
+				this.referenced[slot] = false;
+			}
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+		return meter;
+	}
+
+	/**
+	 * Get the number of lookups answered from the cache.
+	 *
+	 * @return number of hits
+	 */
+	public long getHitCount() {
+		return this.hits.sum();
+	}
+
+	/**
+	 * Get the number of lookups that calculated the distance.
+	 *
+	 * @return number of misses
+	 */
+	public long getMissCount() {
+		return this.misses.sum();
+	}
+
+	/**
+	 * Get the share of lookups answered from the cache.
+	 *
+	 * @return hit rate within [0, 1], NaN before the first lookup
+	 */
+	public double getHitRate() {
+		final long hits = this.hits.sum();
+		final long total = hits + this.misses.sum();
+		return total == 0 ? Double.NaN : (double) hits / total;
+	}
+
+	/**
+	 * Get the maximum number of entries.
+	 *
+	 * @return capacity
+	 */
+	public int getCapacity() {
+		return this.meters.length;
+	}
+
+	private int find(int set, long a, long b) {
+		final int base = set * WAYS;
+		for (int slot = base; slot < base + WAYS; slot++) {
+			if (this.starts[slot] == a && this.ends[slot] == b) {
+				return slot;
+			}
+		}
+		return -1;
+	}
+
+	// CLOCK: the hand skips and clears referenced slots, empty slots are taken first
+	private int evict(int set) {
+		final int base = set * WAYS;
+		for (int slot = base; slot < base + WAYS; slot++) {
+			if (Double.isNaN(this.meters[slot])) {
+				return slot;
+			}
+		}
+		int hand = this.hands[set];
+		while (this.referenced[base + hand]) {
+			this.referenced[base + hand] = false;
+			hand = (hand + 1) & (WAYS - 1);
+		}
+		this.hands[set] = (byte) ((hand + 1) & (WAYS - 1));
+		return base + hand;
+	}
+
+	private int set(long a, long b) {
+		long hash = a * 0x9E3779B97F4A7C15L + b;
+		hash ^= hash >>> 32;
+		hash *= 0xC2B2AE3D27D4EB4FL;
+		hash ^= hash >>> 29;
+		return (int) hash & this.setMask;
+	}
+}
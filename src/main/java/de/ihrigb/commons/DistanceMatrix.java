@@ -0,0 +1,256 @@
+package de.ihrigb.commons;
+
+import java.nio.DoubleBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Utils to calculate haversine distance matrices. The matrix is written row
+ * major in meter: the distance from origin i to destination j is at index
+ * <code>i * destinations + j</code>. Work is split into tiles of 128 x 128
+ * cells which are computed on a fork-join pool. If origins and destinations
+ * are the same arrays, only the upper triangle is calculated and mirrored.
+ */
+public final class DistanceMatrix {
+
+	private static final int TILE = 128;
+
+	/**
+	 * Calculate the symmetric distance matrix of a set of points on the common
+	 * fork-join pool.
+	 *
+	 * @param lats latitudes
+	 * @param lngs longitudes
+	 * @return N x N matrix in meter
+	 */
+	public static double[] of(double[] lats, double[] lngs) {
+		return DistanceMatrix.of(lats, lngs, lats, lngs);
+	}
+
+	/**
+	 * Calculate the distance matrix from origins to destinations on the common
+	 * fork-join pool.
+	 *
+	 * @param originLats      origin latitudes
+	 * @param originLngs      origin longitudes
+	 * @param destinationLats destination latitudes
+	 * @param destinationLngs destination longitudes
+	 * @return N x M matrix in meter
+	 */
+	public static double[] of(double[] originLats, double[] originLngs, double[] destinationLats,
+			double[] destinationLngs) {
+		Assert.notNull(originLats, "Origin latitudes must not be null.");
+		Assert.notNull(destinationLats, "Destination latitudes must not be null.");
+		Assert.isTrue((long) originLats.length * destinationLats.length <= Integer.MAX_VALUE,
+				"Matrix must not have more than " + Integer.MAX_VALUE + " cells.");
+
+		final double[] matrix = new double[originLats.length * destinationLats.length];
+		DistanceMatrix.submit(originLats, originLngs, destinationLats, destinationLngs, matrix,
+				ForkJoinPool.commonPool()).join();
+		return matrix;
+	}
+
+	/**
+	 * Start calculating a distance matrix into an array. Cancelling the returned
+	 * task stops the calculation after the tiles currently in progress.
+	 *
+	 * @param originLats      origin latitudes
+	 * @param originLngs      origin longitudes
+	 * @param destinationLats destination latitudes
+	 * @param destinationLngs destination longitudes
+	 * @param matrix          target of at least N x M elements
+	 * @param pool            pool to run the calculation on
+	 * @return task of the calculation
+	 */
+	public static ForkJoinTask<Void> submit(double[] originLats, double[] originLngs, double[] destinationLats,
+			double[] destinationLngs, double[] matrix, ForkJoinPool pool) {
+		Assert.notNull(matrix, "Matrix must not be null.");
+		return DistanceMatrix.submit(originLats, originLngs, destinationLats, destinationLngs,
+				new ArrayTarget(matrix), matrix.length, pool);
+	}
+
+	/**
+	 * Start calculating a distance matrix into a buffer, e.g. in direct memory.
+	 * Cancelling the returned task stops the calculation after the tiles currently
+	 * in progress.
+	 *
+	 * @param originLats      origin latitudes
+	 * @param originLngs      origin longitudes
+	 * @param destinationLats destination latitudes
+	 * @param destinationLngs destination longitudes
+	 * @param matrix          target with a limit of at least N x M elements,
+	 *                        written at absolute indices
+	 * @param pool            pool to run the calculation on
+	 * @return task of the calculation
+	 */
+	public static ForkJoinTask<Void> submit(double[] originLats, double[] originLngs, double[] destinationLats,
+			double[] destinationLngs, DoubleBuffer matrix, ForkJoinPool pool) {
+		Assert.notNull(matrix, "Matrix must not be null.");
+		Assert.isTrue(!matrix.isReadOnly(), "Matrix must not be read-only.");
+		return DistanceMatrix.submit(originLats, originLngs, destinationLats, destinationLngs,
+				new BufferTarget(matrix), matrix.limit(), pool);
+	}
+
+	private static ForkJoinTask<Void> submit(double[] originLats, double[] originLngs, double[] destinationLats,
+			double[] destinationLngs, Target target, int capacity, ForkJoinPool pool) {
+		Assert.notNull(originLats, "Origin latitudes must not be null.");
+		Assert.notNull(originLngs, "Origin longitudes must not be null.");
+		Assert.notNull(destinationLats, "Destination latitudes must not be null.");
+		Assert.notNull(destinationLngs, "Destination longitudes must not be null.");
+		Assert.isTrue(originLats.length == originLngs.length,
+				"Origin latitudes and longitudes must have the same length.");
+		Assert.isTrue(destinationLats.length == destinationLngs.length,
+				"Destination latitudes and longitudes must have the same length.");
+		Assert.isTrue((long) originLats.length * destinationLats.length <= capacity,
+				"Matrix must have at least " + ((long) originLats.length * destinationLats.length) + " elements.");
+		Assert.notNull(pool, "Pool must not be null.");
+
+		final boolean symmetric = originLats == destinationLats && originLngs == destinationLngs;
+		final Points origins = new Points(originLats, originLngs);
+		final Points destinations = symmetric ? origins : new Points(destinationLats, destinationLngs);
+		final MatrixTask task = new MatrixTask(origins, destinations, symmetric, target);
+		pool.execute(task);
+		return task;
+	}
+
+	private DistanceMatrix() {
+	}
+
+	private interface Target {
+
+		void set(int index, double value);
+	}
+
+	private static final class ArrayTarget implements Target {
+
+		private final double[] matrix;
+
+		private ArrayTarget(double[] matrix) {
+			this.matrix = matrix;
+		}
+
+		@Override
+		public void set(int index, double value) {
+			this.matrix[index] = value;
+		}
+	}
+
+	private static final class BufferTarget implements Target {
+
+		private final DoubleBuffer matrix;
+
+		private BufferTarget(DoubleBuffer matrix) {
+			this.matrix = matrix;
+		}
+
+		@Override
+		public void set(int index, double value) {
+			this.matrix.put(index, value);
+		}
+	}
+
+	private static final class Points {
+
+		private final int size;
+		private final double[] latRads;
+		private final double[] lngRads;
+		private final double[] cosLats;
+
+		private Points(double[] lats, double[] lngs) {
+			this.size = lats.length;
+			this.latRads = new double[this.size];
+			this.lngRads = new double[this.size];
+			this.cosLats = new double[this.size];
+			for (int i = 0; i < this.size; i++) {
+				this.latRads[i] = Math.toRadians(lats[i]);
+				this.lngRads[i] = Math.toRadians(lngs[i]);
+				this.cosLats[i] = Math.cos(this.latRads[i]);
+			}
+		}
+
+		private double distanceMeter(int i, Points other, int j) {
+			return Haversine.MEAN_EARTH_RADIUS_METER * Haversine.centralAngle(this.latRads[i], this.lngRads[i],
+					this.cosLats[i], other.latRads[j], other.lngRads[j], other.cosLats[j]);
+		}
+	}
+
+	private static final class MatrixTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Points origins;
+		private final Points destinations;
+		private final boolean symmetric;
+		private final Target target;
+
+		private MatrixTask(Points origins, Points destinations, boolean symmetric, Target target) {
+			this.origins = origins;
+			this.destinations = destinations;
+			this.symmetric = symmetric;
+			this.target = target;
+		}
+
+		@Override
+		protected void compute() {
+			final int tileRows = (this.origins.size + TILE - 1) / TILE;
+			new TileRowsTask(this, 0, tileRows).invoke();
+		}
+
+		private void computeTile(int tileRow, int tileColumn) {
+			final int rowFrom = tileRow * TILE;
+			final int rowTo = Math.min(rowFrom + TILE, this.origins.size);
+			final int columnFrom = tileColumn * TILE;
+			final int columnTo = Math.min(columnFrom + TILE, this.destinations.size);
+			final int columns = this.destinations.size;
+
+			for (int i = rowFrom; i < rowTo; i++) {
+				if (this.symmetric) {
+					for (int j = Math.max(columnFrom, i + 1); j < columnTo; j++) {
+						final double meter = this.origins.distanceMeter(i, this.destinations, j);
+						this.target.set(i * columns + j, meter);
+						this.target.set(j * columns + i, meter);
+					}
+					if (i >= columnFrom && i < columnTo) {
+						this.target.set(i * columns + i, 0);
+					}
+				} else {
+					for (int j = columnFrom; j < columnTo; j++) {
+						this.target.set(i * columns + j, this.origins.distanceMeter(i, this.destinations, j));
+					}
+				}
+			}
+		}
+	}
+
+	private static final class TileRowsTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final MatrixTask root;
+		private final int from;
+		private final int to;
+
+		private TileRowsTask(MatrixTask root, int from, int to) {
+			this.root = root;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.to - this.from > 1) {
+				final int mid = (this.from + this.to) >>> 1;
+				invokeAll(new TileRowsTask(this.root, this.from, mid), new TileRowsTask(this.root, mid, this.to));
+				return;
+			}
+			final int tileColumns = (this.root.destinations.size + TILE - 1) / TILE;
+			for (int tileColumn = this.root.symmetric ? this.from : 0; tileColumn < tileColumns; tileColumn++) {
+				if (this.root.isCancelled()) {
+					return;
+				}
+				this.root.computeTile(this.from, tileColumn);
+			}
+		}
+	}
+}
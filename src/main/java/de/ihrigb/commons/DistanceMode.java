@@ -0,0 +1,101 @@
+package de.ihrigb.commons;
+
+/**
+ * Selectable formulas to calculate distances of two points on a sphere with
+ * {@link Constants#MEAN_EARTH_RADIUS}. Error bounds are relative to
+ * {@link #HAVERSINE}.
+ */
+public enum DistanceMode {
+
+	/**
+	 * Haversine formula, see {@link Haversine}. Exact on the sphere.
+	 */
+	HAVERSINE {
+
+		@Override
+		public double distanceMeter(double latStart, double lngStart, double latEnd, double lngEnd) {
+			return Haversine.distanceMeter(latStart, lngStart, latEnd, lngEnd);
+		}
+	},
+
+	/**
+	 * Spherical law of cosines. Exact on the sphere, but <code>acos</code> loses
+	 * precision for close points: the absolute error stays below 0.2 m, which is
+	 * about 0.02 % at 1 km and negligible above 10 km. Mainly useful to match
+	 * results of other systems using this formula: <code>Math.acos</code> is not
+	 * intrinsified by HotSpot, which makes this slower than haversine.
+	 */
+	SPHERICAL_LAW_OF_COSINES {
+
+		@Override
+		public double distanceMeter(double latStart, double lngStart, double latEnd, double lngEnd) {
+			final double latStartRad = Math.toRadians(latStart);
+			final double latEndRad = Math.toRadians(latEnd);
+			final double cos = Math.sin(latStartRad) * Math.sin(latEndRad)
+					+ Math.cos(latStartRad) * Math.cos(latEndRad) * Math.cos(Math.toRadians(lngEnd - lngStart));
+			return Haversine.MEAN_EARTH_RADIUS_METER * Math.acos(Math.max(-1, Math.min(1, cos)));
+		}
+	},
+
+	/**
+	 * Equirectangular projection at the mean latitude of both points (Pythagoras
+	 * on a local flat earth). Needs a single <code>cos</code> and a
+	 * <code>sqrt</code>. Below 80° latitude the relative error is below 0.001 %
+	 * for spans up to 10 km, 0.05 % up to 100 km and 1 % up to 500 km.
+	 */
+	EQUIRECTANGULAR {
+
+		@Override
+		public double distanceMeter(double latStart, double lngStart, double latEnd, double lngEnd) {
+			final double x = Math.toRadians(wrapLongitudeDelta(lngEnd - lngStart))
+					* Math.cos(Math.toRadians((latStart + latEnd) / 2));
+			final double y = Math.toRadians(latEnd - latStart);
+			return Haversine.MEAN_EARTH_RADIUS_METER * Math.sqrt(x * x + y * y);
+		}
+	};
+
+	static double wrapLongitudeDelta(double dLng) {
+		if (dLng > 180) {
+			return dLng - 360;
+		}
+		if (dLng < -180) {
+			return dLng + 360;
+		}
+		return dLng;
+	}
+
+	/**
+	 * Calculate the distance in meter.
+	 *
+	 * @param latStart start latitude
+	 * @param lngStart start longitude
+	 * @param latEnd   end latitude
+	 * @param lngEnd   end longitude
+	 * @return distance between two points in meter
+	 */
+	public abstract double distanceMeter(double latStart, double lngStart, double latEnd, double lngEnd);
+
+	/**
+	 * Calculate the distance.
+	 *
+	 * @param latStart start latitude
+	 * @param lngStart start longitude
+	 * @param latEnd   end latitude
+	 * @param lngEnd   end longitude
+	 * @return distance between two points
+	 */
+	public Distance distance(double latStart, double lngStart, double latEnd, double lngEnd) {
+		return Distance.ofMeter(this.distanceMeter(latStart, lngStart, latEnd, lngEnd));
+	}
+
+	/**
+	 * Calculate the distance.
+	 *
+	 * @param start start LatLng
+	 * @param end   end LatLng
+	 * @return distance between two points
+	 */
+	public Distance distance(LatLng start, LatLng end) {
+		return this.distance(start.getLatitude(), start.getLongitude(), end.getLatitude(), end.getLongitude());
+	}
+}
@@ -0,0 +1,340 @@
+package de.ihrigb.commons;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encoder and decoder for the encoded polyline algorithm format. Coordinates
+ * are rounded to a precision of decimal places, delta encoded and written as
+ * printable ASCII characters. Decoders read directly from a
+ * {@link CharSequence} or from the remaining bytes of a {@link ByteBuffer},
+ * without changing its position.
+ */
+public final class EncodedPolyline {
+
+	/**
+	 * Default precision of 5 decimal places.
+	 */
+	public static final int DEFAULT_PRECISION = 5;
+
+	/**
+	 * Encode points with the default precision.
+	 *
+	 * @param points points to be encoded
+	 * @return encoded polyline
+	 */
+	public static String encode(List<LatLng> points) {
+		return EncodedPolyline.encode(points, DEFAULT_PRECISION);
+	}
+
+	/**
+	 * Encode points.
+	 *
+	 * @param points    points to be encoded
+	 * @param precision number of decimal places, 0 to 8
+	 * @return encoded polyline
+	 */
+	public static String encode(List<LatLng> points, int precision) {
+		Assert.notNull(points, "Points must not be null.");
+		final double factor = EncodedPolyline.factor(precision);
+
+		final StringBuilder builder = new StringBuilder(points.size() * 8);
+		long lat = 0;
+		long lng = 0;
+		for (LatLng point : points) {
+			final long nextLat = Math.round(point.getLatitude() * factor);
+			final long nextLng = Math.round(point.getLongitude() * factor);
+			EncodedPolyline.encode(nextLat - lat, builder);
+			EncodedPolyline.encode(nextLng - lng, builder);
+			lat = nextLat;
+			lng = nextLng;
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Encode points of coordinate columns.
+	 *
+	 * @param lats      latitudes
+	 * @param lngs      longitudes
+	 * @param offset    index of the first point
+	 * @param length    number of points
+	 * @param precision number of decimal places, 0 to 8
+	 * @return encoded polyline
+	 */
+	public static String encode(double[] lats, double[] lngs, int offset, int length, int precision) {
+		Haversine.checkRange(lats, offset, length, "Latitudes");
+		Haversine.checkRange(lngs, offset, length, "Longitudes");
+		final double factor = EncodedPolyline.factor(precision);
+
+		final StringBuilder builder = new StringBuilder(length * 8);
+		long lat = 0;
+		long lng = 0;
+		for (int i = offset; i < offset + length; i++) {
+			final long nextLat = Math.round(lats[i] * factor);
+			final long nextLng = Math.round(lngs[i] * factor);
+			EncodedPolyline.encode(nextLat - lat, builder);
+			EncodedPolyline.encode(nextLng - lng, builder);
+			lat = nextLat;
+			lng = nextLng;
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Decode a polyline with the default precision.
+	 *
+	 * @param encoded encoded polyline
+	 * @return decoded points
+	 */
+	public static List<LatLng> decode(CharSequence encoded) {
+		return EncodedPolyline.decode(encoded, DEFAULT_PRECISION);
+	}
+
+	/**
+	 * Decode a polyline.
+	 *
+	 * @param encoded   encoded polyline
+	 * @param precision number of decimal places, 0 to 8
+	 * @return decoded points
+	 */
+	public static List<LatLng> decode(CharSequence encoded, int precision) {
+		Assert.notNull(encoded, "Encoded polyline must not be null.");
+		final double factor = EncodedPolyline.factor(precision);
+
+		final List<LatLng> points = new ArrayList<>();
+		final Decoder decoder = new Decoder(new CharSequenceSource(encoded));
+		while (decoder.hasNext()) {
+			decoder.next();
+			points.add(new LatLng(decoder.lat / factor, decoder.lng / factor));
+		}
+		return points;
+	}
+
+	/**
+	 * Decode a polyline into coordinate columns.
+	 *
+	 * @param encoded   encoded polyline
+	 * @param precision number of decimal places, 0 to 8
+	 * @param lats      target latitudes
+	 * @param lngs      target longitudes
+	 * @param offset    index of the first point in the target columns
+	 * @return number of decoded points, see {@link #count(CharSequence)}
+	 */
+	public static int decode(CharSequence encoded, int precision, double[] lats, double[] lngs, int offset) {
+		Assert.notNull(encoded, "Encoded polyline must not be null.");
+		return EncodedPolyline.decode(new CharSequenceSource(encoded), precision, lats, lngs, offset);
+	}
+
+	/**
+	 * Decode a polyline of ASCII bytes into coordinate columns.
+	 *
+	 * @param encoded   encoded polyline, from position to limit
+	 * @param precision number of decimal places, 0 to 8
+	 * @param lats      target latitudes
+	 * @param lngs      target longitudes
+	 * @param offset    index of the first point in the target columns
+	 * @return number of decoded points, see {@link #count(ByteBuffer)}
+	 */
+	public static int decode(ByteBuffer encoded, int precision, double[] lats, double[] lngs, int offset) {
+		Assert.notNull(encoded, "Encoded polyline must not be null.");
+		return EncodedPolyline.decode(new ByteBufferSource(encoded), precision, lats, lngs, offset);
+	}
+
+	/**
+	 * Count the points of a polyline without decoding it.
+	 *
+	 * @param encoded encoded polyline
+	 * @return number of points
+	 */
+	public static int count(CharSequence encoded) {
+		Assert.notNull(encoded, "Encoded polyline must not be null.");
+		return EncodedPolyline.count(new CharSequenceSource(encoded));
+	}
+
+	/**
+	 * Count the points of a polyline of ASCII bytes without decoding it.
+	 *
+	 * @param encoded encoded polyline, from position to limit
+	 * @return number of points
+	 */
+	public static int count(ByteBuffer encoded) {
+		Assert.notNull(encoded, "Encoded polyline must not be null.");
+		return EncodedPolyline.count(new ByteBufferSource(encoded));
+	}
+
+	/**
+	 * Calculate the haversine length of a polyline in a single pass, without
+	 * materializing its points.
+	 *
+	 * @param encoded   encoded polyline
+	 * @param precision number of decimal places, 0 to 8
+	 * @return length of the polyline
+	 */
+	public static Distance length(CharSequence encoded, int precision) {
+		Assert.notNull(encoded, "Encoded polyline must not be null.");
+		return EncodedPolyline.length(new CharSequenceSource(encoded), precision).getTotalDistance();
+	}
+
+	/**
+	 * Calculate the haversine length of a polyline of ASCII bytes in a single
+	 * pass, without materializing its points.
+	 *
+	 * @param encoded   encoded polyline, from position to limit
+	 * @param precision number of decimal places, 0 to 8
+	 * @return length of the polyline
+	 */
+	public static Distance length(ByteBuffer encoded, int precision) {
+		Assert.notNull(encoded, "Encoded polyline must not be null.");
+		return EncodedPolyline.length(new ByteBufferSource(encoded), precision).getTotalDistance();
+	}
+
+	private static double factor(int precision) {
+		Assert.isTrue(precision >= 0 && precision <= 8, "Precision must be between 0 and 8.");
+		return Math.pow(10, precision);
+	}
+
+	private static void encode(long value, StringBuilder builder) {
+		long zigZag = value < 0 ? ~(value << 1) : value << 1;
+		while (zigZag >= 0x20) {
+			builder.append((char) ((0x20 | (zigZag & 0x1F)) + 63));
+			zigZag >>>= 5;
+		}
+		builder.append((char) (zigZag + 63));
+	}
+
+	private static int decode(Source source, int precision, double[] lats, double[] lngs, int offset) {
+		final double factor = EncodedPolyline.factor(precision);
+		final int count = EncodedPolyline.count(source);
+		Haversine.checkRange(lats, offset, count, "Latitudes");
+		Haversine.checkRange(lngs, offset, count, "Longitudes");
+
+		final Decoder decoder = new Decoder(source);
+		for (int i = offset; decoder.hasNext(); i++) {
+			decoder.next();
+			lats[i] = decoder.lat / factor;
+			lngs[i] = decoder.lng / factor;
+		}
+		return count;
+	}
+
+	private static int count(Source source) {
+		int values = 0;
+		for (int i = 0; i < source.length(); i++) {
+			final int b = source.charAt(i) - 63;
+			if (b < 0 || b > 63) {
+				throw new IllegalArgumentException("Invalid polyline character at " + i + ".");
+			}
+			if (b < 0x20) {
+				values++;
+			}
+		}
+		if (values % 2 != 0 || (source.length() > 0 && source.charAt(source.length() - 1) - 63 >= 0x20)) {
+			throw new IllegalArgumentException("Incomplete polyline.");
+		}
+		return values / 2;
+	}
+
+	private static Track length(Source source, int precision) {
+		final double factor = EncodedPolyline.factor(precision);
+		final Track track = new Track();
+		final Decoder decoder = new Decoder(source);
+		while (decoder.hasNext()) {
+			decoder.next();
+			track.add(decoder.lat / factor, decoder.lng / factor);
+		}
+		return track;
+	}
+
+	private EncodedPolyline() {
+	}
+
+	private interface Source {
+
+		int length();
+
+		int charAt(int index);
+	}
+
+	private static final class CharSequenceSource implements Source {
+
+		private final CharSequence chars;
+
+		private CharSequenceSource(CharSequence chars) {
+			this.chars = chars;
+		}
+
+		@Override
+		public int length() {
+			return this.chars.length();
+		}
+
+		@Override
+		public int charAt(int index) {
+			return this.chars.charAt(index);
+		}
+	}
+
+	private static final class ByteBufferSource implements Source {
+
+		private final ByteBuffer bytes;
+		private final int position;
+		private final int length;
+
+		private ByteBufferSource(ByteBuffer bytes) {
+			this.bytes = bytes;
+			this.position = bytes.position();
+			this.length = bytes.remaining();
+		}
+
+		@Override
+		public int length() {
+			return this.length;
+		}
+
+		@Override
+		public int charAt(int index) {
+			return this.bytes.get(this.position + index) & 0xFF;
+		}
+	}
+
+	private static final class Decoder {
+
+		private final Source source;
+		private int index;
+		private long lat;
+		private long lng;
+
+		private Decoder(Source source) {
+			this.source = source;
+		}
+
+		private boolean hasNext() {
+			return this.index < this.source.length();
+		}
+
+		private void next() {
+			this.lat += this.nextValue();
+			this.lng += this.nextValue();
+		}
+
+		private long nextValue() {
+			long result = 0;
+			int shift = 0;
+			int b;
+			do {
+				if (this.index >= this.source.length() || shift > 60) {
+					throw new IllegalArgumentException("Incomplete polyline.");
+				}
+				b = this.source.charAt(this.index++) - 63;
+				if (b < 0 || b > 63) {
+					throw new IllegalArgumentException("Invalid polyline character at " + (this.index - 1) + ".");
+				}
+				result |= (long) (b & 0x1F) << shift;
+				shift += 5;
+			} while (b >= 0x20);
+			return (result & 1) != 0 ? ~(result >>> 1) : result >>> 1;
+		}
+	}
+}
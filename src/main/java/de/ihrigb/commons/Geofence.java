@@ -0,0 +1,65 @@
+package de.ihrigb.commons;
+
+/**
+ * Area which points can be tested against.
+ */
+public interface Geofence {
+
+	/**
+	 * Check whether a point lies within this fence.
+	 *
+	 * @param lat latitude
+	 * @param lng longitude
+	 * @return true, if contained
+	 */
+	boolean contains(double lat, double lng);
+
+	/**
+	 * Get the bounding box of this fence. Points outside of it are never
+	 * contained.
+	 *
+	 * @return bounding box
+	 */
+	BoundingBox getBoundingBox();
+
+	/**
+	 * Check whether a point lies within this fence.
+	 *
+	 * @param latLng the point
+	 * @return true, if contained
+	 */
+	default boolean contains(LatLng latLng) {
+		Assert.notNull(latLng, "LatLng must not be null.");
+		return this.contains(latLng.getLatitude(), latLng.getLongitude());
+	}
+
+	/**
+	 * Test points of coordinate columns against this fence.
+	 *
+	 * @param lats          latitudes
+	 * @param lngs          longitudes
+	 * @param offset        index of the first point
+	 * @param length        number of points
+	 * @param results       target array for the results
+	 * @param resultsOffset index of the first result in the target array
+	 * @return number of contained points
+	 */
+	default int contains(double[] lats, double[] lngs, int offset, int length, boolean[] results,
+			int resultsOffset) {
+		Haversine.checkRange(lats, offset, length, "Latitudes");
+		Haversine.checkRange(lngs, offset, length, "Longitudes");
+		Assert.notNull(results, "Results must not be null.");
+		Assert.isTrue(resultsOffset >= 0 && resultsOffset <= results.length - length,
+				"Results do not contain the range [" + resultsOffset + ", " + resultsOffset + " + " + length + ").");
+
+		int count = 0;
+		for (int i = 0; i < length; i++) {
+			final boolean contained = this.contains(lats[offset + i], lngs[offset + i]);
+			results[resultsOffset + i] = contained;
+			if (contained) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,92 @@
+package de.ihrigb.commons;
+
+/**
+ * Transition of a tracked object relative to a {@link Geofence}, emitted by a
+ * {@link GeofenceEventDetector}.
+ *
+ * @param <K> type of the object ids
+ */
+public final class GeofenceEvent<K> {
+
+	/**
+	 * Kind of transition.
+	 */
+	public enum Type {
+		/**
+		 * The object moved into the fence.
+		 */
+		ENTER,
+		/**
+		 * The object moved out of the fence.
+		 */
+		EXIT,
+		/**
+		 * The object stayed within the fence for the dwell time.
+		 */
+		DWELL;
+	}
+
+	private final Type type;
+	private final K id;
+	private final int fenceIndex;
+	private final Geofence fence;
+	private final long timestampMillis;
+
+	GeofenceEvent(Type type, K id, int fenceIndex, Geofence fence, long timestampMillis) {
+		this.type = type;
+		this.id = id;
+		this.fenceIndex = fenceIndex;
+		this.fence = fence;
+		this.timestampMillis = timestampMillis;
+	}
+
+	/**
+	 * Get the kind of transition.
+	 *
+	 * @return type
+	 */
+	public Type getType() {
+		return this.type;
+	}
+
+	/**
+	 * Get the id of the object.
+	 *
+	 * @return object id
+	 */
+	public K getId() {
+		return this.id;
+	}
+
+	/**
+	 * Get the index of the fence within the fences of the detector.
+	 *
+	 * @return fence index
+	 */
+	public int getFenceIndex() {
+		return this.fenceIndex;
+	}
+
+	/**
+	 * Get the fence.
+	 *
+	 * @return fence
+	 */
+	public Geofence getFence() {
+		return this.fence;
+	}
+
+	/**
+	 * Get the timestamp of the position causing the transition.
+	 *
+	 * @return timestamp in milliseconds
+	 */
+	public long getTimestampMillis() {
+		return this.timestampMillis;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s %s %d @ %d", this.type, this.id, this.fenceIndex, this.timestampMillis);
+	}
+}
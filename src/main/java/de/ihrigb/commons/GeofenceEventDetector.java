@@ -0,0 +1,334 @@
+package de.ihrigb.commons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Detector for {@link GeofenceEvent}s of moving objects against a fixed set of
+ * fences. For each object the fences containing its last position are kept;
+ * new positions emit {@link GeofenceEvent.Type#ENTER ENTER} and
+ * {@link GeofenceEvent.Type#EXIT EXIT} events for changed fences and a single
+ * {@link GeofenceEvent.Type#DWELL DWELL} event once an object stayed in a fence
+ * for the dwell time.
+ * <p>
+ * Thread-safe without a global lock. Fences are located through a grid of
+ * their bounding boxes, with cells about the size of a typical fence, and
+ * tested before any lock is taken. The object state is then swapped atomically
+ * within its {@link ConcurrentHashMap} bin. Positions older than the last one
+ * of an object are ignored. Events are passed to the listener after the update
+ * of the object state, so events of concurrent updates of the same object may
+ * reach the listener out of order.
+ *
+ * @param <K> type of the object ids
+ */
+public final class GeofenceEventDetector<K> {
+
+	// upper bound of grid cells, the cell size grows if the fences span a larger area
+	private static final int MAX_CELLS = 1 << 20;
+	// fences covering more grid cells are tested for every position
+	private static final int MAX_CELLS_PER_FENCE = 64;
+	private static final double MIN_CELL_SIZE = 1e-4;
+	private static final int[] NONE = new int[0];
+	private static final long[] NO_TIMESTAMPS = new long[0];
+
+	/**
+	 * Create a detector without dwell events.
+	 *
+	 * @param <K>      type of the object ids
+	 * @param fences   fences, referenced by their index in events
+	 * @param listener listener for the events
+	 * @return detector
+	 */
+	public static <K> GeofenceEventDetector<K> of(List<? extends Geofence> fences,
+			Consumer<? super GeofenceEvent<K>> listener) {
+		return GeofenceEventDetector.of(fences, 0, listener);
+	}
+
+	/**
+	 * Create a detector.
+	 *
+	 * @param <K>         type of the object ids
+	 * @param fences      fences, referenced by their index in events
+	 * @param dwellMillis time in milliseconds an object has to stay in a fence
+	 *                    before a dwell event is emitted; 0 to disable dwell
+	 *                    events
+	 * @param listener    listener for the events
+	 * @return detector
+	 */
+	public static <K> GeofenceEventDetector<K> of(List<? extends Geofence> fences, long dwellMillis,
+			Consumer<? super GeofenceEvent<K>> listener) {
+		Assert.notNull(fences, "Fences must not be null.");
+		Assert.isTrue(dwellMillis >= 0, "Dwell time must not be negative.");
+		Assert.notNull(listener, "Listener must not be null.");
+		final Geofence[] array = fences.toArray(new Geofence[0]);
+		for (Geofence fence : array) {
+			Assert.notNull(fence, "Fences must not contain null.");
+		}
+		return new GeofenceEventDetector<>(array, dwellMillis, listener);
+	}
+
+	private final Geofence[] fences;
+	private final long dwellMillis;
+	private final Consumer<? super GeofenceEvent<K>> listener;
+	private final ConcurrentHashMap<K, State> states = new ConcurrentHashMap<>();
+	private final int[] globalFences;
+	// dense grid over the bounding boxes of all other fences
+	private final double south;
+	private final double west;
+	private final double cellScale;
+	private final int rows;
+	private final int columns;
+	private final int[][] cells;
+
+	private GeofenceEventDetector(Geofence[] fences, long dwellMillis, Consumer<? super GeofenceEvent<K>> listener) {
+		this.fences = fences;
+		this.dwellMillis = dwellMillis;
+		this.listener = listener;
+
+		final BoundingBox[] boxes = new BoundingBox[fences.length];
+		final double[] extents = new double[fences.length];
+		int gridded = 0;
+		double south = Double.POSITIVE_INFINITY;
+		double west = Double.POSITIVE_INFINITY;
+		double north = Double.NEGATIVE_INFINITY;
+		double east = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < fences.length; i++) {
+			boxes[i] = fences[i].getBoundingBox();
+			if (!boxes[i].crossesAntimeridian()) {
+				south = Math.min(south, boxes[i].getSouth());
+				west = Math.min(west, boxes[i].getWest());
+				north = Math.max(north, boxes[i].getNorth());
+				east = Math.max(east, boxes[i].getEast());
+				extents[gridded++] = Math.max(boxes[i].getNorth() - boxes[i].getSouth(),
+						boxes[i].getEast() - boxes[i].getWest());
+			}
+		}
+
+		// cells about the size of a typical fence, so each position meets few candidates
+		double cellSize = MIN_CELL_SIZE;
+		if (gridded > 0) {
+			Arrays.sort(extents, 0, gridded);
+			cellSize = Math.max(MIN_CELL_SIZE, extents[gridded / 2]);
+			while (((north - south) / cellSize + 1) * ((east - west) / cellSize + 1) > MAX_CELLS) {
+				cellSize *= 2;
+			}
+		} else {
+			south = west = north = east = 0;
+		}
+		this.south = south;
+		this.west = west;
+		this.cellScale = 1 / cellSize;
+		this.rows = (int) ((north - south) * this.cellScale) + 1;
+		this.columns = (int) ((east - west) * this.cellScale) + 1;
+		this.cells = new int[this.rows * this.columns][];
+
+		final int[] cellCounts = new int[this.cells.length];
+		final List<Integer> global = new ArrayList<>();
+		for (int pass = 0; pass < 2; pass++) {
+			for (int i = 0; i < fences.length; i++) {
+				final BoundingBox box = boxes[i];
+				final int firstRow = this.row(box.getSouth());
+				final int lastRow = this.row(box.getNorth());
+				final int firstColumn = this.column(box.getWest());
+				final int lastColumn = this.column(box.getEast());
+				if (box.crossesAntimeridian()
+						|| (long) (lastRow - firstRow + 1) * (lastColumn - firstColumn + 1) > MAX_CELLS_PER_FENCE) {
+					if (pass == 0) {
+						global.add(i);
+					}
+					continue;
+				}
+				for (int r = firstRow; r <= lastRow; r++) {
+					for (int c = firstColumn; c <= lastColumn; c++) {
+						final int cell = r * this.columns + c;
+						if (pass == 0) {
+							cellCounts[cell]++;
+						} else {
+							if (this.cells[cell] == null) {
+								this.cells[cell] = new int[cellCounts[cell]];
+								cellCounts[cell] = 0;
+							}
+							this.cells[cell][cellCounts[cell]++] = i;
+						}
+					}
+				}
+			}
+		}
+		this.globalFences = global.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * Get the fences of this detector.
+	 *
+	 * @return fences
+	 */
+	public List<Geofence> getFences() {
+		return Collections.unmodifiableList(Arrays.asList(this.fences));
+	}
+
+	/**
+	 * Update the position of an object and emit its events.
+	 *
+	 * @param id              object id
+	 * @param latLng          position
+	 * @param timestampMillis timestamp of the position in milliseconds
+	 */
+	public void update(K id, LatLng latLng, long timestampMillis) {
+		Assert.notNull(latLng, "LatLng must not be null.");
+		this.update(id, latLng.getLatitude(), latLng.getLongitude(), timestampMillis);
+	}
+
+	/**
+	 * Update the position of an object and emit its events.
+	 *
+	 * @param id              object id
+	 * @param lat             latitude
+	 * @param lng             longitude
+	 * @param timestampMillis timestamp of the position in milliseconds
+	 */
+	public void update(K id, double lat, double lng, long timestampMillis) {
+		Assert.notNull(id, "Id must not be null.");
+		final int[] containing = this.containing(lat, lng);
+		final List<GeofenceEvent<K>> events = new ArrayList<>(0);
+		this.states.compute(id, (key, previous) -> this.next(key, previous, containing, timestampMillis, events));
+		for (GeofenceEvent<K> event : events) {
+			this.listener.accept(event);
+		}
+	}
+
+	/**
+	 * Stop tracking an object without emitting events.
+	 *
+	 * @param id object id
+	 * @return true, if the object was tracked
+	 */
+	public boolean remove(K id) {
+		Assert.notNull(id, "Id must not be null.");
+		return this.states.remove(id) != null;
+	}
+
+	/**
+	 * Get the indices of the fences containing the last position of an object.
+	 *
+	 * @param id object id
+	 * @return ascending fence indices, empty if the object is not tracked
+	 */
+	public int[] getFenceIndices(K id) {
+		Assert.notNull(id, "Id must not be null.");
+		final State state = this.states.get(id);
+		return state == null ? NONE : state.fences.clone();
+	}
+
+	/**
+	 * Get the number of tracked objects.
+	 *
+	 * @return number of tracked objects
+	 */
+	public int size() {
+		return this.states.size();
+	}
+
+	private int[] containing(double lat, double lng) {
+		final double normalizedLng = BoundingBox.normalizeLongitude(lng);
+		final double row = Math.floor((lat - this.south) * this.cellScale);
+		final double column = Math.floor((normalizedLng - this.west) * this.cellScale);
+		final int[] local = row < 0 || row >= this.rows || column < 0 || column >= this.columns ? null
+				: this.cells[(int) row * this.columns + (int) column];
+		int[] result = NONE;
+		int size = 0;
+		for (int pass = 0; pass < 2; pass++) {
+			final int[] candidates = pass == 0 ? this.globalFences : local;
+			if (candidates == null) {
+				continue;
+			}
+			for (int fence : candidates) {
+				if (this.fences[fence].contains(lat, lng)) {
+					if (size == result.length) {
+						result = Arrays.copyOf(result, Math.max(4, size * 2));
+					}
+					result[size++] = fence;
+				}
+			}
+		}
+		if (size == 0) {
+			return NONE;
+		}
+		result = Arrays.copyOf(result, size);
+		Arrays.sort(result);
+		return result;
+	}
+
+	private State next(K id, State previous, int[] containing, long timestamp, List<GeofenceEvent<K>> events) {
+		if (previous == null) {
+			previous = new State(NONE, NO_TIMESTAMPS, NONE, Long.MIN_VALUE);
+		} else if (timestamp < previous.timestamp) {
+			return previous;
+		}
+		final long[] entered = containing.length == 0 ? NO_TIMESTAMPS : new long[containing.length];
+		final int[] dwelled = containing.length == 0 ? NONE : new int[(containing.length + 31) / 32];
+
+		int p = 0;
+		int c = 0;
+		while (p < previous.fences.length || c < containing.length) {
+			final int previousFence = p < previous.fences.length ? previous.fences[p] : Integer.MAX_VALUE;
+			final int fence = c < containing.length ? containing[c] : Integer.MAX_VALUE;
+			if (previousFence < fence) {
+				events.add(this.event(GeofenceEvent.Type.EXIT, id, previousFence, timestamp));
+				p++;
+			} else if (fence < previousFence) {
+				events.add(this.event(GeofenceEvent.Type.ENTER, id, fence, timestamp));
+				entered[c] = timestamp;
+				c++;
+			} else {
+				entered[c] = previous.entered[p];
+				if (isSet(previous.dwelled, p)) {
+					dwelled[c >> 5] |= 1 << c;
+				} else if (this.dwellMillis > 0 && timestamp - entered[c] >= this.dwellMillis) {
+					events.add(this.event(GeofenceEvent.Type.DWELL, id, fence, timestamp));
+					dwelled[c >> 5] |= 1 << c;
+				}
+				p++;
+				c++;
+			}
+		}
+		return new State(containing, entered, dwelled, timestamp);
+	}
+
+	private GeofenceEvent<K> event(GeofenceEvent.Type type, K id, int fence, long timestamp) {
+		return new GeofenceEvent<>(type, id, fence, this.fences[fence], timestamp);
+	}
+
+	private static boolean isSet(int[] bits, int index) {
+		return (bits[index >> 5] & (1 << index)) != 0;
+	}
+
+	private int row(double lat) {
+		final int row = (int) Math.floor((lat - this.south) * this.cellScale);
+		return row < 0 ? 0 : row >= this.rows ? this.rows - 1 : row;
+	}
+
+	private int column(double lng) {
+		final int column = (int) Math.floor((lng - this.west) * this.cellScale);
+		return column < 0 ? 0 : column >= this.columns ? this.columns - 1 : column;
+	}
+
+	// immutable, replaced on each update
+	private static final class State {
+
+		private final int[] fences;
+		private final long[] entered;
+		private final int[] dwelled;
+		private final long timestamp;
+
+		private State(int[] fences, long[] entered, int[] dwelled, long timestamp) {
+			this.fences = fences;
+			this.entered = entered;
+			this.dwelled = dwelled;
+			this.timestamp = timestamp;
+		}
+	}
+}
@@ -0,0 +1,247 @@
+package de.ihrigb.commons;
+
+import java.util.Arrays;
+
+/**
+ * Utils to encode and decode geohashes. Geohashes interleave the bits of the
+ * quantized longitude and latitude, starting with the longitude. A geohash
+ * string holds 5 bits per character, so the supported precisions are 1 to 12
+ * characters or 1 to 64 bits.
+ */
+public final class Geohash {
+
+	/**
+	 * Maximum precision of geohash strings in characters.
+	 */
+	public static final int MAX_PRECISION = 12;
+
+	private static final char[] BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz".toCharArray();
+	private static final int[] BASE32_INDEX = new int[128];
+
+	static {
+		Arrays.fill(BASE32_INDEX, -1);
+		for (int i = 0; i < BASE32.length; i++) {
+			BASE32_INDEX[BASE32[i]] = i;
+		}
+	}
+
+	/**
+	 * Encode a point to a geohash string.
+	 *
+	 * @param latLng    the point
+	 * @param precision number of characters, 1 to 12
+	 * @return geohash
+	 */
+	public static String encode(LatLng latLng, int precision) {
+		Assert.notNull(latLng, "LatLng must not be null.");
+		return Geohash.encode(latLng.getLatitude(), latLng.getLongitude(), precision);
+	}
+
+	/**
+	 * Encode a point to a geohash string.
+	 *
+	 * @param lat       latitude
+	 * @param lng       longitude
+	 * @param precision number of characters, 1 to 12
+	 * @return geohash
+	 */
+	public static String encode(double lat, double lng, int precision) {
+		Assert.isTrue(precision >= 1 && precision <= MAX_PRECISION, "Precision must be between 1 and 12.");
+		return Geohash.toString(Geohash.encodeBits(lat, lng, 5 * precision), precision);
+	}
+
+	/**
+	 * Encode a point to a numeric geohash.
+	 *
+	 * @param lat  latitude
+	 * @param lng  longitude
+	 * @param bits number of bits, 1 to 64
+	 * @return geohash in the lowest bits
+	 */
+	public static long encodeBits(double lat, double lng, int bits) {
+		Assert.isTrue(bits >= 1 && bits <= 64, "Bits must be between 1 and 64.");
+		final long hash = Geohash.interleave(Geohash.quantize(lng + 180, 360), Geohash.quantize(lat + 90, 180));
+		return hash >>> (64 - bits);
+	}
+
+	/**
+	 * Convert a numeric geohash to its string representation.
+	 *
+	 * @param hash      numeric geohash of <code>5 * precision</code> bits
+	 * @param precision number of characters, 1 to 12
+	 * @return geohash
+	 */
+	public static String toString(long hash, int precision) {
+		Assert.isTrue(precision >= 1 && precision <= MAX_PRECISION, "Precision must be between 1 and 12.");
+		final char[] chars = new char[precision];
+		for (int i = precision - 1; i >= 0; i--) {
+			chars[i] = BASE32[(int) (hash & 0x1F)];
+			hash >>>= 5;
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * Convert a geohash string to its numeric representation of
+	 * <code>5 * geohash.length()</code> bits.
+	 *
+	 * @param geohash geohash
+	 * @return numeric geohash
+	 */
+	public static long toBits(String geohash) {
+		Assert.notNull(geohash, "Geohash must not be null.");
+		Assert.isTrue(geohash.length() >= 1 && geohash.length() <= MAX_PRECISION,
+				"Geohash must have 1 to 12 characters.");
+		long hash = 0;
+		for (int i = 0; i < geohash.length(); i++) {
+			final char c = geohash.charAt(i);
+			final int value = c < BASE32_INDEX.length ? BASE32_INDEX[c] : -1;
+			Assert.isTrue(value >= 0, "Invalid geohash character '" + c + "'.");
+			hash = (hash << 5) | value;
+		}
+		return hash;
+	}
+
+	/**
+	 * Decode a geohash to the center of its cell.
+	 *
+	 * @param geohash geohash
+	 * @return center of the cell
+	 */
+	public static LatLng decode(String geohash) {
+		final BoundingBox bounds = Geohash.bounds(geohash);
+		return new LatLng((bounds.getSouth() + bounds.getNorth()) / 2, (bounds.getWest() + bounds.getEast()) / 2);
+	}
+
+	/**
+	 * Decode a geohash to the bounds of its cell.
+	 *
+	 * @param geohash geohash
+	 * @return bounds of the cell
+	 */
+	public static BoundingBox bounds(String geohash) {
+		return Geohash.bounds(Geohash.toBits(geohash), 5 * geohash.length());
+	}
+
+	/**
+	 * Decode a numeric geohash to the bounds of its cell.
+	 *
+	 * @param hash numeric geohash
+	 * @param bits number of bits, 1 to 64
+	 * @return bounds of the cell
+	 */
+	public static BoundingBox bounds(long hash, int bits) {
+		Assert.isTrue(bits >= 1 && bits <= 64, "Bits must be between 1 and 64.");
+		final int lngBits = (bits + 1) / 2;
+		final int latBits = bits / 2;
+		final double lngCell = 360d / (1L << lngBits);
+		final double latCell = 180d / (1L << latBits);
+		final long lngIndex = Geohash.lngIndex(hash, bits);
+		final long latIndex = Geohash.latIndex(hash, bits);
+		return BoundingBox.of(latIndex * latCell - 90, lngIndex * lngCell - 180, (latIndex + 1) * latCell - 90,
+				(lngIndex + 1) * lngCell - 180);
+	}
+
+	/**
+	 * Get the geohash of an adjacent cell of the same precision.
+	 *
+	 * @param geohash geohash
+	 * @param dLat    cells to the north (negative for south)
+	 * @param dLng    cells to the east (negative for west), wrapping at the
+	 *                antimeridian
+	 * @return geohash of the adjacent cell, or null if it lies beyond a pole
+	 */
+	public static String neighbor(String geohash, int dLat, int dLng) {
+		final long hash = Geohash.neighborBits(Geohash.toBits(geohash), 5 * geohash.length(), dLat, dLng);
+		return hash < 0 ? null : Geohash.toString(hash, geohash.length());
+	}
+
+	/**
+	 * Get the geohashes of all adjacent cells of the same precision, clockwise
+	 * starting in the north. Cells beyond a pole are omitted.
+	 *
+	 * @param geohash geohash
+	 * @return up to 8 adjacent geohashes
+	 */
+	public static String[] neighbors(String geohash) {
+		final int[][] directions = { { 1, 0 }, { 1, 1 }, { 0, 1 }, { -1, 1 }, { -1, 0 }, { -1, -1 }, { 0, -1 },
+				{ 1, -1 } };
+		final String[] neighbors = new String[directions.length];
+		int count = 0;
+		for (int[] direction : directions) {
+			final String neighbor = Geohash.neighbor(geohash, direction[0], direction[1]);
+			if (neighbor != null) {
+				neighbors[count++] = neighbor;
+			}
+		}
+		return count == neighbors.length ? neighbors : Arrays.copyOf(neighbors, count);
+	}
+
+	/**
+	 * Get the numeric geohash of an adjacent cell of the same precision.
+	 *
+	 * @param hash numeric geohash
+	 * @param bits number of bits, 1 to 63
+	 * @param dLat cells to the north (negative for south)
+	 * @param dLng cells to the east (negative for west), wrapping at the
+	 *             antimeridian
+	 * @return numeric geohash of the adjacent cell, or -1 if it lies beyond a pole
+	 */
+	public static long neighborBits(long hash, int bits, int dLat, int dLng) {
+		Assert.isTrue(bits >= 1 && bits <= 63, "Bits must be between 1 and 63.");
+		final long latIndex = Geohash.latIndex(hash, bits) + dLat;
+		if (latIndex < 0 || latIndex >= 1L << (bits / 2)) {
+			return -1;
+		}
+		final long lngMask = (1L << ((bits + 1) / 2)) - 1;
+		final long lngIndex = (Geohash.lngIndex(hash, bits) + dLng) & lngMask;
+		return Geohash.fromIndices(latIndex, lngIndex, bits);
+	}
+
+	static long latIndex(long hash, int bits) {
+		return Geohash.compact(hash << (64 - bits)) >>> (32 - bits / 2);
+	}
+
+	static long lngIndex(long hash, int bits) {
+		return Geohash.compact((hash << (64 - bits)) >>> 1) >>> (32 - (bits + 1) / 2);
+	}
+
+	static long fromIndices(long latIndex, long lngIndex, int bits) {
+		final int lngBits = (bits + 1) / 2;
+		final int latBits = bits / 2;
+		final long hash = Geohash.interleave(lngIndex << (32 - lngBits), latIndex << (32 - latBits));
+		return hash >>> (64 - bits);
+	}
+
+	static long quantize(double value, double range) {
+		final long quantized = (long) Math.floor(value / range * 0x1p32);
+		return Math.max(0, Math.min(0xFFFFFFFFL, quantized));
+	}
+
+	static long interleave(long lng, long lat) {
+		return (Geohash.spread(lng) << 1) | Geohash.spread(lat);
+	}
+
+	static long spread(long value) {
+		long x = value & 0xFFFFFFFFL;
+		x = (x | (x << 16)) & 0x0000FFFF0000FFFFL;
+		x = (x | (x << 8)) & 0x00FF00FF00FF00FFL;
+		x = (x | (x << 4)) & 0x0F0F0F0F0F0F0F0FL;
+		x = (x | (x << 2)) & 0x3333333333333333L;
+		x = (x | (x << 1)) & 0x5555555555555555L;
+		return x;
+	}
+
+	static long compact(long value) {
+		long x = value & 0x5555555555555555L;
+		x = (x | (x >>> 1)) & 0x3333333333333333L;
+		x = (x | (x >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+		x = (x | (x >>> 4)) & 0x00FF00FF00FF00FFL;
+		x = (x | (x >>> 8)) & 0x0000FFFF0000FFFFL;
+		x = (x | (x >>> 16)) & 0x00000000FFFFFFFFL;
+		return x;
+	}
+
+	private Geohash() {
+	}
+}
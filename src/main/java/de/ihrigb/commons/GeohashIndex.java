@@ -0,0 +1,203 @@
+package de.ihrigb.commons;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable index bucketing points by their geohash. Points are kept sorted by
+ * geohash, so every cell and every shorter prefix is a contiguous range. A
+ * radius search only visits the cells intersecting the bounding box of the
+ * circle, which are at most 9 cells as long as the radius does not exceed the
+ * cell size, and checks the points found there by haversine.
+ */
+public final class GeohashIndex {
+
+	/**
+	 * Build an index from a collection of points. Indices in results refer to the
+	 * iteration order of the collection.
+	 *
+	 * @param points    points to be indexed
+	 * @param precision geohash precision in characters, 1 to 12
+	 * @return index
+	 */
+	public static GeohashIndex of(Collection<LatLng> points, int precision) {
+		Assert.notNull(points, "Points must not be null.");
+
+		final double[] lats = new double[points.size()];
+		final double[] lngs = new double[points.size()];
+		int i = 0;
+		for (LatLng point : points) {
+			lats[i] = point.getLatitude();
+			lngs[i] = point.getLongitude();
+			i++;
+		}
+		return new GeohashIndex(lats, lngs, 0, lats.length, precision);
+	}
+
+	/**
+	 * Build an index from coordinate columns. Indices in results refer to lats and
+	 * lngs.
+	 *
+	 * @param lats      latitudes
+	 * @param lngs      longitudes
+	 * @param offset    index of the first point
+	 * @param length    number of points
+	 * @param precision geohash precision in characters, 1 to 12
+	 * @return index
+	 */
+	public static GeohashIndex of(double[] lats, double[] lngs, int offset, int length, int precision) {
+		Haversine.checkRange(lats, offset, length, "Latitudes");
+		Haversine.checkRange(lngs, offset, length, "Longitudes");
+		return new GeohashIndex(lats, lngs, offset, length, precision);
+	}
+
+	private final int precision;
+	private final int bits;
+	private final long[] hashes;
+	private final int[] indices;
+	private final double[] lats;
+	private final double[] lngs;
+
+	private GeohashIndex(double[] lats, double[] lngs, int offset, int length, int precision) {
+		Assert.isTrue(precision >= 1 && precision <= Geohash.MAX_PRECISION, "Precision must be between 1 and 12.");
+
+		this.precision = precision;
+		this.bits = 5 * precision;
+		this.hashes = new long[length];
+		this.indices = new int[length];
+		for (int i = 0; i < length; i++) {
+			this.hashes[i] = Geohash.encodeBits(lats[offset + i], lngs[offset + i], this.bits);
+			this.indices[i] = offset + i;
+		}
+		ArrayUtils.sort(this.hashes, this.indices);
+
+		this.lats = new double[length];
+		this.lngs = new double[length];
+		for (int i = 0; i < length; i++) {
+			this.lats[i] = lats[this.indices[i]];
+			this.lngs[i] = lngs[this.indices[i]];
+		}
+	}
+
+	/**
+	 * Get the geohash precision of this index.
+	 *
+	 * @return precision in characters
+	 */
+	public int getPrecision() {
+		return this.precision;
+	}
+
+	/**
+	 * Get the number of indexed points.
+	 *
+	 * @return number of points
+	 */
+	public int size() {
+		return this.hashes.length;
+	}
+
+	/**
+	 * Get the indices of all points whose geohash starts with a prefix.
+	 *
+	 * @param prefix geohash prefix, at most as long as the precision of this index
+	 * @return indices of the points, ordered by geohash
+	 */
+	public int[] indicesOf(String prefix) {
+		Assert.notNull(prefix, "Prefix must not be null.");
+		Assert.isTrue(prefix.length() <= this.precision, "Prefix must not be longer than the index precision.");
+
+		final int shift = this.bits - 5 * prefix.length();
+		final long first = prefix.isEmpty() ? 0 : Geohash.toBits(prefix) << shift;
+		final long last = first | ((1L << shift) - 1);
+		return Arrays.copyOfRange(this.indices, this.lowerBound(first), this.lowerBound(last + 1));
+	}
+
+	/**
+	 * Find all points within a radius.
+	 *
+	 * @param center center of the circle
+	 * @param radius radius of the circle
+	 * @return points within the radius
+	 */
+	public Neighbors within(LatLng center, Distance radius) {
+		Assert.notNull(center, "Center must not be null.");
+		Assert.notNull(radius, "Radius must not be null.");
+
+		final BoundingBox box = BoundingBox.around(center, radius);
+		final Haversine.Origin origin = Haversine.origin(center);
+		final Haversine.Radius preparedRadius = Haversine.radius(radius);
+
+		final long southWest = Geohash.encodeBits(box.getSouth(), box.getWest(), this.bits);
+		final long northEast = Geohash.encodeBits(box.getNorth(), box.getEast(), this.bits);
+		final long latFrom = Geohash.latIndex(southWest, this.bits);
+		final long latTo = Geohash.latIndex(northEast, this.bits);
+		final long lngFrom = Geohash.lngIndex(southWest, this.bits);
+		final long lngCells = 1L << ((this.bits + 1) / 2);
+		final long lngCount = ((Geohash.lngIndex(northEast, this.bits) - lngFrom) & (lngCells - 1)) + 1;
+
+		final Collector collector = new Collector(origin, preparedRadius);
+		if ((latTo - latFrom + 1) * lngCount > this.hashes.length) {
+			// more cells than points: scanning the box is cheaper than visiting cells
+			for (int position = 0; position < this.hashes.length; position++) {
+				if (box.contains(this.lats[position], this.lngs[position])) {
+					collector.test(position);
+				}
+			}
+		} else {
+			for (long lat = latFrom; lat <= latTo; lat++) {
+				for (long i = 0; i < lngCount; i++) {
+					final long hash = Geohash.fromIndices(lat, (lngFrom + i) & (lngCells - 1), this.bits);
+					final int end = this.lowerBound(hash + 1);
+					for (int position = this.lowerBound(hash); position < end; position++) {
+						collector.test(position);
+					}
+				}
+			}
+		}
+		return Neighbors.sort(collector.indices, collector.meters, collector.count);
+	}
+
+	private int lowerBound(long hash) {
+		int lo = 0;
+		int hi = this.hashes.length;
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (this.hashes[mid] < hash) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	private final class Collector {
+
+		private final Haversine.Origin origin;
+		private final Haversine.Radius radius;
+		private int[] indices = new int[16];
+		private double[] meters = new double[16];
+		private int count;
+
+		private Collector(Haversine.Origin origin, Haversine.Radius radius) {
+			this.origin = origin;
+			this.radius = radius;
+		}
+
+		private void test(int position) {
+			final double lat = GeohashIndex.this.lats[position];
+			final double lng = GeohashIndex.this.lngs[position];
+			if (!this.origin.isWithin(lat, lng, this.radius)) {
+				return;
+			}
+			if (this.count == this.indices.length) {
+				this.indices = Arrays.copyOf(this.indices, 2 * this.count);
+				this.meters = Arrays.copyOf(this.meters, 2 * this.count);
+			}
+			this.indices[this.count] = GeohashIndex.this.indices[position];
+			this.meters[this.count] = this.origin.distanceMeterTo(lat, lng);
+			this.count++;
+		}
+	}
+}
@@ -5,6 +5,8 @@ package de.ihrigb.commons;
  */
 public final class Haversine {
 
+	static final double MEAN_EARTH_RADIUS_METER = Constants.MEAN_EARTH_RADIUS.getMeter();
+
 	/**
 	 * Calculate haversine distance.
 	 *
@@ -15,7 +17,7 @@ public final class Haversine {
 	 * @return distance between two points
 	 */
 	public static Distance distance(double latStart, double lngStart, double latEnd, double lngEnd) {
-		return distance(new LatLng(latStart, lngStart), new LatLng(latEnd, lngEnd));
+		return Constants.MEAN_EARTH_RADIUS.multiply(centralAngle(latStart, lngStart, latEnd, lngEnd));
 	}
 
 	/**
@@ -26,20 +28,375 @@ public final class Haversine {
 	 * @return distance between two points
 	 */
 	public static Distance distance(LatLng start, LatLng end) {
-		final double dLat = end.getRadians().getLatitude() - start.getRadians().getLatitude();
-		final double dLng = end.getRadians().getLongitude() - start.getRadians().getLongitude();
+		final double c = centralAngle(start.getLatitude(), start.getLongitude(), end.getLatitude(),
+				end.getLongitude());
+		return Constants.MEAN_EARTH_RADIUS.multiply(c);
+	}
 
-		final double a = haversin(dLat) + Math.cos(start.getRadians().getLatitude())
-				* Math.cos(end.getRadians().getLatitude()) * haversin(dLng);
-		final double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+	/**
+	 * Calculate haversine distance in meter without allocating any objects.
+	 *
+	 * @param latStart start latitude
+	 * @param lngStart start longitude
+	 * @param latEnd   end latitude
+	 * @param lngEnd   end longitude
+	 * @return distance between two points in meter
+	 */
+	public static double distanceMeter(double latStart, double lngStart, double latEnd, double lngEnd) {
+		return MEAN_EARTH_RADIUS_METER * centralAngle(latStart, lngStart, latEnd, lngEnd);
+	}
 
-		return Constants.MEAN_EARTH_RADIUS.multiply(c);
+	/**
+	 * Calculate the pairwise haversine distances of two point columns. The distance
+	 * between point <code>offset + i</code> of the start columns and point
+	 * <code>offset + i</code> of the end columns is written to
+	 * <code>meters[metersOffset + i]</code>. No objects are allocated per element,
+	 * results equal {@link #distance(double, double, double, double)}.
+	 *
+	 * @param latsStart    start latitudes
+	 * @param lngsStart    start longitudes
+	 * @param latsEnd      end latitudes
+	 * @param lngsEnd      end longitudes
+	 * @param offset       index of the first point in the input columns
+	 * @param length       number of points
+	 * @param meters       target array for the distances in meter
+	 * @param metersOffset index of the first distance in the target array
+	 */
+	public static void distances(double[] latsStart, double[] lngsStart, double[] latsEnd, double[] lngsEnd,
+			int offset, int length, double[] meters, int metersOffset) {
+		checkRange(latsStart, offset, length, "Start latitudes");
+		checkRange(lngsStart, offset, length, "Start longitudes");
+		checkRange(latsEnd, offset, length, "End latitudes");
+		checkRange(lngsEnd, offset, length, "End longitudes");
+		checkRange(meters, metersOffset, length, "Meters");
+
+		for (int i = 0; i < length; i++) {
+			final int idx = offset + i;
+			meters[metersOffset + i] = MEAN_EARTH_RADIUS_METER
+					* centralAngle(latsStart[idx], lngsStart[idx], latsEnd[idx], lngsEnd[idx]);
+		}
+	}
+
+	/**
+	 * Calculate the pairwise haversine distances of two point columns like
+	 * {@link #distances(double[], double[], double[], double[], int, int, double[], int)},
+	 * using SIMD instructions where available. On Java 17+ runtimes started with
+	 * <code>--add-modules jdk.incubator.vector</code> the Vector API is used,
+	 * otherwise this falls back to the scalar implementation. Vectorized results
+	 * may differ from the scalar ones in the last bits.
+	 *
+	 * @param latsStart    start latitudes
+	 * @param lngsStart    start longitudes
+	 * @param latsEnd      end latitudes
+	 * @param lngsEnd      end longitudes
+	 * @param offset       index of the first point in the input columns
+	 * @param length       number of points
+	 * @param meters       target array for the distances in meter
+	 * @param metersOffset index of the first distance in the target array
+	 */
+	public static void distancesVectorized(double[] latsStart, double[] lngsStart, double[] latsEnd,
+			double[] lngsEnd, int offset, int length, double[] meters, int metersOffset) {
+		checkRange(latsStart, offset, length, "Start latitudes");
+		checkRange(lngsStart, offset, length, "Start longitudes");
+		checkRange(latsEnd, offset, length, "End latitudes");
+		checkRange(lngsEnd, offset, length, "End longitudes");
+		checkRange(meters, metersOffset, length, "Meters");
+
+		HaversineKernel.pairwise(latsStart, lngsStart, latsEnd, lngsEnd, offset, length, meters, metersOffset);
+	}
+
+	/**
+	 * Check whether {@link #distancesVectorized} and
+	 * {@link Origin#distancesVectorized} run on the Vector API.
+	 *
+	 * @return true, if SIMD kernels are in use
+	 */
+	public static boolean isVectorized() {
+		return HaversineKernel.isVectorized();
+	}
+
+	/**
+	 * Prepare an origin for one-to-many distance calculations.
+	 *
+	 * @param origin origin LatLng
+	 * @return prepared origin
+	 */
+	public static Origin origin(LatLng origin) {
+		Assert.notNull(origin, "Origin must not be null.");
+		return new Origin(origin.getLatitude(), origin.getLongitude());
+	}
+
+	/**
+	 * Prepare an origin for one-to-many distance calculations.
+	 *
+	 * @param lat origin latitude
+	 * @param lng origin longitude
+	 * @return prepared origin
+	 */
+	public static Origin origin(double lat, double lng) {
+		return new Origin(lat, lng);
+	}
+
+	/**
+	 * Check whether two points are within a radius of each other. Decides without
+	 * calculating the distance itself, see {@link Radius}.
+	 *
+	 * @param start  start LatLng
+	 * @param end    end LatLng
+	 * @param radius radius
+	 * @return true, if the haversine distance is less or equal than radius
+	 */
+	public static boolean isWithin(LatLng start, LatLng end, Distance radius) {
+		return radius(radius).isWithin(start, end);
+	}
+
+	/**
+	 * Prepare a radius for repeated within-radius checks.
+	 *
+	 * @param radius radius
+	 * @return prepared radius
+	 */
+	public static Radius radius(Distance radius) {
+		Assert.notNull(radius, "Radius must not be null.");
+		return new Radius(radius);
+	}
+
+	static double centralAngle(double latStart, double lngStart, double latEnd, double lngEnd) {
+		final double latStartRad = Math.toRadians(latStart);
+		final double latEndRad = Math.toRadians(latEnd);
+		return centralAngle(latStartRad, Math.toRadians(lngStart), Math.cos(latStartRad), latEndRad,
+				Math.toRadians(lngEnd), Math.cos(latEndRad));
+	}
+
+	static double centralAngle(double latStartRad, double lngStartRad, double cosLatStart, double latEndRad,
+			double lngEndRad, double cosLatEnd) {
+		final double a = haversinCentralAngle(latStartRad, lngStartRad, cosLatStart, latEndRad, lngEndRad,
+				cosLatEnd);
+		return 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+	}
+
+	static double haversinCentralAngle(double latStartRad, double lngStartRad, double cosLatStart,
+			double latEndRad, double lngEndRad, double cosLatEnd) {
+		return haversin(latEndRad - latStartRad) + cosLatStart * cosLatEnd * haversin(lngEndRad - lngStartRad);
+	}
+
+	static void checkRange(double[] array, int offset, int length, String name) {
+		Assert.notNull(array, name + " must not be null.");
+		Assert.isTrue(offset >= 0 && length >= 0 && offset <= array.length - length,
+				name + " do not contain the range [" + offset + ", " + offset + " + " + length + ").");
 	}
 
 	private static double haversin(double val) {
-		return Math.pow(Math.sin(val / 2), 2);
+		final double sin = Math.sin(val / 2);
+		return sin * sin;
 	}
 
 	private Haversine() {
 	}
+
+	/**
+	 * Origin with cached radians and cosine of its latitude. Distances from an
+	 * origin equal the ones of {@link Haversine#distance(LatLng, LatLng)}.
+	 */
+	public static final class Origin {
+
+		private final double lat;
+		private final double lng;
+		private final double latRad;
+		private final double lngRad;
+		private final double cosLat;
+
+		private Origin(double lat, double lng) {
+			this.lat = lat;
+			this.lng = lng;
+			this.latRad = Math.toRadians(lat);
+			this.lngRad = Math.toRadians(lng);
+			this.cosLat = Math.cos(this.latRad);
+		}
+
+		/**
+		 * Get the origin as LatLng.
+		 *
+		 * @return origin
+		 */
+		public LatLng getLatLng() {
+			return new LatLng(this.lat, this.lng);
+		}
+
+		/**
+		 * Calculate the haversine distance to another point.
+		 *
+		 * @param other target point
+		 * @return haversine distance
+		 */
+		public Distance distanceTo(LatLng other) {
+			return this.distanceTo(other.getLatitude(), other.getLongitude());
+		}
+
+		/**
+		 * Calculate the haversine distance to another point.
+		 *
+		 * @param lat target latitude
+		 * @param lng target longitude
+		 * @return haversine distance
+		 */
+		public Distance distanceTo(double lat, double lng) {
+			return Constants.MEAN_EARTH_RADIUS.multiply(this.centralAngleTo(lat, lng));
+		}
+
+		/**
+		 * Calculate the haversine distance to another point in meter.
+		 *
+		 * @param lat target latitude
+		 * @param lng target longitude
+		 * @return haversine distance in meter
+		 */
+		public double distanceMeterTo(double lat, double lng) {
+			return MEAN_EARTH_RADIUS_METER * this.centralAngleTo(lat, lng);
+		}
+
+		/**
+		 * Calculate the haversine distances to a column of points. The distance to
+		 * point <code>offset + i</code> is written to
+		 * <code>meters[metersOffset + i]</code>.
+		 *
+		 * @param lats         target latitudes
+		 * @param lngs         target longitudes
+		 * @param offset       index of the first point in the input columns
+		 * @param length       number of points
+		 * @param meters       target array for the distances in meter
+		 * @param metersOffset index of the first distance in the target array
+		 */
+		public void distances(double[] lats, double[] lngs, int offset, int length, double[] meters,
+				int metersOffset) {
+			checkRange(lats, offset, length, "Latitudes");
+			checkRange(lngs, offset, length, "Longitudes");
+			checkRange(meters, metersOffset, length, "Meters");
+
+			for (int i = 0; i < length; i++) {
+				meters[metersOffset + i] = MEAN_EARTH_RADIUS_METER
+						* this.centralAngleTo(lats[offset + i], lngs[offset + i]);
+			}
+		}
+
+		/**
+		 * Calculate the haversine distances to a column of points like
+		 * {@link #distances(double[], double[], int, int, double[], int)}, using SIMD
+		 * instructions where available. See
+		 * {@link Haversine#distancesVectorized(double[], double[], double[], double[], int, int, double[], int)}.
+		 *
+		 * @param lats         target latitudes
+		 * @param lngs         target longitudes
+		 * @param offset       index of the first point in the input columns
+		 * @param length       number of points
+		 * @param meters       target array for the distances in meter
+		 * @param metersOffset index of the first distance in the target array
+		 */
+		public void distancesVectorized(double[] lats, double[] lngs, int offset, int length, double[] meters,
+				int metersOffset) {
+			checkRange(lats, offset, length, "Latitudes");
+			checkRange(lngs, offset, length, "Longitudes");
+			checkRange(meters, metersOffset, length, "Meters");
+
+			HaversineKernel.oneToMany(this.latRad, this.lngRad, this.cosLat, lats, lngs, offset, length, meters,
+					metersOffset);
+		}
+
+		/**
+		 * Check whether a point is within a radius of this origin.
+		 *
+		 * @param other  target point
+		 * @param radius prepared radius
+		 * @return true, if the haversine distance is less or equal than radius
+		 */
+		public boolean isWithin(LatLng other, Radius radius) {
+			return this.isWithin(other.getLatitude(), other.getLongitude(), radius);
+		}
+
+		/**
+		 * Check whether a point is within a radius of this origin.
+		 *
+		 * @param lat    target latitude
+		 * @param lng    target longitude
+		 * @param radius prepared radius
+		 * @return true, if the haversine distance is less or equal than radius
+		 */
+		public boolean isWithin(double lat, double lng, Radius radius) {
+			final double latRad = Math.toRadians(lat);
+			return radius.isWithin(haversinCentralAngle(this.latRad, this.lngRad, this.cosLat, latRad,
+					Math.toRadians(lng), Math.cos(latRad)));
+		}
+
+		private double centralAngleTo(double lat, double lng) {
+			final double latRad = Math.toRadians(lat);
+			return centralAngle(this.latRad, this.lngRad, this.cosLat, latRad, Math.toRadians(lng),
+					Math.cos(latRad));
+		}
+	}
+
+	/**
+	 * Radius prepared for within-radius checks. The radius is turned into a
+	 * threshold for the haversine of the central angle once, so each check skips
+	 * the <code>atan2</code> and the {@link Distance} allocation of a full distance
+	 * calculation. Results equal comparing the haversine distance with the radius,
+	 * except for distances within floating point rounding of the radius.
+	 */
+	public static final class Radius {
+
+		private final Distance distance;
+		private final double threshold;
+
+		private Radius(Distance distance) {
+			this.distance = distance;
+
+			final double angle = distance.getMeter() / MEAN_EARTH_RADIUS_METER;
+			if (angle < 0) {
+				this.threshold = -1;
+			} else if (angle >= Math.PI) {
+				this.threshold = Double.POSITIVE_INFINITY;
+			} else {
+				this.threshold = haversin(angle);
+			}
+		}
+
+		/**
+		 * Get the radius.
+		 *
+		 * @return radius
+		 */
+		public Distance getDistance() {
+			return this.distance;
+		}
+
+		/**
+		 * Check whether two points are within this radius of each other.
+		 *
+		 * @param start start LatLng
+		 * @param end   end LatLng
+		 * @return true, if the haversine distance is less or equal than radius
+		 */
+		public boolean isWithin(LatLng start, LatLng end) {
+			return this.isWithin(start.getLatitude(), start.getLongitude(), end.getLatitude(), end.getLongitude());
+		}
+
+		/**
+		 * Check whether two points are within this radius of each other.
+		 *
+		 * @param latStart start latitude
+		 * @param lngStart start longitude
+		 * @param latEnd   end latitude
+		 * @param lngEnd   end longitude
+		 * @return true, if the haversine distance is less or equal than radius
+		 */
+		public boolean isWithin(double latStart, double lngStart, double latEnd, double lngEnd) {
+			final double latStartRad = Math.toRadians(latStart);
+			final double latEndRad = Math.toRadians(latEnd);
+			return this.isWithin(haversinCentralAngle(latStartRad, Math.toRadians(lngStart), Math.cos(latStartRad),
+					latEndRad, Math.toRadians(lngEnd), Math.cos(latEndRad)));
+		}
+
+		boolean isWithin(double haversinCentralAngle) {
+			return haversinCentralAngle <= this.threshold;
+		}
+	}
 }
@@ -0,0 +1,33 @@
+package de.ihrigb.commons;
+
+/**
+ * Scalar haversine column kernels. Java 17+ runtimes get a Vector API based
+ * variant of this class from <code>META-INF/versions/17</code>.
+ */
+final class HaversineKernel {
+
+	static boolean isVectorized() {
+		return false;
+	}
+
+	static void oneToMany(double latRad, double lngRad, double cosLat, double[] lats, double[] lngs, int offset,
+			int length, double[] meters, int metersOffset) {
+		for (int i = 0; i < length; i++) {
+			final double latEndRad = Math.toRadians(lats[offset + i]);
+			meters[metersOffset + i] = Haversine.MEAN_EARTH_RADIUS_METER * Haversine.centralAngle(latRad, lngRad,
+					cosLat, latEndRad, Math.toRadians(lngs[offset + i]), Math.cos(latEndRad));
+		}
+	}
+
+	static void pairwise(double[] latsStart, double[] lngsStart, double[] latsEnd, double[] lngsEnd, int offset,
+			int length, double[] meters, int metersOffset) {
+		for (int i = 0; i < length; i++) {
+			final int idx = offset + i;
+			meters[metersOffset + i] = Haversine.MEAN_EARTH_RADIUS_METER
+					* Haversine.centralAngle(latsStart[idx], lngsStart[idx], latsEnd[idx], lngsEnd[idx]);
+		}
+	}
+
+	private HaversineKernel() {
+	}
+}
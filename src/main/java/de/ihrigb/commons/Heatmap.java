@@ -0,0 +1,453 @@
+package de.ihrigb.commons;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Density heatmap that bins points into a grid of equally sized cells over a
+ * bounding box, counting points and optionally summing their weights per cell.
+ * Rows are numbered from north to south, columns from west to east. Points
+ * outside the box are counted as dropped.
+ * <p>
+ * Points may be added by many threads concurrently. Cells are held in shards of
+ * atomic primitive arrays, one per processor, and each thread writes to the
+ * shard picked by its id, so concurrent writers rarely touch the same memory.
+ * Each shard takes 8 bytes per cell, 16 if weighted. Snapshots merge the
+ * shards.
+ */
+public final class Heatmap {
+
+	private static final int MAX_CELLS = 1 << 26;
+	private static final int MAX_SHARDS = 64;
+
+	/**
+	 * Create a heatmap counting points.
+	 *
+	 * @param bounds  bounding box of the grid
+	 * @param rows    number of rows
+	 * @param columns number of columns
+	 * @return empty heatmap
+	 */
+	public static Heatmap create(BoundingBox bounds, int rows, int columns) {
+		return new Heatmap(bounds, rows, columns, false);
+	}
+
+	/**
+	 * Create a heatmap counting points and summing their weights.
+	 *
+	 * @param bounds  bounding box of the grid
+	 * @param rows    number of rows
+	 * @param columns number of columns
+	 * @return empty heatmap
+	 */
+	public static Heatmap weighted(BoundingBox bounds, int rows, int columns) {
+		return new Heatmap(bounds, rows, columns, true);
+	}
+
+	private final BoundingBox bounds;
+	private final int rows;
+	private final int columns;
+	private final double rowsPerDegree;
+	private final double columnsPerDegree;
+	private final AtomicLongArray[] counts;
+	// raw long bits of the double sums, null if not weighted
+	private final AtomicLongArray[] weights;
+	private final LongAdder dropped = new LongAdder();
+
+	private Heatmap(BoundingBox bounds, int rows, int columns, boolean weighted) {
+		Assert.notNull(bounds, "Bounds must not be null.");
+		Assert.isTrue(rows > 0 && columns > 0 && (long) rows * columns <= MAX_CELLS,
+				"Number of cells must be between 1 and 2^26.");
+		final double height = bounds.getNorth() - bounds.getSouth();
+		final double width = Heatmap.width(bounds);
+		Assert.isTrue(height > 0 && width > 0, "Bounds must not be empty.");
+		this.bounds = bounds;
+		this.rows = rows;
+		this.columns = columns;
+		this.rowsPerDegree = rows / height;
+		this.columnsPerDegree = columns / width;
+
+		final int processors = Runtime.getRuntime().availableProcessors();
+		final int shards = Math.min(MAX_SHARDS, processors <= 1 ? 1 : Integer.highestOneBit(processors - 1) << 1);
+		this.counts = new AtomicLongArray[shards];
+		this.weights = weighted ? new AtomicLongArray[shards] : null;
+		for (int i = 0; i < shards; i++) {
+			this.counts[i] = new AtomicLongArray(rows * columns);
+			if (weighted) {
+				this.weights[i] = new AtomicLongArray(rows * columns);
+			}
+		}
+	}
+
+	private static double width(BoundingBox bounds) {
+		final double width = bounds.getEast() - bounds.getWest();
+		return bounds.crossesAntimeridian() ? width + 360 : width;
+	}
+
+	/**
+	 * Add a point.
+	 *
+	 * @param latLng the point
+	 * @return true, if the point lies within the bounds
+	 */
+	public boolean add(LatLng latLng) {
+		Assert.notNull(latLng, "LatLng must not be null.");
+		return this.add(latLng.getLatitude(), latLng.getLongitude());
+	}
+
+	/**
+	 * Add a point.
+	 *
+	 * @param lat latitude
+	 * @param lng longitude
+	 * @return true, if the point lies within the bounds
+	 */
+	public boolean add(double lat, double lng) {
+		final int cell = this.cell(lat, lng);
+		if (cell < 0) {
+			this.dropped.increment();
+			return false;
+		}
+		this.counts[this.shard()].getAndIncrement(cell);
+		return true;
+	}
+
+	/**
+	 * Add a weighted point.
+	 *
+	 * @param latLng the point
+	 * @param weight weight of the point
+	 * @return true, if the point lies within the bounds
+	 * @throws IllegalStateException if the heatmap is not weighted
+	 */
+	public boolean add(LatLng latLng, double weight) {
+		Assert.notNull(latLng, "LatLng must not be null.");
+		return this.add(latLng.getLatitude(), latLng.getLongitude(), weight);
+	}
+
+	/**
+	 * Add a weighted point.
+	 *
+	 * @param lat    latitude
+	 * @param lng    longitude
+	 * @param weight weight of the point
+	 * @return true, if the point lies within the bounds
+	 * @throws IllegalStateException if the heatmap is not weighted
+	 */
+	public boolean add(double lat, double lng, double weight) {
+		this.checkWeighted();
+		final int cell = this.cell(lat, lng);
+		if (cell < 0) {
+			this.dropped.increment();
+			return false;
+		}
+		final int shard = this.shard();
+		this.counts[shard].getAndIncrement(cell);
+		Heatmap.addWeight(this.weights[shard], cell, weight);
+		return true;
+	}
+
+	/**
+	 * Add the points of coordinate columns.
+	 *
+	 * @param lats   latitudes
+	 * @param lngs   longitudes
+	 * @param offset index of the first point
+	 * @param length number of points
+	 * @return number of points within the bounds
+	 */
+	public int add(double[] lats, double[] lngs, int offset, int length) {
+		Haversine.checkRange(lats, offset, length, "Latitudes");
+		Haversine.checkRange(lngs, offset, length, "Longitudes");
+		final AtomicLongArray counts = this.counts[this.shard()];
+		int added = 0;
+		for (int i = offset; i < offset + length; i++) {
+			final int cell = this.cell(lats[i], lngs[i]);
+			if (cell >= 0) {
+				counts.getAndIncrement(cell);
+				added++;
+			}
+		}
+		this.dropped.add(length - added);
+		return added;
+	}
+
+	/**
+	 * Add the weighted points of coordinate columns.
+	 *
+	 * @param lats    latitudes
+	 * @param lngs    longitudes
+	 * @param weights weights of the points
+	 * @param offset  index of the first point
+	 * @param length  number of points
+	 * @return number of points within the bounds
+	 * @throws IllegalStateException if the heatmap is not weighted
+	 */
+	public int add(double[] lats, double[] lngs, double[] weights, int offset, int length) {
+		Haversine.checkRange(lats, offset, length, "Latitudes");
+		Haversine.checkRange(lngs, offset, length, "Longitudes");
+		Haversine.checkRange(weights, offset, length, "Weights");
+		this.checkWeighted();
+		final int shard = this.shard();
+		final AtomicLongArray counts = this.counts[shard];
+		final AtomicLongArray sums = this.weights[shard];
+		int added = 0;
+		for (int i = offset; i < offset + length; i++) {
+			final int cell = this.cell(lats[i], lngs[i]);
+			if (cell >= 0) {
+				counts.getAndIncrement(cell);
+				Heatmap.addWeight(sums, cell, weights[i]);
+				added++;
+			}
+		}
+		this.dropped.add(length - added);
+		return added;
+	}
+
+	/**
+	 * Get a snapshot of the cells. Points added concurrently may or may not be
+	 * included.
+	 *
+	 * @return merged cells
+	 */
+	public Snapshot snapshot() {
+		return this.merge(false);
+	}
+
+	/**
+	 * Get a snapshot of the cells and reset them, e.g. to publish a heatmap per
+	 * time window. Every point, and its weight, is included in exactly one
+	 * snapshot; a point added concurrently may have its count and weight in
+	 * subsequent snapshots.
+	 *
+	 * @return merged cells
+	 */
+	public Snapshot drain() {
+		return this.merge(true);
+	}
+
+	/**
+	 * Get the number of points outside the bounds since creation or the last
+	 * drain.
+	 *
+	 * @return number of dropped points
+	 */
+	public long getDroppedCount() {
+		return this.dropped.sum();
+	}
+
+	/**
+	 * Get the bounding box of the grid.
+	 *
+	 * @return bounding box
+	 */
+	public BoundingBox getBounds() {
+		return this.bounds;
+	}
+
+	/**
+	 * Get the number of rows.
+	 *
+	 * @return number of rows
+	 */
+	public int getRows() {
+		return this.rows;
+	}
+
+	/**
+	 * Get the number of columns.
+	 *
+	 * @return number of columns
+	 */
+	public int getColumns() {
+		return this.columns;
+	}
+
+	/**
+	 * Check whether weights are summed.
+	 *
+	 * @return true, if weighted
+	 */
+	public boolean isWeighted() {
+		return this.weights != null;
+	}
+
+	// index of the cell containing the point, -1 if outside the bounds
+	int cell(double lat, double lng) {
+		if (!this.bounds.contains(lat, lng)) {
+			return -1;
+		}
+		double dLng = lng - this.bounds.getWest();
+		if (dLng < 0) {
+			dLng += 360;
+		}
+		// points on the southern and eastern bounds belong to the last row and column
+		final int row = Math.min(this.rows - 1, (int) ((this.bounds.getNorth() - lat) * this.rowsPerDegree));
+		final int column = Math.min(this.columns - 1, (int) (dLng * this.columnsPerDegree));
+		return row * this.columns + column;
+	}
+
+	private int shard() {
+		final long id = Thread.currentThread().getId();
+		return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (this.counts.length - 1);
+	}
+
+	private void checkWeighted() {
+		if (this.weights == null) {
+			throw new IllegalStateException("Heatmap is not weighted.");
+		}
+	}
+
+	private static void addWeight(AtomicLongArray sums, int cell, double weight) {
+		long bits;
+		do {
+			bits = sums.get(cell);
+		} while (!sums.compareAndSet(cell, bits, Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + weight)));
+	}
+
+	private Snapshot merge(boolean reset) {
+		final int cells = this.rows * this.columns;
+		final long[] counts = new long[cells];
+		final double[] weights = this.weights == null ? null : new double[cells];
+		for (int shard = 0; shard < this.counts.length; shard++) {
+			final AtomicLongArray shardCounts = this.counts[shard];
+			for (int cell = 0; cell < cells; cell++) {
+				counts[cell] += reset ? shardCounts.getAndSet(cell, 0) : shardCounts.get(cell);
+			}
+			if (weights != null) {
+				final AtomicLongArray shardWeights = this.weights[shard];
+				for (int cell = 0; cell < cells; cell++) {
+					weights[cell] += Double
+							.longBitsToDouble(reset ? shardWeights.getAndSet(cell, 0) : shardWeights.get(cell));
+				}
+			}
+		}
+		final long dropped = reset ? this.dropped.sumThenReset() : this.dropped.sum();
+		return new Snapshot(this, counts, weights, dropped);
+	}
+
+	/**
+	 * Immutable merged state of a {@link Heatmap}.
+	 */
+	public static final class Snapshot {
+
+		private final BoundingBox bounds;
+		private final int rows;
+		private final int columns;
+		private final long[] counts;
+		private final double[] weights;
+		private final long dropped;
+
+		private Snapshot(Heatmap heatmap, long[] counts, double[] weights, long dropped) {
+			this.bounds = heatmap.bounds;
+			this.rows = heatmap.rows;
+			this.columns = heatmap.columns;
+			this.counts = counts;
+			this.weights = weights;
+			this.dropped = dropped;
+		}
+
+		/**
+		 * Get the number of rows.
+		 *
+		 * @return number of rows
+		 */
+		public int getRows() {
+			return this.rows;
+		}
+
+		/**
+		 * Get the number of columns.
+		 *
+		 * @return number of columns
+		 */
+		public int getColumns() {
+			return this.columns;
+		}
+
+		/**
+		 * Get the number of points in a cell.
+		 *
+		 * @param row    row, counted from the north
+		 * @param column column, counted from the west
+		 * @return number of points
+		 */
+		public long getCount(int row, int column) {
+			return this.counts[this.index(row, column)];
+		}
+
+		/**
+		 * Get the sum of the weights of the points in a cell.
+		 *
+		 * @param row    row, counted from the north
+		 * @param column column, counted from the west
+		 * @return sum of the weights, NaN if the heatmap is not weighted
+		 */
+		public double getWeight(int row, int column) {
+			final int index = this.index(row, column);
+			return this.weights == null ? Double.NaN : this.weights[index];
+		}
+
+		/**
+		 * Get the number of points in all cells.
+		 *
+		 * @return number of points
+		 */
+		public long getTotalCount() {
+			long total = 0;
+			for (long count : this.counts) {
+				total += count;
+			}
+			return total;
+		}
+
+		/**
+		 * Get the highest number of points in a cell, e.g. to normalize colors.
+		 *
+		 * @return maximum number of points
+		 */
+		public long getMaxCount() {
+			long max = 0;
+			for (long count : this.counts) {
+				max = Math.max(max, count);
+			}
+			return max;
+		}
+
+		/**
+		 * Get the number of points outside the bounds.
+		 *
+		 * @return number of dropped points
+		 */
+		public long getDroppedCount() {
+			return this.dropped;
+		}
+
+		/**
+		 * Get the bounding box of a cell.
+		 *
+		 * @param row    row, counted from the north
+		 * @param column column, counted from the west
+		 * @return bounding box of the cell
+		 */
+		public BoundingBox getCellBounds(int row, int column) {
+			this.index(row, column);
+			final double height = (this.bounds.getNorth() - this.bounds.getSouth()) / this.rows;
+			final double width = Heatmap.width(this.bounds) / this.columns;
+			final double north = this.bounds.getNorth() - row * height;
+			final double south = row == this.rows - 1 ? this.bounds.getSouth() : north - height;
+			final double west = BoundingBox.normalizeLongitude(this.bounds.getWest() + column * width);
+			final double east = column == this.columns - 1 ? this.bounds.getEast()
+					: BoundingBox.normalizeLongitude(this.bounds.getWest() + (column + 1) * width);
+			return BoundingBox.of(south, west, north, east);
+		}
+
+		private int index(int row, int column) {
+			if (row < 0 || row >= this.rows || column < 0 || column >= this.columns) {
+				throw new IndexOutOfBoundsException(
+						"Cell " + row + "/" + column + " out of bounds for " + this.rows + "/" + this.columns + ".");
+			}
+			return row * this.columns + column;
+		}
+	}
+}
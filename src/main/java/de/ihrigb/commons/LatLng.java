@@ -67,6 +67,17 @@ public final class LatLng {
 		return LatLng.distance(this, other);
 	}
 
+	/**
+	 * Check whether another point is within a radius of this one.
+	 *
+	 * @param other  target point
+	 * @param radius radius
+	 * @return true, if the haversine distance is less or equal than radius
+	 */
+	public boolean isWithin(LatLng other, Distance radius) {
+		return Haversine.isWithin(this, other, radius);
+	}
+
 	/**
 	 * Radians representation of LatLng.
 	 */
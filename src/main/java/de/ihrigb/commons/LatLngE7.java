@@ -0,0 +1,169 @@
+package de.ihrigb.commons;
+
+/**
+ * Utils for a compact fixed-point representation of coordinates: degrees are
+ * quantized to 10<sup>-7</sup> (about 1 cm) and stored as int, a point is
+ * packed into one long with the latitude in the upper and the longitude in the
+ * lower 32 bits.
+ */
+public final class LatLngE7 {
+
+	/**
+	 * Number of fixed-point units per degree.
+	 */
+	public static final double SCALE = 1e7;
+
+	/**
+	 * Quantize degrees to fixed-point.
+	 *
+	 * @param degrees degrees within [-180, 180]
+	 * @return fixed-point degrees
+	 */
+	public static int encode(double degrees) {
+		Assert.isTrue(degrees >= -180 && degrees <= 180, "Degrees must be within [-180, 180].");
+		return (int) Math.round(degrees * SCALE);
+	}
+
+	/**
+	 * Convert fixed-point degrees back to degrees.
+	 *
+	 * @param e7 fixed-point degrees
+	 * @return degrees
+	 */
+	public static double decode(int e7) {
+		return e7 / SCALE;
+	}
+
+	/**
+	 * Pack a point into a long.
+	 *
+	 * @param latLng the point
+	 * @return packed point
+	 */
+	public static long pack(LatLng latLng) {
+		Assert.notNull(latLng, "LatLng must not be null.");
+		return LatLngE7.pack(latLng.getLatitude(), latLng.getLongitude());
+	}
+
+	/**
+	 * Pack a point into a long.
+	 *
+	 * @param lat latitude within [-90, 90]
+	 * @param lng longitude within [-180, 180]
+	 * @return packed point
+	 */
+	public static long pack(double lat, double lng) {
+		Assert.isTrue(lat >= -90 && lat <= 90, "Latitude must be within [-90, 90].");
+		return LatLngE7.packE7(LatLngE7.encode(lat), LatLngE7.encode(lng));
+	}
+
+	/**
+	 * Pack fixed-point coordinates into a long.
+	 *
+	 * @param latE7 fixed-point latitude
+	 * @param lngE7 fixed-point longitude
+	 * @return packed point
+	 */
+	public static long packE7(int latE7, int lngE7) {
+		return ((long) latE7 << 32) | (lngE7 & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Pack coordinate columns. Point <code>offset + i</code> is written to
+	 * <code>packed[packedOffset + i]</code>.
+	 *
+	 * @param lats         latitudes
+	 * @param lngs         longitudes
+	 * @param offset       index of the first point
+	 * @param length       number of points
+	 * @param packed       target array for the packed points
+	 * @param packedOffset index of the first packed point in the target array
+	 */
+	public static void pack(double[] lats, double[] lngs, int offset, int length, long[] packed, int packedOffset) {
+		Haversine.checkRange(lats, offset, length, "Latitudes");
+		Haversine.checkRange(lngs, offset, length, "Longitudes");
+		Assert.notNull(packed, "Packed must not be null.");
+		Assert.isTrue(packedOffset >= 0 && packedOffset <= packed.length - length,
+				"Packed does not contain the range [" + packedOffset + ", " + packedOffset + " + " + length + ").");
+
+		for (int i = 0; i < length; i++) {
+			packed[packedOffset + i] = LatLngE7.pack(lats[offset + i], lngs[offset + i]);
+		}
+	}
+
+	/**
+	 * Get the fixed-point latitude of a packed point.
+	 *
+	 * @param packed packed point
+	 * @return fixed-point latitude
+	 */
+	public static int latitudeE7(long packed) {
+		return (int) (packed >> 32);
+	}
+
+	/**
+	 * Get the fixed-point longitude of a packed point.
+	 *
+	 * @param packed packed point
+	 * @return fixed-point longitude
+	 */
+	public static int longitudeE7(long packed) {
+		return (int) packed;
+	}
+
+	/**
+	 * Get the latitude of a packed point.
+	 *
+	 * @param packed packed point
+	 * @return latitude
+	 */
+	public static double latitude(long packed) {
+		return LatLngE7.decode(LatLngE7.latitudeE7(packed));
+	}
+
+	/**
+	 * Get the longitude of a packed point.
+	 *
+	 * @param packed packed point
+	 * @return longitude
+	 */
+	public static double longitude(long packed) {
+		return LatLngE7.decode(LatLngE7.longitudeE7(packed));
+	}
+
+	/**
+	 * Unpack a point.
+	 *
+	 * @param packed packed point
+	 * @return the point
+	 */
+	public static LatLng toLatLng(long packed) {
+		return new LatLng(LatLngE7.latitude(packed), LatLngE7.longitude(packed));
+	}
+
+	/**
+	 * Calculate the haversine distance of two packed points in meter.
+	 *
+	 * @param start packed start point
+	 * @param end   packed end point
+	 * @return distance between two points in meter
+	 */
+	public static double distanceMeter(long start, long end) {
+		return Haversine.distanceMeter(LatLngE7.latitude(start), LatLngE7.longitude(start),
+				LatLngE7.latitude(end), LatLngE7.longitude(end));
+	}
+
+	/**
+	 * Calculate the haversine distance of two packed points.
+	 *
+	 * @param start packed start point
+	 * @param end   packed end point
+	 * @return distance between two points
+	 */
+	public static Distance distance(long start, long end) {
+		return Distance.ofMeter(LatLngE7.distanceMeter(start, end));
+	}
+
+	private LatLngE7() {
+	}
+}
@@ -0,0 +1,416 @@
+package de.ihrigb.commons;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Immutable k-d tree for nearest neighbor and radius searches under the
+ * haversine distance. Points are stored as unit vectors in three dimensions,
+ * where the chord length orders points like the great circle distance, so
+ * searches take logarithmic time for well distributed points. Reported
+ * distances are calculated by {@link Haversine}.
+ */
+public final class LatLngTree {
+
+	private static final int PARALLEL_THRESHOLD = 1 << 15;
+
+	/**
+	 * Build a tree from a collection of points. Indices in results refer to the
+	 * iteration order of the collection.
+	 *
+	 * @param points points to be indexed
+	 * @return tree
+	 */
+	public static LatLngTree of(Collection<LatLng> points) {
+		Assert.notNull(points, "Points must not be null.");
+
+		final double[] lats = new double[points.size()];
+		final double[] lngs = new double[points.size()];
+		int i = 0;
+		for (LatLng point : points) {
+			lats[i] = point.getLatitude();
+			lngs[i] = point.getLongitude();
+			i++;
+		}
+		return new LatLngTree(lats, lngs, 0, lats.length);
+	}
+
+	/**
+	 * Build a tree from coordinate columns. Indices in results refer to lats and
+	 * lngs. Inputs of 32768 points and more are built in parallel on the common
+	 * fork-join pool.
+	 *
+	 * @param lats   latitudes
+	 * @param lngs   longitudes
+	 * @param offset index of the first point
+	 * @param length number of points
+	 * @return tree
+	 */
+	public static LatLngTree of(double[] lats, double[] lngs, int offset, int length) {
+		Haversine.checkRange(lats, offset, length, "Latitudes");
+		Haversine.checkRange(lngs, offset, length, "Longitudes");
+		return new LatLngTree(lats, lngs, offset, length);
+	}
+
+	private final int size;
+	private final double[] xyz;
+	private final byte[] dims;
+	private final int[] indices;
+	private final double[] lats;
+	private final double[] lngs;
+
+	private LatLngTree(double[] lats, double[] lngs, int offset, int length) {
+		this.size = length;
+		this.xyz = new double[3 * length];
+		this.dims = new byte[length];
+		final int[] positions = new int[length];
+		for (int i = 0; i < length; i++) {
+			final double latRad = Math.toRadians(lats[offset + i]);
+			final double lngRad = Math.toRadians(lngs[offset + i]);
+			final double cosLat = Math.cos(latRad);
+			this.xyz[3 * i] = cosLat * Math.cos(lngRad);
+			this.xyz[3 * i + 1] = cosLat * Math.sin(lngRad);
+			this.xyz[3 * i + 2] = Math.sin(latRad);
+			positions[i] = i;
+		}
+
+		if (length >= PARALLEL_THRESHOLD) {
+			ForkJoinPool.commonPool().invoke(new BuildAction(positions, 0, length));
+		} else {
+			this.build(positions, 0, length);
+		}
+
+		this.indices = new int[length];
+		this.lats = new double[length];
+		this.lngs = new double[length];
+		for (int i = 0; i < length; i++) {
+			this.indices[i] = offset + positions[i];
+			this.lats[i] = lats[offset + positions[i]];
+			this.lngs[i] = lngs[offset + positions[i]];
+		}
+	}
+
+	/**
+	 * Get the number of indexed points.
+	 *
+	 * @return number of points
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Find the k nearest points.
+	 *
+	 * @param point query point
+	 * @param k     maximum number of points to be found
+	 * @return up to k nearest points
+	 */
+	public Neighbors nearest(LatLng point, int k) {
+		Assert.notNull(point, "Point must not be null.");
+		return this.nearest(point.getLatitude(), point.getLongitude(), k);
+	}
+
+	/**
+	 * Find the k nearest points.
+	 *
+	 * @param lat query latitude
+	 * @param lng query longitude
+	 * @param k   maximum number of points to be found
+	 * @return up to k nearest points
+	 */
+	public Neighbors nearest(double lat, double lng, int k) {
+		Assert.isTrue(k > 0, "k must be positive.");
+
+		final NearestSearch search = new NearestSearch(lat, lng, Math.min(k, this.size));
+		search.search(0, this.size);
+
+		final Haversine.Origin origin = Haversine.origin(lat, lng);
+		final int[] indices = new int[search.count];
+		final double[] meters = new double[search.count];
+		for (int i = 0; i < search.count; i++) {
+			final int position = search.positions[i];
+			indices[i] = this.indices[position];
+			meters[i] = origin.distanceMeterTo(this.lats[position], this.lngs[position]);
+		}
+		return Neighbors.sort(indices, meters, search.count);
+	}
+
+	/**
+	 * Find all points within a radius.
+	 *
+	 * @param center center of the circle
+	 * @param radius radius of the circle
+	 * @return points within the radius
+	 */
+	public Neighbors within(LatLng center, Distance radius) {
+		Assert.notNull(center, "Center must not be null.");
+		return this.within(center.getLatitude(), center.getLongitude(), radius);
+	}
+
+	/**
+	 * Find all points within a radius.
+	 *
+	 * @param lat    center latitude
+	 * @param lng    center longitude
+	 * @param radius radius of the circle
+	 * @return points within the radius
+	 */
+	public Neighbors within(double lat, double lng, Distance radius) {
+		Assert.notNull(radius, "Radius must not be null.");
+
+		final RadiusSearch search = new RadiusSearch(lat, lng, radius);
+		search.search(0, this.size);
+		return Neighbors.sort(search.indices, search.meters, search.count);
+	}
+
+	private void build(int[] positions, int lo, int hi) {
+		while (hi - lo > 1) {
+			final int mid = this.split(positions, lo, hi);
+			this.build(positions, lo, mid);
+			lo = mid + 1;
+		}
+	}
+
+	private int split(int[] positions, int lo, int hi) {
+		final int dim = this.widestDimension(lo, hi);
+		final int mid = (lo + hi) >>> 1;
+		this.select(positions, lo, hi - 1, mid, dim);
+		this.dims[mid] = (byte) dim;
+		return mid;
+	}
+
+	private int widestDimension(int lo, int hi) {
+		int widest = 0;
+		double widestSpread = -1;
+		for (int dim = 0; dim < 3; dim++) {
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+			for (int i = lo; i < hi; i++) {
+				final double value = this.xyz[3 * i + dim];
+				min = Math.min(min, value);
+				max = Math.max(max, value);
+			}
+			if (max - min > widestSpread) {
+				widestSpread = max - min;
+				widest = dim;
+			}
+		}
+		return widest;
+	}
+
+	private void select(int[] positions, int lo, int hi, int k, int dim) {
+		while (hi > lo) {
+			final double pivot = this.xyz[3 * ((lo + hi) >>> 1) + dim];
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (this.xyz[3 * i + dim] < pivot) {
+					i++;
+				}
+				while (this.xyz[3 * j + dim] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					this.swap(positions, i++, j--);
+				}
+			}
+			if (k <= j) {
+				hi = j;
+			} else if (k >= i) {
+				lo = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+	private void swap(int[] positions, int i, int j) {
+		final int position = positions[i];
+		positions[i] = positions[j];
+		positions[j] = position;
+		for (int dim = 0; dim < 3; dim++) {
+			final double value = this.xyz[3 * i + dim];
+			this.xyz[3 * i + dim] = this.xyz[3 * j + dim];
+			this.xyz[3 * j + dim] = value;
+		}
+	}
+
+	private double chordSquared(int position, double x, double y, double z) {
+		final double dx = this.xyz[3 * position] - x;
+		final double dy = this.xyz[3 * position + 1] - y;
+		final double dz = this.xyz[3 * position + 2] - z;
+		return dx * dx + dy * dy + dz * dz;
+	}
+
+	private final class BuildAction extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int[] positions;
+		private final int lo;
+		private final int hi;
+
+		private BuildAction(int[] positions, int lo, int hi) {
+			this.positions = positions;
+			this.lo = lo;
+			this.hi = hi;
+		}
+
+		@Override
+		protected void compute() {
+			if (this.hi - this.lo < PARALLEL_THRESHOLD) {
+				LatLngTree.this.build(this.positions, this.lo, this.hi);
+				return;
+			}
+			final int mid = LatLngTree.this.split(this.positions, this.lo, this.hi);
+			invokeAll(new BuildAction(this.positions, this.lo, mid),
+					new BuildAction(this.positions, mid + 1, this.hi));
+		}
+	}
+
+	private abstract class Search {
+
+		final double[] query = new double[3];
+
+		Search(double lat, double lng) {
+			final double latRad = Math.toRadians(lat);
+			final double lngRad = Math.toRadians(lng);
+			this.query[0] = Math.cos(latRad) * Math.cos(lngRad);
+			this.query[1] = Math.cos(latRad) * Math.sin(lngRad);
+			this.query[2] = Math.sin(latRad);
+		}
+
+		void search(int lo, int hi) {
+			while (lo < hi) {
+				final int mid = (lo + hi) >>> 1;
+				this.visit(mid, LatLngTree.this.chordSquared(mid, this.query[0], this.query[1], this.query[2]));
+
+				final int dim = LatLngTree.this.dims[mid];
+				final double diff = this.query[dim] - LatLngTree.this.xyz[3 * mid + dim];
+				if (diff < 0) {
+					this.search(lo, mid);
+					if (diff * diff > this.bound()) {
+						return;
+					}
+					lo = mid + 1;
+				} else {
+					this.search(mid + 1, hi);
+					if (diff * diff > this.bound()) {
+						return;
+					}
+					hi = mid;
+				}
+			}
+		}
+
+		abstract void visit(int position, double chordSquared);
+
+		abstract double bound();
+	}
+
+	private final class NearestSearch extends Search {
+
+		private final int k;
+		private final int[] positions;
+		private final double[] chords;
+		private int count;
+
+		private NearestSearch(double lat, double lng, int k) {
+			super(lat, lng);
+			this.k = k;
+			this.positions = new int[k];
+			this.chords = new double[k];
+		}
+
+		@Override
+		void visit(int position, double chordSquared) {
+			if (this.count < this.k) {
+				int i = this.count++;
+				while (i > 0 && this.chords[(i - 1) / 2] < chordSquared) {
+					this.chords[i] = this.chords[(i - 1) / 2];
+					this.positions[i] = this.positions[(i - 1) / 2];
+					i = (i - 1) / 2;
+				}
+				this.chords[i] = chordSquared;
+				this.positions[i] = position;
+			} else if (chordSquared < this.chords[0]) {
+				int i = 0;
+				while (true) {
+					int child = 2 * i + 1;
+					if (child >= this.k) {
+						break;
+					}
+					if (child + 1 < this.k && this.chords[child + 1] > this.chords[child]) {
+						child++;
+					}
+					if (this.chords[child] <= chordSquared) {
+						break;
+					}
+					this.chords[i] = this.chords[child];
+					this.positions[i] = this.positions[child];
+					i = child;
+				}
+				this.chords[i] = chordSquared;
+				this.positions[i] = position;
+			}
+		}
+
+		@Override
+		double bound() {
+			return this.count < this.k ? Double.POSITIVE_INFINITY : this.chords[0];
+		}
+	}
+
+	private final class RadiusSearch extends Search {
+
+		private final Haversine.Origin origin;
+		private final Haversine.Radius radius;
+		private final double bound;
+		private int[] indices = new int[16];
+		private double[] meters = new double[16];
+		private int count;
+
+		private RadiusSearch(double lat, double lng, Distance radius) {
+			super(lat, lng);
+			this.origin = Haversine.origin(lat, lng);
+			this.radius = Haversine.radius(radius);
+
+			final double angle = radius.getMeter() / Haversine.MEAN_EARTH_RADIUS_METER;
+			if (angle < 0) {
+				this.bound = -1;
+			} else if (angle >= Math.PI) {
+				this.bound = Double.POSITIVE_INFINITY;
+			} else {
+				final double chord = 2 * Math.sin(angle / 2);
+				this.bound = chord * chord * (1 + 1e-9) + 1e-15;
+			}
+		}
+
+		@Override
+		void visit(int position, double chordSquared) {
+			if (chordSquared > this.bound) {
+				return;
+			}
+			final double lat = LatLngTree.this.lats[position];
+			final double lng = LatLngTree.this.lngs[position];
+			if (!this.origin.isWithin(lat, lng, this.radius)) {
+				return;
+			}
+			if (this.count == this.indices.length) {
+				this.indices = Arrays.copyOf(this.indices, 2 * this.count);
+				this.meters = Arrays.copyOf(this.meters, 2 * this.count);
+			}
+			this.indices[this.count] = LatLngTree.this.indices[position];
+			this.meters[this.count] = this.origin.distanceMeterTo(lat, lng);
+			this.count++;
+		}
+
+		@Override
+		double bound() {
+			return this.bound;
+		}
+	}
+}
@@ -0,0 +1,471 @@
+package de.ihrigb.commons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Updatable spatial index of moving objects, keyed by object id. Current
+ * positions are kept in a uniform latitude/longitude grid of concurrent cells,
+ * so updates only touch the map bin of the object and the bins of its old and
+ * new cell. Distances are calculated by {@link Haversine}.
+ * <p>
+ * Thread-safe. Queries do not block updates. They report every object indexed
+ * throughout the query exactly once, with a position it had during the query.
+ * Updates within a cell replace the entry of the object in place. Moves to
+ * another cell are logged in one of {@value #STRIPES} stripes of cells, and a
+ * query resolves the moves into the stripes it read through the current
+ * positions. If a stripe logged more than {@value #STRIPE_LOG_SIZE} moves
+ * during the query, its cells within the query are read again. Cells are kept
+ * once created, so memory grows with the area the objects ever visited.
+ *
+ * @param <K> type of the object ids
+ */
+public final class MovingObjectIndex<K> {
+
+	private static final double METER_PER_DEGREE = Math.toRadians(Haversine.MEAN_EARTH_RADIUS_METER);
+	private static final int STRIPES = 64;
+	private static final int STRIPE_LOG_SIZE = 256;
+	// longs per cache line, so writers of different stripes do not share lines
+	private static final int PADDING = 8;
+	private static final int MAX_RESOLVE_PASSES = 4;
+
+	/**
+	 * Create an index with cells of about 1 km.
+	 *
+	 * @param <K> type of the object ids
+	 * @return empty index
+	 */
+	public static <K> MovingObjectIndex<K> create() {
+		return MovingObjectIndex.create(Distance.ofMeter(1000));
+	}
+
+	/**
+	 * Create an index. Cells should be about the size of typical query radii.
+	 *
+	 * @param <K>      type of the object ids
+	 * @param cellSize latitudinal size of the grid cells
+	 * @return empty index
+	 */
+	public static <K> MovingObjectIndex<K> create(Distance cellSize) {
+		Assert.notNull(cellSize, "Cell size must not be null.");
+		final double cellDegrees = cellSize.getMeter() / METER_PER_DEGREE;
+		Assert.isTrue(cellDegrees >= 1e-6 && cellDegrees <= 90, "Cell size must be between 0.1 m and 10000 km.");
+		return new MovingObjectIndex<>(cellDegrees);
+	}
+
+	private final double cellDegrees;
+	private final int rows;
+	private final int columns;
+	private final ConcurrentHashMap<K, Position<K>> positions = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<Long, ConcurrentHashMap<K, Position<K>>> cells = new ConcurrentHashMap<>();
+	// move sequence per stripe at index stripe * PADDING
+	private final AtomicLongArray moves = new AtomicLongArray(STRIPES * PADDING);
+	private final AtomicReferenceArray<Move<K>> moveLog = new AtomicReferenceArray<>(STRIPES * STRIPE_LOG_SIZE);
+
+	private MovingObjectIndex(double cellDegrees) {
+		this.cellDegrees = cellDegrees;
+		this.rows = (int) Math.ceil(180 / cellDegrees);
+		this.columns = (int) Math.ceil(360 / cellDegrees);
+	}
+
+	/**
+	 * Set the position of an object.
+	 *
+	 * @param id     object id
+	 * @param latLng current position
+	 */
+	public void update(K id, LatLng latLng) {
+		Assert.notNull(latLng, "LatLng must not be null.");
+		this.update(id, latLng.getLatitude(), latLng.getLongitude());
+	}
+
+	/**
+	 * Set the position of an object.
+	 *
+	 * @param id  object id
+	 * @param lat current latitude
+	 * @param lng current longitude
+	 */
+	public void update(K id, double lat, double lng) {
+		Assert.notNull(id, "Id must not be null.");
+		final double normalizedLng = BoundingBox.normalizeLongitude(lng);
+		final long cell = (long) this.row(lat) * this.columns + this.column(normalizedLng);
+		this.positions.compute(id, (key, previous) -> {
+			final Position<K> position = new Position<>(key, lat, normalizedLng, cell);
+			// replaces the previous position in place if the cell stays the same
+			this.cells.computeIfAbsent(cell, c -> new ConcurrentHashMap<>()).put(key, position);
+			if (previous != null && previous.cell != cell) {
+				// logged before the previous position disappears, queries that read the new cell too early see the move
+				final int stripe = stripe(cell);
+				final long sequence = this.moves.incrementAndGet(stripe * PADDING);
+				this.moveLog.set(stripe * STRIPE_LOG_SIZE + (int) (sequence & (STRIPE_LOG_SIZE - 1)),
+						new Move<>(sequence, key));
+				previous.replaced = true;
+				this.cells.get(previous.cell).remove(key, previous);
+			}
+			return position;
+		});
+	}
+
+	/**
+	 * Remove an object.
+	 *
+	 * @param id object id
+	 * @return true, if the object was indexed
+	 */
+	public boolean remove(K id) {
+		Assert.notNull(id, "Id must not be null.");
+		final boolean[] removed = new boolean[1];
+		this.positions.computeIfPresent(id, (key, previous) -> {
+			previous.replaced = true;
+			this.cells.get(previous.cell).remove(key, previous);
+			removed[0] = true;
+			return null;
+		});
+		return removed[0];
+	}
+
+	/**
+	 * Get the current position of an object.
+	 *
+	 * @param id object id
+	 * @return current position or null, if the object is not indexed
+	 */
+	public LatLng getPosition(K id) {
+		Assert.notNull(id, "Id must not be null.");
+		final Position<K> position = this.positions.get(id);
+		return position == null ? null : new LatLng(position.lat, position.lng);
+	}
+
+	/**
+	 * Get the number of indexed objects.
+	 *
+	 * @return number of objects
+	 */
+	public int size() {
+		return this.positions.size();
+	}
+
+	/**
+	 * Find the objects within a radius around a center.
+	 *
+	 * @param center center of the search
+	 * @param radius radius of the search
+	 * @return ids of the objects, ascending by distance
+	 */
+	public List<K> within(LatLng center, Distance radius) {
+		Assert.notNull(center, "Center must not be null.");
+		Assert.notNull(radius, "Radius must not be null.");
+		final long[] since = this.sequences();
+		final Haversine.Origin origin = Haversine.origin(center);
+		final BoundingBox box = BoundingBox.around(center, radius);
+		int firstColumn = this.column(box.getWest());
+		int lastColumn = this.column(box.getEast());
+		if (box.crossesAntimeridian()) {
+			lastColumn += this.columns;
+		}
+		final Window window = new Window(this.row(box.getSouth()), this.row(box.getNorth()), firstColumn,
+				lastColumn);
+		final Candidates<K> candidates = new Candidates<>();
+		final long stripes = this.scan(window, -1, origin, radius.getMeter(), candidates);
+		this.resolveMoves(since, stripes, window, origin, radius.getMeter(), candidates);
+		return candidates.sorted(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Find the k nearest objects to a point. The search expands rings of cells
+	 * around the point until no unvisited cell can contain a closer object.
+	 *
+	 * @param center search point
+	 * @param k      maximum number of objects
+	 * @return ids of the objects, ascending by distance
+	 */
+	public List<K> nearest(LatLng center, int k) {
+		Assert.notNull(center, "Center must not be null.");
+		Assert.isTrue(k >= 0, "K must not be negative.");
+		final long[] since = this.sequences();
+		final Haversine.Origin origin = Haversine.origin(center);
+		final Candidates<K> candidates = new Candidates<>();
+		if (k == 0) {
+			return candidates.sorted(k);
+		}
+
+		final double lat = center.getLatitude();
+		final double lng = BoundingBox.normalizeLongitude(center.getLongitude());
+		final int centerRow = this.row(lat);
+		final int centerColumn = this.column(lng);
+		final double cosLat = Math.cos(Math.toRadians(lat));
+		long stripes = 0;
+		long visited = 0;
+		for (int ring = 0;; ring++) {
+			if (2 * ring + 1 >= this.columns || visited > this.cells.size()) {
+				// the rings wrap around the globe or cost more than a scan of all cells
+				candidates.clear();
+				final Window all = new Window(0, this.rows - 1, 0, this.columns - 1);
+				stripes = this.scan(all, -1, origin, Double.POSITIVE_INFINITY, candidates);
+				this.resolveMoves(since, stripes, all, origin, Double.POSITIVE_INFINITY, candidates);
+				return candidates.sorted(k);
+			}
+			for (int r = centerRow - ring; r <= centerRow + ring; r++) {
+				if (r < 0 || r >= this.rows) {
+					continue;
+				}
+				final int step = r == centerRow - ring || r == centerRow + ring ? 1 : 2 * ring;
+				for (int c = centerColumn - ring; c <= centerColumn + ring; c += Math.max(1, step)) {
+					final long key = (long) r * this.columns + Math.floorMod(c, this.columns);
+					final Map<K, Position<K>> cell = this.cells.get(key);
+					stripes |= 1L << stripe(key);
+					visited++;
+					if (cell != null) {
+						this.collect(cell, origin, Double.POSITIVE_INFINITY, candidates);
+					}
+				}
+			}
+
+			if (candidates.size >= k) {
+				// any unvisited object lies beyond a parallel or meridian bounding the visited cells
+				final double south = (centerRow - ring) * this.cellDegrees - 90;
+				final double north = (centerRow + ring + 1) * this.cellDegrees - 90;
+				final double west = (centerColumn - ring) * this.cellDegrees - 180;
+				final double east = (centerColumn + ring + 1) * this.cellDegrees - 180;
+				final double latGap = Math.min(south > -90 ? lat - south : Double.POSITIVE_INFINITY,
+						north < 90 ? north - lat : Double.POSITIVE_INFINITY) * METER_PER_DEGREE;
+				final double lngGap = Math.toRadians(Math.min(Math.min(lng - west, east - lng), 90));
+				final double bound = Math.min(latGap,
+						Math.asin(cosLat * Math.sin(lngGap)) * Haversine.MEAN_EARTH_RADIUS_METER);
+				if (candidates.kthMeter(k) <= bound) {
+					// objects moved during the search only add candidates, so the bound stays valid
+					final Window window = new Window(Math.max(0, centerRow - ring),
+							Math.min(this.rows - 1, centerRow + ring), centerColumn - ring, centerColumn + ring);
+					this.resolveMoves(since, stripes, window, origin, Double.POSITIVE_INFINITY, candidates);
+					return candidates.sorted(k);
+				}
+			}
+		}
+	}
+
+	private static int stripe(long cell) {
+		return (int) ((cell * 0x9E3779B97F4A7C15L) >>> 58);
+	}
+
+	private long[] sequences() {
+		final long[] sequences = new long[STRIPES];
+		for (int stripe = 0; stripe < STRIPES; stripe++) {
+			sequences[stripe] = this.moves.get(stripe * PADDING);
+		}
+		return sequences;
+	}
+
+	// reads the cells of a window, all or those of one stripe, and returns the bit set of the stripes looked up
+	private long scan(Window window, int stripe, Haversine.Origin origin, double radiusMeter,
+			Candidates<K> candidates) {
+		final long cellCount = (long) (window.lastRow - window.firstRow + 1)
+				* (window.lastColumn - window.firstColumn + 1);
+		if (cellCount > this.cells.size()) {
+			for (Map.Entry<Long, ConcurrentHashMap<K, Position<K>>> entry : this.cells.entrySet()) {
+				final long cell = entry.getKey();
+				if ((stripe < 0 || stripe(cell) == stripe) && this.contains(window, cell)) {
+					this.collect(entry.getValue(), origin, radiusMeter, candidates);
+				}
+			}
+			// cells created in the window after the iteration passed them may belong to any stripe
+			return -1L;
+		}
+		long stripes = 0;
+		for (int r = window.firstRow; r <= window.lastRow; r++) {
+			for (int c = window.firstColumn; c <= window.lastColumn; c++) {
+				final long key = (long) r * this.columns + Math.floorMod(c, this.columns);
+				if (stripe < 0 || stripe(key) == stripe) {
+					stripes |= 1L << stripe(key);
+					final Map<K, Position<K>> cell = this.cells.get(key);
+					if (cell != null) {
+						this.collect(cell, origin, radiusMeter, candidates);
+					}
+				}
+			}
+		}
+		return stripes;
+	}
+
+	private boolean contains(Window window, long cell) {
+		final int row = (int) (cell / this.columns);
+		final int column = (int) (cell % this.columns);
+		final int firstColumn = Math.floorMod(window.firstColumn, this.columns);
+		final int width = window.lastColumn - window.firstColumn;
+		return row >= window.firstRow && row <= window.lastRow
+				&& (width >= this.columns - 1 || Math.floorMod(column - firstColumn, this.columns) <= width);
+	}
+
+	private void collect(Map<K, Position<K>> cell, Haversine.Origin origin, double radiusMeter,
+			Candidates<K> candidates) {
+		for (Position<K> position : cell.values()) {
+			// positions moved to another cell are resolved through the move log
+			if (!position.replaced) {
+				this.collect(position, origin, radiusMeter, candidates);
+			}
+		}
+	}
+
+	// Adds the current positions of the objects moved into the read stripes since the query started. A stripe
+	// whose log was overwritten is read again, and its moves during that read are resolved in another pass.
+	private void resolveMoves(long[] since, long stripes, Window window, Haversine.Origin origin,
+			double radiusMeter, Candidates<K> candidates) {
+		for (int pass = 0; pass < MAX_RESOLVE_PASSES; pass++) {
+			boolean reread = false;
+			for (int stripe = 0; stripe < STRIPES; stripe++) {
+				if ((stripes & 1L << stripe) == 0) {
+					continue;
+				}
+				final long until = this.moves.get(stripe * PADDING);
+				if (!this.resolveLog(stripe, since[stripe], until, origin, radiusMeter, candidates)) {
+					this.scan(window, stripe, origin, radiusMeter, candidates);
+					reread = true;
+				}
+				since[stripe] = until;
+			}
+			if (!reread) {
+				return;
+			}
+		}
+		// the stripes kept overflowing, only the current positions are consistent
+		candidates.clear();
+		for (Position<K> position : this.positions.values()) {
+			this.collect(position, origin, radiusMeter, candidates);
+		}
+	}
+
+	private boolean resolveLog(int stripe, long since, long until, Haversine.Origin origin, double radiusMeter,
+			Candidates<K> candidates) {
+		if (until - since > STRIPE_LOG_SIZE) {
+			return false;
+		}
+		for (long sequence = since + 1; sequence <= until; sequence++) {
+			final Move<K> move = this.moveLog
+					.get(stripe * STRIPE_LOG_SIZE + (int) (sequence & (STRIPE_LOG_SIZE - 1)));
+			if (move != null && move.sequence > sequence) {
+				return false;
+			}
+			// an older entry is not logged yet, so its previous position was in place when the cells were read
+			if (move != null && move.sequence == sequence) {
+				this.collect(this.positions.get(move.id), origin, radiusMeter, candidates);
+			}
+		}
+		return true;
+	}
+
+	private void collect(Position<K> position, Haversine.Origin origin, double radiusMeter,
+			Candidates<K> candidates) {
+		if (position != null) {
+			final double meter = origin.distanceMeterTo(position.lat, position.lng);
+			if (meter <= radiusMeter) {
+				candidates.add(position.id, meter);
+			}
+		}
+	}
+
+	private int row(double lat) {
+		final int row = (int) Math.floor((lat + 90) / this.cellDegrees);
+		return row < 0 ? 0 : row >= this.rows ? this.rows - 1 : row;
+	}
+
+	private int column(double lng) {
+		final int column = (int) Math.floor((lng + 180) / this.cellDegrees);
+		return column < 0 ? 0 : column >= this.columns ? this.columns - 1 : column;
+	}
+
+	private static final class Position<K> {
+
+		private final K id;
+		private final double lat;
+		private final double lng;
+		private final long cell;
+		private volatile boolean replaced;
+
+		private Position(K id, double lat, double lng, long cell) {
+			this.id = id;
+			this.lat = lat;
+			this.lng = lng;
+			this.cell = cell;
+		}
+	}
+
+	// rows and columns of cells, columns beyond the bounds wrap around the antimeridian
+	private static final class Window {
+
+		private final int firstRow;
+		private final int lastRow;
+		private final int firstColumn;
+		private final int lastColumn;
+
+		private Window(int firstRow, int lastRow, int firstColumn, int lastColumn) {
+			this.firstRow = firstRow;
+			this.lastRow = lastRow;
+			this.firstColumn = firstColumn;
+			this.lastColumn = lastColumn;
+		}
+	}
+
+	private static final class Move<K> {
+
+		private final long sequence;
+		private final K id;
+
+		private Move(long sequence, K id) {
+			this.sequence = sequence;
+			this.id = id;
+		}
+	}
+
+	private static final class Candidates<K> {
+
+		private final List<K> ids = new ArrayList<>();
+		// objects moving between cells during a query may be met twice
+		private final Set<K> seen = new HashSet<>();
+		private double[] meters = new double[16];
+		private int size;
+
+		private void add(K id, double meter) {
+			if (!this.seen.add(id)) {
+				return;
+			}
+			if (this.size == this.meters.length) {
+				this.meters = Arrays.copyOf(this.meters, this.size * 2);
+			}
+			this.ids.add(id);
+			this.meters[this.size++] = meter;
+		}
+
+		private void clear() {
+			this.ids.clear();
+			this.seen.clear();
+			this.size = 0;
+		}
+
+		private double kthMeter(int k) {
+			final double[] sorted = Arrays.copyOf(this.meters, this.size);
+			Arrays.sort(sorted);
+			return sorted[k - 1];
+		}
+
+		private List<K> sorted(int limit) {
+			final int[] indices = new int[this.size];
+			for (int i = 0; i < indices.length; i++) {
+				indices[i] = i;
+			}
+			final Neighbors neighbors = Neighbors.sort(indices, this.meters, this.size);
+			final int size = Math.min(limit, neighbors.size());
+			final List<K> result = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				result.add(this.ids.get(neighbors.getIndex(i)));
+			}
+			return result;
+		}
+	}
+}
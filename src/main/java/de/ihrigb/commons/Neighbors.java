@@ -0,0 +1,136 @@
+package de.ihrigb.commons;
+
+import java.util.Arrays;
+
+/**
+ * Result of a nearest neighbor or radius search: indices of the found points
+ * and their distances in meter, ordered by ascending distance.
+ */
+public final class Neighbors {
+
+	private final int[] indices;
+	private final double[] meters;
+
+	/**
+	 * Create a result of unordered found points.
+	 *
+	 * @param indices indices of the points
+	 * @param meters  distances of the points in meter
+	 * @param size    number of used entries in indices and meters
+	 * @return result ordered by ascending distance, then index
+	 */
+	static Neighbors sort(int[] indices, double[] meters, int size) {
+		final int[] sortedIndices = Arrays.copyOf(indices, size);
+		final double[] sortedMeters = Arrays.copyOf(meters, size);
+		Neighbors.quickSort(sortedIndices, sortedMeters, 0, size - 1);
+		return new Neighbors(sortedIndices, sortedMeters);
+	}
+
+	private static void quickSort(int[] indices, double[] meters, int lo, int hi) {
+		while (hi - lo > 16) {
+			final int mid = (lo + hi) >>> 1;
+			final double pivotMeter = meters[mid];
+			final int pivotIndex = indices[mid];
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (Neighbors.less(meters[i], indices[i], pivotMeter, pivotIndex)) {
+					i++;
+				}
+				while (Neighbors.less(pivotMeter, pivotIndex, meters[j], indices[j])) {
+					j--;
+				}
+				if (i <= j) {
+					Neighbors.swap(indices, meters, i++, j--);
+				}
+			}
+			if (j - lo < hi - i) {
+				Neighbors.quickSort(indices, meters, lo, j);
+				lo = i;
+			} else {
+				Neighbors.quickSort(indices, meters, i, hi);
+				hi = j;
+			}
+		}
+		for (int i = lo + 1; i <= hi; i++) {
+			for (int j = i; j > lo && Neighbors.less(meters[j], indices[j], meters[j - 1], indices[j - 1]); j--) {
+				Neighbors.swap(indices, meters, j, j - 1);
+			}
+		}
+	}
+
+	private static boolean less(double meter0, int index0, double meter1, int index1) {
+		return meter0 < meter1 || (meter0 == meter1 && index0 < index1);
+	}
+
+	private static void swap(int[] indices, double[] meters, int i, int j) {
+		final int index = indices[i];
+		indices[i] = indices[j];
+		indices[j] = index;
+		final double meter = meters[i];
+		meters[i] = meters[j];
+		meters[j] = meter;
+	}
+
+	Neighbors(int[] indices, double[] meters) {
+		this.indices = indices;
+		this.meters = meters;
+	}
+
+	/**
+	 * Get the number of found points.
+	 *
+	 * @return number of found points
+	 */
+	public int size() {
+		return this.indices.length;
+	}
+
+	/**
+	 * Get the index of the i-th nearest found point.
+	 *
+	 * @param i position in the result
+	 * @return index of the point in the searched points
+	 */
+	public int getIndex(int i) {
+		return this.indices[i];
+	}
+
+	/**
+	 * Get the distance of the i-th nearest found point in meter.
+	 *
+	 * @param i position in the result
+	 * @return distance in meter
+	 */
+	public double getMeter(int i) {
+		return this.meters[i];
+	}
+
+	/**
+	 * Get the distance of the i-th nearest found point.
+	 *
+	 * @param i position in the result
+	 * @return distance
+	 */
+	public Distance getDistance(int i) {
+		return Distance.ofMeter(this.meters[i]);
+	}
+
+	/**
+	 * Get the indices of all found points.
+	 *
+	 * @return copy of the indices, ordered by ascending distance
+	 */
+	public int[] getIndices() {
+		return Arrays.copyOf(this.indices, this.indices.length);
+	}
+
+	/**
+	 * Get the distances of all found points in meter.
+	 *
+	 * @return copy of the distances, ascending
+	 */
+	public double[] getMeters() {
+		return Arrays.copyOf(this.meters, this.meters.length);
+	}
+}
@@ -0,0 +1,135 @@
+package de.ihrigb.commons;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable grid of points for fixed radius searches. Rows are bands of
+ * latitude of about the radius; each row is divided into equally wide columns,
+ * fewer towards the poles, so cells stay about as wide as high. Points are
+ * sorted by row and column, so all cells of a row within a longitude range are
+ * one contiguous run found by binary search. Radians and cosines of the
+ * latitudes are cached in sorted order, so testing a candidate costs the
+ * haversine terms only.
+ */
+final class PointGrid {
+
+	private static final double METER_PER_DEGREE = Math.toRadians(Haversine.MEAN_EARTH_RADIUS_METER);
+
+	static PointGrid of(double[] lats, double[] lngs, int offset, int length, double cellMeter) {
+		return new PointGrid(lats, lngs, offset, length, cellMeter);
+	}
+
+	private final double cellDegrees;
+	private final int rows;
+	private final long[] keys;
+	private final int[] indices;
+	private final double[] latsRad;
+	private final double[] lngsRad;
+	private final double[] cosLats;
+
+	private PointGrid(double[] lats, double[] lngs, int offset, int length, double cellMeter) {
+		this.cellDegrees = Math.min(180, Math.max(1e-7, cellMeter / METER_PER_DEGREE));
+		this.rows = (int) Math.ceil(180 / this.cellDegrees);
+
+		this.keys = new long[length];
+		this.indices = new int[length];
+		for (int i = 0; i < length; i++) {
+			final double lat = lats[offset + i];
+			final int row = this.row(lat);
+			this.keys[i] = key(row, this.column(row, BoundingBox.normalizeLongitude(lngs[offset + i])));
+			this.indices[i] = offset + i;
+		}
+		ArrayUtils.sort(this.keys, this.indices);
+
+		this.latsRad = new double[length];
+		this.lngsRad = new double[length];
+		this.cosLats = new double[length];
+		for (int i = 0; i < length; i++) {
+			this.latsRad[i] = Math.toRadians(lats[this.indices[i]]);
+			this.lngsRad[i] = Math.toRadians(lngs[this.indices[i]]);
+			this.cosLats[i] = Math.cos(this.latsRad[i]);
+		}
+	}
+
+	int size() {
+		return this.indices.length;
+	}
+
+	/**
+	 * Get the index of the point at a position in grid order. Processing points
+	 * in grid order keeps successive searches within cached memory.
+	 */
+	int index(int position) {
+		return this.indices[position];
+	}
+
+	/**
+	 * Pass the indices of all points within a radius to a consumer, in no
+	 * particular order.
+	 */
+	void forEachWithin(double lat, double lng, Haversine.Radius radius, IntConsumer consumer) {
+		final double latRad = Math.toRadians(lat);
+		final double lngRad = Math.toRadians(lng);
+		final double cosLat = Math.cos(latRad);
+		final BoundingBox box = BoundingBox.around(lat, lng, radius.getDistance().getMeter());
+		final int lastRow = this.row(box.getNorth());
+		for (int row = this.row(box.getSouth()); row <= lastRow; row++) {
+			final int columns = this.columns(row);
+			final int west = this.column(row, box.getWest());
+			final int east = this.column(row, box.getEast());
+			if (box.crossesAntimeridian()) {
+				this.forEachWithin(row, west, columns - 1, latRad, lngRad, cosLat, radius, consumer);
+				this.forEachWithin(row, 0, east, latRad, lngRad, cosLat, radius, consumer);
+			} else {
+				this.forEachWithin(row, west, east, latRad, lngRad, cosLat, radius, consumer);
+			}
+		}
+	}
+
+	private void forEachWithin(int row, int firstColumn, int lastColumn, double latRad, double lngRad,
+			double cosLat, Haversine.Radius radius, IntConsumer consumer) {
+		final long last = key(row, lastColumn);
+		for (int i = this.lowerBound(key(row, firstColumn)); i < this.keys.length && this.keys[i] <= last; i++) {
+			if (radius.isWithin(Haversine.haversinCentralAngle(latRad, lngRad, cosLat, this.latsRad[i],
+					this.lngsRad[i], this.cosLats[i]))) {
+				consumer.accept(this.indices[i]);
+			}
+		}
+	}
+
+	private int lowerBound(long key) {
+		int lo = 0;
+		int hi = this.keys.length;
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (this.keys[mid] < key) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	private int row(double lat) {
+		final int row = (int) Math.floor((lat + 90) / this.cellDegrees);
+		return row < 0 ? 0 : row >= this.rows ? this.rows - 1 : row;
+	}
+
+	private int columns(int row) {
+		final double south = row * this.cellDegrees - 90;
+		final double poleward = Math.min(90, Math.max(Math.abs(south), Math.abs(south + this.cellDegrees)));
+		final double columns = Math.floor(360 * Math.cos(Math.toRadians(poleward)) / this.cellDegrees);
+		return (int) Math.max(1, Math.min(Integer.MAX_VALUE, columns));
+	}
+
+	private int column(int row, double lng) {
+		final int columns = this.columns(row);
+		final int column = (int) Math.floor((lng + 180) / 360 * columns);
+		return column < 0 ? 0 : column >= columns ? columns - 1 : column;
+	}
+
+	private static long key(int row, int column) {
+		return (long) row << 32 | column;
+	}
+}
@@ -0,0 +1,262 @@
+package de.ihrigb.commons;
+
+import java.util.List;
+
+/**
+ * Polygon shaped {@link Geofence} using the even-odd rule. Vertices are treated
+ * as planar latitude/longitude coordinates, so edges follow lines of constant
+ * bearing rather than great circles and polygons must not cross the
+ * antimeridian.
+ * <p>
+ * The bounding box of the polygon is divided into a uniform grid of about one
+ * cell per edge. Cells that are not touched by any edge are classified as
+ * inside or outside once, so most tests resolve with a single lookup. Points
+ * in the remaining cells are ray cast against the edges of their grid row
+ * only. Instances are immutable and thread-safe.
+ */
+public final class PolygonGeofence implements Geofence {
+
+	private static final int MAX_GRID_SIZE = 256;
+
+	private static final byte OUTSIDE = 0;
+	private static final byte INSIDE = 1;
+	private static final byte BOUNDARY = 2;
+
+	/**
+	 * Create a polygon fence. The polygon is closed implicitly, a last vertex
+	 * equal to the first one is ignored.
+	 *
+	 * @param vertices vertices of the polygon, at least 3
+	 * @return polygon fence
+	 */
+	public static PolygonGeofence of(List<LatLng> vertices) {
+		Assert.notNull(vertices, "Vertices must not be null.");
+		final double[] lats = new double[vertices.size()];
+		final double[] lngs = new double[vertices.size()];
+		for (int i = 0; i < lats.length; i++) {
+			final LatLng vertex = vertices.get(i);
+			Assert.notNull(vertex, "Vertices must not contain null.");
+			lats[i] = vertex.getLatitude();
+			lngs[i] = vertex.getLongitude();
+		}
+		return new PolygonGeofence(lats, lngs, lats.length);
+	}
+
+	/**
+	 * Create a polygon fence from coordinate columns. The polygon is closed
+	 * implicitly, a last vertex equal to the first one is ignored.
+	 *
+	 * @param lats   latitudes of the vertices
+	 * @param lngs   longitudes of the vertices
+	 * @param offset index of the first vertex
+	 * @param length number of vertices, at least 3
+	 * @return polygon fence
+	 */
+	public static PolygonGeofence of(double[] lats, double[] lngs, int offset, int length) {
+		Haversine.checkRange(lats, offset, length, "Latitudes");
+		Haversine.checkRange(lngs, offset, length, "Longitudes");
+		final double[] latsCopy = new double[length];
+		final double[] lngsCopy = new double[length];
+		System.arraycopy(lats, offset, latsCopy, 0, length);
+		System.arraycopy(lngs, offset, lngsCopy, 0, length);
+		return new PolygonGeofence(latsCopy, lngsCopy, length);
+	}
+
+	// edge i runs from vertex i to vertex i + 1, the last vertex repeats the first
+	private final double[] lats;
+	private final double[] lngs;
+	// longitude change per degree latitude of each edge
+	private final double[] slopes;
+	private final int edges;
+
+	private final BoundingBox boundingBox;
+	private final int rows;
+	private final int columns;
+	private final double rowScale;
+	private final double columnScale;
+	private final byte[] cells;
+	// edges overlapping row r are rowEdges[rowStarts[r]] to rowEdges[rowStarts[r + 1] - 1]
+	private final int[] rowStarts;
+	private final int[] rowEdges;
+
+	private PolygonGeofence(double[] lats, double[] lngs, int length) {
+		int edges = length;
+		if (edges > 0 && lats[0] == lats[edges - 1] && lngs[0] == lngs[edges - 1]) {
+			edges--;
+		}
+		Assert.isTrue(edges >= 3, "Polygon must have at least 3 distinct vertices.");
+		this.edges = edges;
+		this.lats = new double[edges + 1];
+		this.lngs = new double[edges + 1];
+		System.arraycopy(lats, 0, this.lats, 0, edges);
+		System.arraycopy(lngs, 0, this.lngs, 0, edges);
+		this.lats[edges] = lats[0];
+		this.lngs[edges] = lngs[0];
+
+		double south = Double.POSITIVE_INFINITY;
+		double west = Double.POSITIVE_INFINITY;
+		double north = Double.NEGATIVE_INFINITY;
+		double east = Double.NEGATIVE_INFINITY;
+		this.slopes = new double[edges];
+		for (int i = 0; i < edges; i++) {
+			south = Math.min(south, this.lats[i]);
+			north = Math.max(north, this.lats[i]);
+			west = Math.min(west, this.lngs[i]);
+			east = Math.max(east, this.lngs[i]);
+			final double dLat = this.lats[i + 1] - this.lats[i];
+			this.slopes[i] = dLat == 0 ? 0 : (this.lngs[i + 1] - this.lngs[i]) / dLat;
+		}
+		this.boundingBox = BoundingBox.of(south, west, north, east);
+
+		final int gridSize = Math.min(MAX_GRID_SIZE, (int) Math.ceil(Math.sqrt(edges)));
+		this.rows = gridSize;
+		this.columns = gridSize;
+		this.rowScale = north > south ? gridSize / (north - south) : 0;
+		this.columnScale = east > west ? gridSize / (east - west) : 0;
+
+		final int[] rowCounts = new int[this.rows + 1];
+		for (int i = 0; i < edges; i++) {
+			final int first = this.row(Math.min(this.lats[i], this.lats[i + 1]));
+			final int last = this.row(Math.max(this.lats[i], this.lats[i + 1]));
+			for (int r = first; r <= last; r++) {
+				rowCounts[r + 1]++;
+			}
+		}
+		for (int r = 0; r < this.rows; r++) {
+			rowCounts[r + 1] += rowCounts[r];
+		}
+		this.rowStarts = rowCounts.clone();
+		this.rowEdges = new int[rowCounts[this.rows]];
+		for (int i = 0; i < edges; i++) {
+			final int first = this.row(Math.min(this.lats[i], this.lats[i + 1]));
+			final int last = this.row(Math.max(this.lats[i], this.lats[i + 1]));
+			for (int r = first; r <= last; r++) {
+				this.rowEdges[rowCounts[r]++] = i;
+			}
+		}
+
+		this.cells = new byte[this.rows * this.columns];
+		this.markBoundaryCells();
+		for (int r = 0; r < this.rows; r++) {
+			for (int c = 0; c < this.columns; c++) {
+				final int cell = r * this.columns + c;
+				if (this.cells[cell] != BOUNDARY) {
+					final double lat = this.rowScale == 0 ? south : south + (r + 0.5) / this.rowScale;
+					final double lng = this.columnScale == 0 ? west : west + (c + 0.5) / this.columnScale;
+					this.cells[cell] = this.rayCast(r, lat, lng) ? INSIDE : OUTSIDE;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Get the number of edges of this polygon.
+	 *
+	 * @return number of edges
+	 */
+	public int getEdgeCount() {
+		return this.edges;
+	}
+
+	@Override
+	public BoundingBox getBoundingBox() {
+		return this.boundingBox;
+	}
+
+	@Override
+	public boolean contains(double lat, double lng) {
+		if (!this.boundingBox.contains(lat, lng)) {
+			return false;
+		}
+		final int row = this.row(lat);
+		final byte cell = this.cells[row * this.columns + this.column(lng)];
+		if (cell != BOUNDARY) {
+			return cell == INSIDE;
+		}
+		return this.rayCast(row, lat, lng);
+	}
+
+	private boolean rayCast(int row, double lat, double lng) {
+		boolean inside = false;
+		for (int i = this.rowStarts[row]; i < this.rowStarts[row + 1]; i++) {
+			final int edge = this.rowEdges[i];
+			final double latStart = this.lats[edge];
+			if ((latStart > lat) != (this.lats[edge + 1] > lat)
+					&& lng < this.lngs[edge] + (lat - latStart) * this.slopes[edge]) {
+				inside = !inside;
+			}
+		}
+		return inside;
+	}
+
+	private void markBoundaryCells() {
+		final double south = this.boundingBox.getSouth();
+		final double west = this.boundingBox.getWest();
+		final double cellHeight = this.rowScale == 0 ? 0 : 1 / this.rowScale;
+		final double cellWidth = this.columnScale == 0 ? 0 : 1 / this.columnScale;
+		// cells are widened slightly, so points mapped into a cell by rounding are covered
+		final double padLat = cellHeight * 1e-6 + 1e-12;
+		final double padLng = cellWidth * 1e-6 + 1e-12;
+
+		for (int i = 0; i < this.edges; i++) {
+			final double lat0 = this.lats[i];
+			final double lng0 = this.lngs[i];
+			final double lat1 = this.lats[i + 1];
+			final double lng1 = this.lngs[i + 1];
+			final int firstRow = this.row(Math.min(lat0, lat1) - padLat);
+			final int lastRow = this.row(Math.max(lat0, lat1) + padLat);
+			final int firstColumn = this.column(Math.min(lng0, lng1) - padLng);
+			final int lastColumn = this.column(Math.max(lng0, lng1) + padLng);
+			for (int r = firstRow; r <= lastRow; r++) {
+				final double cellSouth = south + r * cellHeight - padLat;
+				final double cellNorth = south + (r + 1) * cellHeight + padLat;
+				for (int c = firstColumn; c <= lastColumn; c++) {
+					final int cell = r * this.columns + c;
+					if (this.cells[cell] != BOUNDARY && intersects(lat0, lng0, lat1, lng1, cellSouth,
+							west + c * cellWidth - padLng, cellNorth, west + (c + 1) * cellWidth + padLng)) {
+						this.cells[cell] = BOUNDARY;
+					}
+				}
+			}
+		}
+	}
+
+	// Liang-Barsky clipping of the segment against the rectangle
+	private static boolean intersects(double lat0, double lng0, double lat1, double lng1, double south,
+			double west, double north, double east) {
+		final double dLat = lat1 - lat0;
+		final double dLng = lng1 - lng0;
+		final double[] p = { -dLng, dLng, -dLat, dLat };
+		final double[] q = { lng0 - west, east - lng0, lat0 - south, north - lat0 };
+		double t0 = 0;
+		double t1 = 1;
+		for (int i = 0; i < 4; i++) {
+			if (p[i] == 0) {
+				if (q[i] < 0) {
+					return false;
+				}
+			} else {
+				final double t = q[i] / p[i];
+				if (p[i] < 0) {
+					t0 = Math.max(t0, t);
+				} else {
+					t1 = Math.min(t1, t);
+				}
+				if (t0 > t1) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private int row(double lat) {
+		final int row = (int) ((lat - this.boundingBox.getSouth()) * this.rowScale);
+		return row < 0 ? 0 : row >= this.rows ? this.rows - 1 : row;
+	}
+
+	private int column(double lng) {
+		final int column = (int) ((lng - this.boundingBox.getWest()) * this.columnScale);
+		return column < 0 ? 0 : column >= this.columns ? this.columns - 1 : column;
+	}
+}
@@ -0,0 +1,125 @@
+package de.ihrigb.commons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.IntConsumer;
+
+/**
+ * Utils to find all points within a radius around a center. Points are first
+ * checked against the bounding box of the circle, only points inside the box
+ * are checked by haversine.
+ */
+public final class RadiusQuery {
+
+	/**
+	 * Find all points within a radius around a center.
+	 *
+	 * @param center center of the circle
+	 * @param radius radius of the circle
+	 * @param points points to be searched
+	 * @return points within the radius, in iteration order of points
+	 */
+	public static List<LatLng> within(LatLng center, Distance radius, Collection<LatLng> points) {
+		Assert.notNull(points, "Points must not be null.");
+
+		final Query query = new Query(center, radius);
+		final List<LatLng> result = new ArrayList<>();
+		for (LatLng point : points) {
+			if (query.test(point.getLatitude(), point.getLongitude())) {
+				result.add(point);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Find all points within a radius around a center.
+	 *
+	 * @param center center of the circle
+	 * @param radius radius of the circle
+	 * @param points points to be searched
+	 * @return points within the radius, in array order
+	 */
+	public static List<LatLng> within(LatLng center, Distance radius, LatLng[] points) {
+		Assert.notNull(points, "Points must not be null.");
+		return RadiusQuery.within(center, radius, Arrays.asList(points));
+	}
+
+	/**
+	 * Find the indices of all points of a coordinate column within a radius around
+	 * a center.
+	 *
+	 * @param center center of the circle
+	 * @param radius radius of the circle
+	 * @param lats   latitudes
+	 * @param lngs   longitudes
+	 * @param offset index of the first point
+	 * @param length number of points
+	 * @return ascending indices (into lats and lngs) of the points within the
+	 *         radius
+	 */
+	public static int[] indicesWithin(LatLng center, Distance radius, double[] lats, double[] lngs, int offset,
+			int length) {
+		final int[][] indices = { new int[16] };
+		final int[] size = { 0 };
+		RadiusQuery.forEachWithin(center, radius, lats, lngs, offset, length, index -> {
+			if (size[0] == indices[0].length) {
+				indices[0] = Arrays.copyOf(indices[0], size[0] * 2);
+			}
+			indices[0][size[0]++] = index;
+		});
+		return Arrays.copyOf(indices[0], size[0]);
+	}
+
+	/**
+	 * Pass the index of each point of a coordinate column within a radius around a
+	 * center to a consumer.
+	 *
+	 * @param center   center of the circle
+	 * @param radius   radius of the circle
+	 * @param lats     latitudes
+	 * @param lngs     longitudes
+	 * @param offset   index of the first point
+	 * @param length   number of points
+	 * @param consumer consumer of the indices (into lats and lngs), called in
+	 *                 ascending order
+	 */
+	public static void forEachWithin(LatLng center, Distance radius, double[] lats, double[] lngs, int offset,
+			int length, IntConsumer consumer) {
+		Haversine.checkRange(lats, offset, length, "Latitudes");
+		Haversine.checkRange(lngs, offset, length, "Longitudes");
+		Assert.notNull(consumer, "Consumer must not be null.");
+
+		final Query query = new Query(center, radius);
+		for (int i = offset; i < offset + length; i++) {
+			if (query.test(lats[i], lngs[i])) {
+				consumer.accept(i);
+			}
+		}
+	}
+
+	private RadiusQuery() {
+	}
+
+	static final class Query {
+
+		private final BoundingBox boundingBox;
+		private final Haversine.Origin origin;
+		private final Haversine.Radius radius;
+
+		Query(LatLng center, Distance radius) {
+			Assert.notNull(center, "Center must not be null.");
+			Assert.notNull(radius, "Radius must not be null.");
+
+			this.boundingBox = BoundingBox.around(center, radius);
+			this.origin = Haversine.origin(center);
+			this.radius = Haversine.radius(radius);
+		}
+
+		boolean test(double lat, double lng) {
+			return this.boundingBox.contains(lat, lng) && this.origin.isWithin(lat, lng, this.radius);
+		}
+	}
+}
@@ -0,0 +1,493 @@
+package de.ihrigb.commons;
+
+import java.util.List;
+
+/**
+ * Immutable polyline with precomputed cumulative haversine distances. The
+ * distance between two vertices takes constant time and the position at a
+ * distance along the route logarithmic time. Snapping a point to the route
+ * searches a sparse uniform grid of the segments outwards from the point,
+ * with cells about the size of a segment.
+ * <p>
+ * Segments are great circle arcs. The snap grid is laid out in latitude and
+ * longitude, so routes must not cross the antimeridian and segments should be
+ * shorter than a few hundred kilometers.
+ */
+public final class Route {
+
+	/**
+	 * Create a route.
+	 *
+	 * @param points vertices of the route, at least one
+	 * @return route
+	 */
+	public static Route of(List<LatLng> points) {
+		Assert.notNull(points, "Points must not be null.");
+		final double[] lats = new double[points.size()];
+		final double[] lngs = new double[points.size()];
+		for (int i = 0; i < lats.length; i++) {
+			final LatLng point = points.get(i);
+			Assert.notNull(point, "Points must not contain null.");
+			lats[i] = point.getLatitude();
+			lngs[i] = point.getLongitude();
+		}
+		return new Route(lats, lngs);
+	}
+
+	/**
+	 * Create a route from coordinate columns.
+	 *
+	 * @param lats   latitudes
+	 * @param lngs   longitudes
+	 * @param offset index of the first vertex
+	 * @param length number of vertices, at least one
+	 * @return route
+	 */
+	public static Route of(double[] lats, double[] lngs, int offset, int length) {
+		Haversine.checkRange(lats, offset, length, "Latitudes");
+		Haversine.checkRange(lngs, offset, length, "Longitudes");
+		final double[] latsCopy = new double[length];
+		final double[] lngsCopy = new double[length];
+		System.arraycopy(lats, offset, latsCopy, 0, length);
+		System.arraycopy(lngs, offset, lngsCopy, 0, length);
+		return new Route(latsCopy, lngsCopy);
+	}
+
+	private final double[] lats;
+	private final double[] lngs;
+	// unit vectors of the vertices
+	private final double[] x;
+	private final double[] y;
+	private final double[] z;
+	// cumulative meters up to each vertex
+	private final double[] meters;
+
+	// sparse snap grid, sorted cell keys of the segments overlapping each cell
+	private final double south;
+	private final double west;
+	private final double cellDegrees;
+	private final int rows;
+	private final int columns;
+	private final long[] cellKeys;
+	private final int[] cellSegments;
+
+	private Route(double[] lats, double[] lngs) {
+		final int n = lats.length;
+		Assert.isTrue(n > 0, "Route must have at least one point.");
+		this.lats = lats;
+		this.lngs = lngs;
+		this.x = new double[n];
+		this.y = new double[n];
+		this.z = new double[n];
+		this.meters = new double[n];
+		double south = Double.POSITIVE_INFINITY;
+		double west = Double.POSITIVE_INFINITY;
+		double north = Double.NEGATIVE_INFINITY;
+		double east = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			final double latRad = Math.toRadians(lats[i]);
+			final double lngRad = Math.toRadians(lngs[i]);
+			final double cosLat = Math.cos(latRad);
+			this.x[i] = cosLat * Math.cos(lngRad);
+			this.y[i] = cosLat * Math.sin(lngRad);
+			this.z[i] = Math.sin(latRad);
+			if (i > 0) {
+				this.meters[i] = this.meters[i - 1]
+						+ Haversine.distanceMeter(lats[i - 1], lngs[i - 1], lats[i], lngs[i]);
+			}
+			south = Math.min(south, lats[i]);
+			north = Math.max(north, lats[i]);
+			west = Math.min(west, lngs[i]);
+			east = Math.max(east, lngs[i]);
+		}
+
+		// cells of about twice the mean segment extent, grown while segments overlap too many cells
+		final int segments = n - 1;
+		double extents = 0;
+		for (int i = 0; i < segments; i++) {
+			extents += Math.max(Math.abs(lats[i + 1] - lats[i]), Math.abs(lngs[i + 1] - lngs[i]));
+		}
+		final double extent = Math.max(north - south, east - west);
+		double cellDegrees = Math.max(Math.max(1e-6, extent / (1 << 30)), 2 * extents / Math.max(1, segments));
+		final int[] bounds = new int[4 * segments];
+		final double[] grid = new double[3];
+		long cells;
+		while (true) {
+			grid[0] = south - cellDegrees;
+			grid[1] = west - cellDegrees;
+			grid[2] = cellDegrees;
+			cells = 0;
+			for (int i = 0; i < segments; i++) {
+				this.segmentCells(i, grid, bounds);
+				cells += (long) (bounds[4 * i + 1] - bounds[4 * i] + 1) * (bounds[4 * i + 3] - bounds[4 * i + 2] + 1);
+			}
+			if (cells <= 8L * segments + 64) {
+				break;
+			}
+			cellDegrees *= 2;
+		}
+		this.south = grid[0];
+		this.west = grid[1];
+		this.cellDegrees = cellDegrees;
+		this.rows = (int) ((north - this.south) / cellDegrees) + 2;
+		this.columns = (int) ((east - this.west) / cellDegrees) + 2;
+
+		// arcs bulging out of the grid are kept in its border cells
+		cells = 0;
+		for (int i = 0; i < segments; i++) {
+			bounds[4 * i] = clamp(bounds[4 * i], this.rows);
+			bounds[4 * i + 1] = clamp(bounds[4 * i + 1], this.rows);
+			bounds[4 * i + 2] = clamp(bounds[4 * i + 2], this.columns);
+			bounds[4 * i + 3] = clamp(bounds[4 * i + 3], this.columns);
+			cells += (long) (bounds[4 * i + 1] - bounds[4 * i] + 1) * (bounds[4 * i + 3] - bounds[4 * i + 2] + 1);
+		}
+		this.cellKeys = new long[(int) cells];
+		this.cellSegments = new int[(int) cells];
+		int k = 0;
+		for (int i = 0; i < segments; i++) {
+			for (int r = bounds[4 * i]; r <= bounds[4 * i + 1]; r++) {
+				for (int c = bounds[4 * i + 2]; c <= bounds[4 * i + 3]; c++) {
+					this.cellKeys[k] = key(r, c);
+					this.cellSegments[k++] = i;
+				}
+			}
+		}
+		ArrayUtils.sort(this.cellKeys, this.cellSegments);
+	}
+
+	/**
+	 * Get the number of vertices.
+	 *
+	 * @return number of vertices
+	 */
+	public int size() {
+		return this.lats.length;
+	}
+
+	/**
+	 * Get a vertex.
+	 *
+	 * @param index index of the vertex
+	 * @return vertex
+	 */
+	public LatLng get(int index) {
+		this.checkIndex(index);
+		return new LatLng(this.lats[index], this.lngs[index]);
+	}
+
+	/**
+	 * Get the length of the route.
+	 *
+	 * @return length
+	 */
+	public Distance getLength() {
+		return Distance.ofMeter(this.meters[this.meters.length - 1]);
+	}
+
+	/**
+	 * Get the distance along the route from the first vertex to a vertex.
+	 *
+	 * @param index index of the vertex
+	 * @return distance along the route in meter
+	 */
+	public double getMeterAt(int index) {
+		this.checkIndex(index);
+		return this.meters[index];
+	}
+
+	/**
+	 * Get the distance along the route between two vertices.
+	 *
+	 * @param from index of one vertex
+	 * @param to   index of the other vertex
+	 * @return distance along the route
+	 */
+	public Distance distanceBetween(int from, int to) {
+		this.checkIndex(from);
+		this.checkIndex(to);
+		return Distance.ofMeter(Math.abs(this.meters[to] - this.meters[from]));
+	}
+
+	/**
+	 * Get the position at a distance along the route. Distances before the start
+	 * or beyond the end of the route are clamped.
+	 *
+	 * @param distance distance along the route
+	 * @return position
+	 */
+	public LatLng positionAt(Distance distance) {
+		Assert.notNull(distance, "Distance must not be null.");
+		final double meter = distance.getMeter();
+		final int last = this.meters.length - 1;
+		if (meter <= 0 || last == 0) {
+			return this.get(0);
+		}
+		if (meter >= this.meters[last]) {
+			return this.get(last);
+		}
+		// last vertex at or before the distance
+		int lo = 0;
+		int hi = last;
+		while (hi - lo > 1) {
+			final int mid = (lo + hi) >>> 1;
+			if (this.meters[mid] <= meter) {
+				lo = mid;
+			} else {
+				hi = mid;
+			}
+		}
+		final double segment = this.meters[lo + 1] - this.meters[lo];
+		return this.interpolate(lo, segment == 0 ? 0 : (meter - this.meters[lo]) / segment);
+	}
+
+	/**
+	 * Find the nearest position on the route to a point.
+	 *
+	 * @param point point to be snapped
+	 * @return nearest position on the route
+	 */
+	public Snap snap(LatLng point) {
+		Assert.notNull(point, "Point must not be null.");
+		final double lat = point.getLatitude();
+		final double lng = point.getLongitude();
+		final double latRad = Math.toRadians(lat);
+		final double lngRad = Math.toRadians(lng);
+		final double cosLat = Math.cos(latRad);
+		final double px = cosLat * Math.cos(lngRad);
+		final double py = cosLat * Math.sin(lngRad);
+		final double pz = Math.sin(latRad);
+
+		if (this.lats.length == 1) {
+			return new Snap(this.get(0), 0, 0, Haversine.distanceMeter(lat, lng, this.lats[0], this.lngs[0]));
+		}
+
+		final int centerRow = clamp((int) Math.floor((lat - this.south) / this.cellDegrees), this.rows);
+		final int centerColumn = clamp((int) Math.floor((lng - this.west) / this.cellDegrees), this.columns);
+		final double[] projection = new double[3];
+		double bestAngle = Double.POSITIVE_INFINITY;
+		int bestSegment = -1;
+		double bestFraction = 0;
+		long visited = 0;
+		for (int ring = 0;; ring++) {
+			if (visited > this.cellKeys.length) {
+				// far from the route, the rings cost more than testing all segments
+				for (int segment = 0; segment < this.lats.length - 1; segment++) {
+					final double angle = this.segmentAngle(segment, px, py, pz, projection);
+					if (angle < bestAngle) {
+						bestAngle = angle;
+						bestSegment = segment;
+						bestFraction = projection[0];
+					}
+				}
+				break;
+			}
+			for (int r = centerRow - ring; r <= centerRow + ring; r++) {
+				if (r < 0 || r >= this.rows) {
+					continue;
+				}
+				final int step = r == centerRow - ring || r == centerRow + ring ? 1 : Math.max(1, 2 * ring);
+				for (int c = centerColumn - ring; c <= centerColumn + ring; c += step) {
+					if (c < 0 || c >= this.columns) {
+						continue;
+					}
+					final long key = key(r, c);
+					visited++;
+					for (int i = this.lowerBound(key); i < this.cellKeys.length && this.cellKeys[i] == key; i++) {
+						final int segment = this.cellSegments[i];
+						final double angle = this.segmentAngle(segment, px, py, pz, projection);
+						if (angle < bestAngle || angle == bestAngle && segment < bestSegment) {
+							bestAngle = angle;
+							bestSegment = segment;
+							bestFraction = projection[0];
+						}
+					}
+				}
+			}
+
+			// segments in unvisited cells lie beyond a parallel or meridian bounding the visited cells
+			final boolean rowsDone = centerRow - ring <= 0 && centerRow + ring >= this.rows - 1;
+			final boolean columnsDone = centerColumn - ring <= 0 && centerColumn + ring >= this.columns - 1;
+			if (rowsDone && columnsDone) {
+				break;
+			}
+			final double latGap = rowsDone ? Double.POSITIVE_INFINITY
+					: Math.min(lat - (this.south + (centerRow - ring) * this.cellDegrees),
+							this.south + (centerRow + ring + 1) * this.cellDegrees - lat);
+			final double lngGap = columnsDone ? Double.POSITIVE_INFINITY
+					: Math.min(lng - (this.west + (centerColumn - ring) * this.cellDegrees),
+							this.west + (centerColumn + ring + 1) * this.cellDegrees - lng);
+			final double bound = Math.min(Math.toRadians(latGap),
+					Math.asin(cosLat * Math.sin(Math.toRadians(Math.min(90, lngGap)))));
+			if (bestAngle <= bound) {
+				break;
+			}
+		}
+
+		final double segmentMeter = this.meters[bestSegment + 1] - this.meters[bestSegment];
+		return new Snap(this.interpolate(bestSegment, bestFraction), bestSegment,
+				this.meters[bestSegment] + bestFraction * segmentMeter,
+				bestAngle * Haversine.MEAN_EARTH_RADIUS_METER);
+	}
+
+	// central angle between the point and a segment, projection[0] receives the fraction along the segment
+	private double segmentAngle(int segment, double px, double py, double pz, double[] projection) {
+		final int a = segment;
+		final int b = segment + 1;
+		double nx = this.y[a] * this.z[b] - this.z[a] * this.y[b];
+		double ny = this.z[a] * this.x[b] - this.x[a] * this.z[b];
+		double nz = this.x[a] * this.y[b] - this.y[a] * this.x[b];
+		final double norm = Math.sqrt(nx * nx + ny * ny + nz * nz);
+		if (norm > 1e-15) {
+			nx /= norm;
+			ny /= norm;
+			nz /= norm;
+			final double sin = nx * px + ny * py + nz * pz;
+			// projection of the point onto the great circle of the segment
+			final double cx = px - sin * nx;
+			final double cy = py - sin * ny;
+			final double cz = pz - sin * nz;
+			final double sideA = nx * (this.y[a] * cz - this.z[a] * cy) + ny * (this.z[a] * cx - this.x[a] * cz)
+					+ nz * (this.x[a] * cy - this.y[a] * cx);
+			final double sideB = nx * (cy * this.z[b] - cz * this.y[b]) + ny * (cz * this.x[b] - cx * this.z[b])
+					+ nz * (cx * this.y[b] - cy * this.x[b]);
+			if (sideA >= 0 && sideB >= 0) {
+				final double segmentAngle = Math.atan2(norm, this.x[a] * this.x[b] + this.y[a] * this.y[b]
+						+ this.z[a] * this.z[b]);
+				final double along = Math.atan2(sideA, this.x[a] * cx + this.y[a] * cy + this.z[a] * cz);
+				projection[0] = Math.min(1, along / segmentAngle);
+				return Math.asin(Math.min(1, Math.abs(sin)));
+			}
+		}
+		final double angleA = angle(this.x[a] - px, this.y[a] - py, this.z[a] - pz);
+		final double angleB = angle(this.x[b] - px, this.y[b] - py, this.z[b] - pz);
+		projection[0] = angleA <= angleB ? 0 : 1;
+		return Math.min(angleA, angleB);
+	}
+
+	private LatLng interpolate(int segment, double fraction) {
+		if (fraction <= 0) {
+			return this.get(segment);
+		}
+		if (fraction >= 1) {
+			return this.get(segment + 1);
+		}
+		final int a = segment;
+		final int b = segment + 1;
+		final double dot = this.x[a] * this.x[b] + this.y[a] * this.y[b] + this.z[a] * this.z[b];
+		final double angle = Math.acos(Math.max(-1, Math.min(1, dot)));
+		final double wa;
+		final double wb;
+		if (angle < 1e-12) {
+			wa = 1 - fraction;
+			wb = fraction;
+		} else {
+			wa = Math.sin((1 - fraction) * angle) / Math.sin(angle);
+			wb = Math.sin(fraction * angle) / Math.sin(angle);
+		}
+		final double ix = wa * this.x[a] + wb * this.x[b];
+		final double iy = wa * this.y[a] + wb * this.y[b];
+		final double iz = wa * this.z[a] + wb * this.z[b];
+		return new LatLng(Math.toDegrees(Math.atan2(iz, Math.sqrt(ix * ix + iy * iy))),
+				Math.toDegrees(Math.atan2(iy, ix)));
+	}
+
+	// rows and columns of the cells of a segment, widened by the bulge of its great circle arc
+	private void segmentCells(int segment, double[] grid, int[] bounds) {
+		final double latA = this.lats[segment];
+		final double latB = this.lats[segment + 1];
+		final double lngA = this.lngs[segment];
+		final double lngB = this.lngs[segment + 1];
+		final double bulge = 2 * Math.abs(this.interpolate(segment, 0.5).getLatitude() - (latA + latB) / 2) + 1e-9;
+		bounds[4 * segment] = (int) Math.floor((Math.min(latA, latB) - bulge - grid[0]) / grid[2]);
+		bounds[4 * segment + 1] = (int) Math.floor((Math.max(latA, latB) + bulge - grid[0]) / grid[2]);
+		bounds[4 * segment + 2] = (int) Math.floor((Math.min(lngA, lngB) - 1e-9 - grid[1]) / grid[2]);
+		bounds[4 * segment + 3] = (int) Math.floor((Math.max(lngA, lngB) + 1e-9 - grid[1]) / grid[2]);
+	}
+
+	private int lowerBound(long key) {
+		int lo = 0;
+		int hi = this.cellKeys.length;
+		while (lo < hi) {
+			final int mid = (lo + hi) >>> 1;
+			if (this.cellKeys[mid] < key) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= this.lats.length) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.lats.length + ".");
+		}
+	}
+
+	private static double angle(double dx, double dy, double dz) {
+		return 2 * Math.asin(Math.min(1, Math.sqrt(dx * dx + dy * dy + dz * dz) / 2));
+	}
+
+	private static long key(int row, int column) {
+		return (long) row << 32 | column;
+	}
+
+	private static int clamp(int value, int size) {
+		return value < 0 ? 0 : value >= size ? size - 1 : value;
+	}
+
+	/**
+	 * Nearest position on a route to a point.
+	 */
+	public static final class Snap {
+
+		private final LatLng position;
+		private final int segment;
+		private final double meterAlong;
+		private final double meterFrom;
+
+		private Snap(LatLng position, int segment, double meterAlong, double meterFrom) {
+			this.position = position;
+			this.segment = segment;
+			this.meterAlong = meterAlong;
+			this.meterFrom = meterFrom;
+		}
+
+		/**
+		 * Get the nearest position on the route.
+		 *
+		 * @return position on the route
+		 */
+		public LatLng getPosition() {
+			return this.position;
+		}
+
+		/**
+		 * Get the index of the segment containing the position, the segment from
+		 * vertex i to vertex i + 1 has index i.
+		 *
+		 * @return segment index
+		 */
+		public int getSegment() {
+			return this.segment;
+		}
+
+		/**
+		 * Get the distance along the route from its start to the position.
+		 *
+		 * @return distance along the route
+		 */
+		public Distance getDistanceAlong() {
+			return Distance.ofMeter(this.meterAlong);
+		}
+
+		/**
+		 * Get the distance of the snapped point to the position.
+		 *
+		 * @return distance to the route
+		 */
+		public Distance getDistanceFrom() {
+			return Distance.ofMeter(this.meterFrom);
+		}
+	}
+}
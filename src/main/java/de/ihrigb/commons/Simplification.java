@@ -0,0 +1,337 @@
+package de.ihrigb.commons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Polyline simplification with a tolerance measured as great circle distance
+ * of removed points to the simplified line. Points are converted to unit
+ * vectors once; distances to a segment are the cross-track distance to its
+ * great circle, or the distance to the nearer end point if the point lies
+ * beyond the segment. Both algorithms are iterative and always keep the first
+ * and the last point.
+ */
+public final class Simplification {
+
+	/**
+	 * Simplify a polyline with the Douglas-Peucker algorithm.
+	 *
+	 * @param points    polyline
+	 * @param tolerance maximum distance of removed points to the simplified
+	 *                  polyline
+	 * @return kept points
+	 */
+	public static List<LatLng> douglasPeucker(List<LatLng> points, Distance tolerance) {
+		Assert.notNull(points, "Points must not be null.");
+		final Vectors vectors = Vectors.of(points);
+		return Simplification.select(points, Simplification.douglasPeucker(vectors, tolerance));
+	}
+
+	/**
+	 * Simplify a polyline of coordinate columns with the Douglas-Peucker
+	 * algorithm.
+	 *
+	 * @param lats      latitudes
+	 * @param lngs      longitudes
+	 * @param offset    index of the first point
+	 * @param length    number of points
+	 * @param tolerance maximum distance of removed points to the simplified
+	 *                  polyline
+	 * @return ascending indices of the kept points
+	 */
+	public static int[] douglasPeucker(double[] lats, double[] lngs, int offset, int length, Distance tolerance) {
+		final Vectors vectors = Vectors.of(lats, lngs, offset, length);
+		return Simplification.indices(Simplification.douglasPeucker(vectors, tolerance), offset);
+	}
+
+	/**
+	 * Simplify a polyline with the Visvalingam-Whyatt algorithm. Instead of the
+	 * triangle area, a point is weighted by its distance to the segment between
+	 * its remaining neighbors; points are removed in ascending order of weight
+	 * as long as it is below the tolerance.
+	 *
+	 * @param points    polyline
+	 * @param tolerance maximum weight of removed points
+	 * @return kept points
+	 */
+	public static List<LatLng> visvalingam(List<LatLng> points, Distance tolerance) {
+		Assert.notNull(points, "Points must not be null.");
+		final Vectors vectors = Vectors.of(points);
+		return Simplification.select(points, Simplification.visvalingam(vectors, tolerance));
+	}
+
+	/**
+	 * Simplify a polyline of coordinate columns with the Visvalingam-Whyatt
+	 * algorithm, see {@link #visvalingam(List, Distance)}.
+	 *
+	 * @param lats      latitudes
+	 * @param lngs      longitudes
+	 * @param offset    index of the first point
+	 * @param length    number of points
+	 * @param tolerance maximum weight of removed points
+	 * @return ascending indices of the kept points
+	 */
+	public static int[] visvalingam(double[] lats, double[] lngs, int offset, int length, Distance tolerance) {
+		final Vectors vectors = Vectors.of(lats, lngs, offset, length);
+		return Simplification.indices(Simplification.visvalingam(vectors, tolerance), offset);
+	}
+
+	private static boolean[] douglasPeucker(Vectors vectors, Distance tolerance) {
+		final double angle = Simplification.angle(tolerance);
+		final int n = vectors.size;
+		final boolean[] kept = new boolean[n];
+		if (n == 0) {
+			return kept;
+		}
+		kept[0] = true;
+		kept[n - 1] = true;
+
+		// explicit stack of [start, end] ranges instead of recursion
+		int[] stack = new int[64];
+		int top = 0;
+		stack[top++] = 0;
+		stack[top++] = n - 1;
+		while (top > 0) {
+			final int end = stack[--top];
+			final int start = stack[--top];
+			double maxAngle = -1;
+			int maxIndex = -1;
+			for (int i = start + 1; i < end; i++) {
+				final double a = vectors.segmentAngle(i, start, end);
+				if (a > maxAngle) {
+					maxAngle = a;
+					maxIndex = i;
+				}
+			}
+			if (maxIndex >= 0 && maxAngle > angle) {
+				kept[maxIndex] = true;
+				if (top + 4 > stack.length) {
+					stack = Arrays.copyOf(stack, stack.length * 2);
+				}
+				stack[top++] = start;
+				stack[top++] = maxIndex;
+				stack[top++] = maxIndex;
+				stack[top++] = end;
+			}
+		}
+		return kept;
+	}
+
+	private static boolean[] visvalingam(Vectors vectors, Distance tolerance) {
+		final double angle = Simplification.angle(tolerance);
+		final int n = vectors.size;
+		final boolean[] kept = new boolean[n];
+		Arrays.fill(kept, true);
+		if (n < 3) {
+			return kept;
+		}
+
+		final int[] previous = new int[n];
+		final int[] next = new int[n];
+		final double[] weights = new double[n];
+		// binary min heap of inner point indices, positions maps index to heap slot
+		final int[] heap = new int[n - 2];
+		final int[] positions = new int[n];
+		for (int i = 0; i < n; i++) {
+			previous[i] = i - 1;
+			next[i] = i + 1;
+		}
+		for (int i = 1; i < n - 1; i++) {
+			weights[i] = vectors.segmentAngle(i, i - 1, i + 1);
+			heap[i - 1] = i;
+			positions[i] = i - 1;
+		}
+		int size = n - 2;
+		for (int i = size / 2 - 1; i >= 0; i--) {
+			siftDown(heap, positions, weights, size, i);
+		}
+
+		while (size > 0 && weights[heap[0]] <= angle) {
+			final int removed = heap[0];
+			final double weight = weights[removed];
+			kept[removed] = false;
+			size--;
+			if (size > 0) {
+				heap[0] = heap[size];
+				positions[heap[0]] = 0;
+				siftDown(heap, positions, weights, size, 0);
+			}
+
+			final int p = previous[removed];
+			final int q = next[removed];
+			next[p] = q;
+			previous[q] = p;
+			// neighbors never weigh less than a removed point, so removal order stays monotonic
+			if (p > 0) {
+				update(heap, positions, weights, size, p,
+						Math.max(weight, vectors.segmentAngle(p, previous[p], q)));
+			}
+			if (q < n - 1) {
+				update(heap, positions, weights, size, q,
+						Math.max(weight, vectors.segmentAngle(q, p, next[q])));
+			}
+		}
+		return kept;
+	}
+
+	private static void update(int[] heap, int[] positions, double[] weights, int size, int index,
+			double weight) {
+		final double previous = weights[index];
+		weights[index] = weight;
+		if (weight < previous) {
+			siftUp(heap, positions, weights, positions[index]);
+		} else {
+			siftDown(heap, positions, weights, size, positions[index]);
+		}
+	}
+
+	private static void siftUp(int[] heap, int[] positions, double[] weights, int slot) {
+		final int index = heap[slot];
+		while (slot > 0) {
+			final int parent = (slot - 1) >>> 1;
+			if (weights[heap[parent]] <= weights[index]) {
+				break;
+			}
+			heap[slot] = heap[parent];
+			positions[heap[slot]] = slot;
+			slot = parent;
+		}
+		heap[slot] = index;
+		positions[index] = slot;
+	}
+
+	private static void siftDown(int[] heap, int[] positions, double[] weights, int size, int slot) {
+		final int index = heap[slot];
+		while (true) {
+			int child = 2 * slot + 1;
+			if (child >= size) {
+				break;
+			}
+			if (child + 1 < size && weights[heap[child + 1]] < weights[heap[child]]) {
+				child++;
+			}
+			if (weights[index] <= weights[heap[child]]) {
+				break;
+			}
+			heap[slot] = heap[child];
+			positions[heap[slot]] = slot;
+			slot = child;
+		}
+		heap[slot] = index;
+		positions[index] = slot;
+	}
+
+	private static double angle(Distance tolerance) {
+		Assert.notNull(tolerance, "Tolerance must not be null.");
+		Assert.isTrue(tolerance.getMeter() >= 0, "Tolerance must not be negative.");
+		return tolerance.getMeter() / Haversine.MEAN_EARTH_RADIUS_METER;
+	}
+
+	private static List<LatLng> select(List<LatLng> points, boolean[] kept) {
+		final List<LatLng> result = new ArrayList<>();
+		for (int i = 0; i < kept.length; i++) {
+			if (kept[i]) {
+				result.add(points.get(i));
+			}
+		}
+		return result;
+	}
+
+	private static int[] indices(boolean[] kept, int offset) {
+		int count = 0;
+		for (boolean k : kept) {
+			if (k) {
+				count++;
+			}
+		}
+		final int[] indices = new int[count];
+		int j = 0;
+		for (int i = 0; i < kept.length; i++) {
+			if (kept[i]) {
+				indices[j++] = offset + i;
+			}
+		}
+		return indices;
+	}
+
+	private Simplification() {
+	}
+
+	// points as unit vectors in three dimensions
+	private static final class Vectors {
+
+		private static Vectors of(List<LatLng> points) {
+			final Vectors vectors = new Vectors(points.size());
+			for (int i = 0; i < vectors.size; i++) {
+				final LatLng point = points.get(i);
+				Assert.notNull(point, "Points must not contain null.");
+				vectors.set(i, point.getLatitude(), point.getLongitude());
+			}
+			return vectors;
+		}
+
+		private static Vectors of(double[] lats, double[] lngs, int offset, int length) {
+			Haversine.checkRange(lats, offset, length, "Latitudes");
+			Haversine.checkRange(lngs, offset, length, "Longitudes");
+			final Vectors vectors = new Vectors(length);
+			for (int i = 0; i < length; i++) {
+				vectors.set(i, lats[offset + i], lngs[offset + i]);
+			}
+			return vectors;
+		}
+
+		private final int size;
+		private final double[] x;
+		private final double[] y;
+		private final double[] z;
+
+		private Vectors(int size) {
+			this.size = size;
+			this.x = new double[size];
+			this.y = new double[size];
+			this.z = new double[size];
+		}
+
+		private void set(int i, double lat, double lng) {
+			final double latRad = Math.toRadians(lat);
+			final double lngRad = Math.toRadians(lng);
+			final double cosLat = Math.cos(latRad);
+			this.x[i] = cosLat * Math.cos(lngRad);
+			this.y[i] = cosLat * Math.sin(lngRad);
+			this.z[i] = Math.sin(latRad);
+		}
+
+		// central angle between point p and the great circle segment from a to b
+		private double segmentAngle(int p, int a, int b) {
+			double nx = this.y[a] * this.z[b] - this.z[a] * this.y[b];
+			double ny = this.z[a] * this.x[b] - this.x[a] * this.z[b];
+			double nz = this.x[a] * this.y[b] - this.y[a] * this.x[b];
+			final double norm = Math.sqrt(nx * nx + ny * ny + nz * nz);
+			if (norm > 1e-15) {
+				nx /= norm;
+				ny /= norm;
+				nz /= norm;
+				// p projects between a and b, if it lies on the inner sides of the planes through a and b
+				final double sideA = nx * (this.y[a] * this.z[p] - this.z[a] * this.y[p])
+						+ ny * (this.z[a] * this.x[p] - this.x[a] * this.z[p])
+						+ nz * (this.x[a] * this.y[p] - this.y[a] * this.x[p]);
+				final double sideB = nx * (this.y[p] * this.z[b] - this.z[p] * this.y[b])
+						+ ny * (this.z[p] * this.x[b] - this.x[p] * this.z[b])
+						+ nz * (this.x[p] * this.y[b] - this.y[p] * this.x[b]);
+				if (sideA >= 0 && sideB >= 0) {
+					final double sin = Math.abs(nx * this.x[p] + ny * this.y[p] + nz * this.z[p]);
+					return Math.asin(Math.min(1, sin));
+				}
+			}
+			return Math.min(this.angle(p, a), this.angle(p, b));
+		}
+
+		private double angle(int p, int q) {
+			final double dx = this.x[p] - this.x[q];
+			final double dy = this.y[p] - this.y[q];
+			final double dz = this.z[p] - this.z[q];
+			return 2 * Math.asin(Math.min(1, Math.sqrt(dx * dx + dy * dy + dz * dz) / 2));
+		}
+	}
+}
@@ -0,0 +1,134 @@
+package de.ihrigb.commons;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Space filling curves mapping points to 64 bit keys, so that sorting by key
+ * keeps spatially close points close in memory. Latitude and longitude are
+ * quantized to 32 bits each. Keys are to be compared unsigned.
+ */
+public enum SpaceFillingCurve {
+
+	/**
+	 * Z-order curve: interleaved bits of longitude and latitude. Equals the
+	 * numeric {@link Geohash} of 64 bits.
+	 */
+	MORTON {
+
+		@Override
+		long cellKey(long x, long y) {
+			return Geohash.interleave(x, y);
+		}
+	},
+
+	/**
+	 * Hilbert curve of order 32. Preserves locality better than
+	 * {@link #MORTON}: consecutive keys are always adjacent cells.
+	 */
+	HILBERT {
+
+		@Override
+		long cellKey(long x, long y) {
+			long key = 0;
+			for (long s = 1L << 31; s > 0; s >>>= 1) {
+				final long rx = (x & s) != 0 ? 1 : 0;
+				final long ry = (y & s) != 0 ? 1 : 0;
+				key += s * s * ((3 * rx) ^ ry);
+				if (ry == 0) {
+					if (rx == 1) {
+						x = 0xFFFFFFFFL - x;
+						y = 0xFFFFFFFFL - y;
+					}
+					final long t = x;
+					x = y;
+					y = t;
+				}
+			}
+			return key;
+		}
+	};
+
+	abstract long cellKey(long x, long y);
+
+	/**
+	 * Calculate the curve key of a point.
+	 *
+	 * @param lat latitude
+	 * @param lng longitude
+	 * @return key, to be compared unsigned
+	 */
+	public long key(double lat, double lng) {
+		return this.cellKey(Geohash.quantize(lng + 180, 360), Geohash.quantize(lat + 90, 180));
+	}
+
+	/**
+	 * Calculate the curve key of a point.
+	 *
+	 * @param latLng the point
+	 * @return key, to be compared unsigned
+	 */
+	public long key(LatLng latLng) {
+		Assert.notNull(latLng, "LatLng must not be null.");
+		return this.key(latLng.getLatitude(), latLng.getLongitude());
+	}
+
+	/**
+	 * Sort a range of coordinate columns in place along this curve.
+	 *
+	 * @param lats   latitudes
+	 * @param lngs   longitudes
+	 * @param offset index of the first point
+	 * @param length number of points
+	 * @return permutation: element i is the former index of the point now at
+	 *         <code>offset + i</code>
+	 */
+	public int[] sort(double[] lats, double[] lngs, int offset, int length) {
+		Haversine.checkRange(lats, offset, length, "Latitudes");
+		Haversine.checkRange(lngs, offset, length, "Longitudes");
+
+		final int[] permutation = this.order(lats, lngs, offset, length);
+		final double[] sorted = new double[length];
+		for (int i = 0; i < length; i++) {
+			sorted[i] = lats[permutation[i]];
+		}
+		System.arraycopy(sorted, 0, lats, offset, length);
+		for (int i = 0; i < length; i++) {
+			sorted[i] = lngs[permutation[i]];
+		}
+		System.arraycopy(sorted, 0, lngs, offset, length);
+		return permutation;
+	}
+
+	/**
+	 * Sort a list of points in place along this curve.
+	 *
+	 * @param points points to be sorted
+	 */
+	public void sort(List<LatLng> points) {
+		Assert.notNull(points, "Points must not be null.");
+
+		final double[] lats = new double[points.size()];
+		final double[] lngs = new double[points.size()];
+		for (int i = 0; i < lats.length; i++) {
+			lats[i] = points.get(i).getLatitude();
+			lngs[i] = points.get(i).getLongitude();
+		}
+		final List<LatLng> unsorted = new ArrayList<>(points);
+		final int[] permutation = this.order(lats, lngs, 0, lats.length);
+		for (int i = 0; i < permutation.length; i++) {
+			points.set(i, unsorted.get(permutation[i]));
+		}
+	}
+
+	private int[] order(double[] lats, double[] lngs, int offset, int length) {
+		final long[] keys = new long[length];
+		final int[] permutation = new int[length];
+		for (int i = 0; i < length; i++) {
+			keys[i] = this.key(lats[offset + i], lngs[offset + i]) ^ Long.MIN_VALUE;
+			permutation[i] = offset + i;
+		}
+		ArrayUtils.sort(keys, permutation);
+		return permutation;
+	}
+}
@@ -0,0 +1,192 @@
+package de.ihrigb.commons;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Join of two point sets, reporting all pairs within a haversine distance.
+ * The right set is indexed in a {@link PointGrid} with cells of about the
+ * distance, the left points are searched in grid order. Pairs are passed to a
+ * {@link PairConsumer} as they are found and never collected.
+ */
+public final class SpatialJoin {
+
+	private static final int PARALLEL_THRESHOLD = 1 << 12;
+
+	/**
+	 * Consumer of joined pairs.
+	 */
+	@FunctionalInterface
+	public interface PairConsumer {
+
+		/**
+		 * Accept a pair.
+		 *
+		 * @param left  index of the left point
+		 * @param right index of the right point
+		 * @param meter haversine distance of the points in meter
+		 */
+		void accept(int left, int right, double meter);
+	}
+
+	/**
+	 * Join two lists of points. Indices refer to the positions in the lists.
+	 *
+	 * @param left     left points
+	 * @param right    right points
+	 * @param distance maximum distance of the pairs
+	 * @param consumer consumer of the pairs
+	 * @return number of pairs
+	 */
+	public static long join(List<LatLng> left, List<LatLng> right, Distance distance, PairConsumer consumer) {
+		Assert.notNull(left, "Left points must not be null.");
+		Assert.notNull(right, "Right points must not be null.");
+		final double[][] leftColumns = SpatialJoin.columns(left);
+		final double[][] rightColumns = SpatialJoin.columns(right);
+		return SpatialJoin.join(leftColumns[0], leftColumns[1], 0, left.size(), rightColumns[0], rightColumns[1], 0,
+				right.size(), distance, consumer, null);
+	}
+
+	/**
+	 * Join two sets of points of coordinate columns. Indices refer to the
+	 * columns.
+	 *
+	 * @param leftLats    left latitudes
+	 * @param leftLngs    left longitudes
+	 * @param leftOffset  index of the first left point
+	 * @param leftLength  number of left points
+	 * @param rightLats   right latitudes
+	 * @param rightLngs   right longitudes
+	 * @param rightOffset index of the first right point
+	 * @param rightLength number of right points
+	 * @param distance    maximum distance of the pairs
+	 * @param consumer    consumer of the pairs
+	 * @return number of pairs
+	 */
+	public static long join(double[] leftLats, double[] leftLngs, int leftOffset, int leftLength,
+			double[] rightLats, double[] rightLngs, int rightOffset, int rightLength, Distance distance,
+			PairConsumer consumer) {
+		return SpatialJoin.join(leftLats, leftLngs, leftOffset, leftLength, rightLats, rightLngs, rightOffset,
+				rightLength, distance, consumer, null);
+	}
+
+	/**
+	 * Join two sets of points of coordinate columns in parallel. Partitions of
+	 * the left points are searched on the pool, so the consumer is called
+	 * concurrently and must be thread-safe.
+	 *
+	 * @param leftLats    left latitudes
+	 * @param leftLngs    left longitudes
+	 * @param leftOffset  index of the first left point
+	 * @param leftLength  number of left points
+	 * @param rightLats   right latitudes
+	 * @param rightLngs   right longitudes
+	 * @param rightOffset index of the first right point
+	 * @param rightLength number of right points
+	 * @param distance    maximum distance of the pairs
+	 * @param consumer    thread-safe consumer of the pairs
+	 * @param pool        pool to run on
+	 * @return number of pairs
+	 */
+	public static long join(double[] leftLats, double[] leftLngs, int leftOffset, int leftLength,
+			double[] rightLats, double[] rightLngs, int rightOffset, int rightLength, Distance distance,
+			PairConsumer consumer, ForkJoinPool pool) {
+		Haversine.checkRange(leftLats, leftOffset, leftLength, "Left latitudes");
+		Haversine.checkRange(leftLngs, leftOffset, leftLength, "Left longitudes");
+		Haversine.checkRange(rightLats, rightOffset, rightLength, "Right latitudes");
+		Haversine.checkRange(rightLngs, rightOffset, rightLength, "Right longitudes");
+		Assert.notNull(distance, "Distance must not be null.");
+		Assert.notNull(consumer, "Consumer must not be null.");
+
+		final Join join = new Join(leftLats, leftLngs, rightLats, rightLngs,
+				PointGrid.of(leftLats, leftLngs, leftOffset, leftLength, distance.getMeter()),
+				PointGrid.of(rightLats, rightLngs, rightOffset, rightLength, distance.getMeter()),
+				Haversine.radius(distance), consumer);
+		if (pool == null || leftLength < PARALLEL_THRESHOLD) {
+			return join.run(0, leftLength);
+		}
+		return pool.invoke(new JoinTask(join, 0, leftLength));
+	}
+
+	private static double[][] columns(List<LatLng> points) {
+		final double[][] columns = new double[2][points.size()];
+		int i = 0;
+		for (LatLng point : points) {
+			Assert.notNull(point, "Points must not contain null.");
+			columns[0][i] = point.getLatitude();
+			columns[1][i] = point.getLongitude();
+			i++;
+		}
+		return columns;
+	}
+
+	private SpatialJoin() {
+	}
+
+	private static final class Join {
+
+		private final double[] leftLats;
+		private final double[] leftLngs;
+		private final double[] rightLats;
+		private final double[] rightLngs;
+		// only used for the grid order of the left points
+		private final PointGrid leftGrid;
+		private final PointGrid rightGrid;
+		private final Haversine.Radius radius;
+		private final PairConsumer consumer;
+
+		private Join(double[] leftLats, double[] leftLngs, double[] rightLats, double[] rightLngs,
+				PointGrid leftGrid, PointGrid rightGrid, Haversine.Radius radius, PairConsumer consumer) {
+			this.leftLats = leftLats;
+			this.leftLngs = leftLngs;
+			this.rightLats = rightLats;
+			this.rightLngs = rightLngs;
+			this.leftGrid = leftGrid;
+			this.rightGrid = rightGrid;
+			this.radius = radius;
+			this.consumer = consumer;
+		}
+
+		private long run(int from, int to) {
+			final long[] count = new long[1];
+			for (int position = from; position < to; position++) {
+				final int left = this.leftGrid.index(position);
+				final double lat = this.leftLats[left];
+				final double lng = this.leftLngs[left];
+				this.rightGrid.forEachWithin(lat, lng, this.radius, right -> {
+					count[0]++;
+					this.consumer.accept(left, right,
+							Haversine.distanceMeter(lat, lng, this.rightLats[right], this.rightLngs[right]));
+				});
+			}
+			return count[0];
+		}
+	}
+
+	private static final class JoinTask extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Join join;
+		private final int from;
+		private final int to;
+
+		private JoinTask(Join join, int from, int to) {
+			this.join = join;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected Long compute() {
+			if (this.to - this.from <= PARALLEL_THRESHOLD) {
+				return this.join.run(this.from, this.to);
+			}
+			final int mid = (this.from + this.to) >>> 1;
+			final JoinTask right = new JoinTask(this.join, mid, this.to);
+			right.fork();
+			return new JoinTask(this.join, this.from, mid).compute() + right.join();
+		}
+	}
+}
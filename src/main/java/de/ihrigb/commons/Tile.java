@@ -0,0 +1,270 @@
+package de.ihrigb.commons;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * XYZ tile of the web mercator projection ("slippy map" tile). Tile x grows
+ * eastwards from the antimeridian, tile y southwards from the northern limit of
+ * the projection at about 85.0511 degrees latitude.
+ */
+public final class Tile {
+
+	/**
+	 * Maximum supported zoom level.
+	 */
+	public static final int MAX_ZOOM = 30;
+
+	/**
+	 * Latitude limit of the web mercator projection.
+	 */
+	public static final double MAX_LATITUDE = Math.toDegrees(Math.atan(Math.sinh(Math.PI)));
+
+	/**
+	 * Create a tile by its coordinates.
+	 *
+	 * @param x tile x within [0, 2^z)
+	 * @param y tile y within [0, 2^z)
+	 * @param z zoom level within [0, {@value #MAX_ZOOM}]
+	 * @return tile
+	 */
+	public static Tile of(int x, int y, int z) {
+		Tile.checkZoom(z);
+		Assert.isTrue(x >= 0 && x < 1 << z && y >= 0 && y < 1 << z, "Tile must be within [0, 2^z).");
+		return new Tile(x, y, z);
+	}
+
+	/**
+	 * Get the tile containing a point. Latitudes beyond the limits of the
+	 * projection are clamped.
+	 *
+	 * @param latLng the point
+	 * @param z      zoom level within [0, {@value #MAX_ZOOM}]
+	 * @return tile
+	 */
+	public static Tile containing(LatLng latLng, int z) {
+		Assert.notNull(latLng, "LatLng must not be null.");
+		return Tile.containing(latLng.getLatitude(), latLng.getLongitude(), z);
+	}
+
+	/**
+	 * Get the tile containing a point. Latitudes beyond the limits of the
+	 * projection are clamped.
+	 *
+	 * @param lat latitude
+	 * @param lng longitude
+	 * @param z   zoom level within [0, {@value #MAX_ZOOM}]
+	 * @return tile
+	 */
+	public static Tile containing(double lat, double lng, int z) {
+		Tile.checkZoom(z);
+		return new Tile(Tile.x(lng, z), Tile.y(lat, z), z);
+	}
+
+	/**
+	 * Get the tiles containing the points of coordinate columns.
+	 *
+	 * @param lats        latitudes
+	 * @param lngs        longitudes
+	 * @param offset      index of the first point
+	 * @param length      number of points
+	 * @param z           zoom level within [0, {@value #MAX_ZOOM}]
+	 * @param xs          target array for the tile x
+	 * @param ys          target array for the tile y
+	 * @param tilesOffset index of the first tile in the target arrays
+	 */
+	public static void containing(double[] lats, double[] lngs, int offset, int length, int z, int[] xs, int[] ys,
+			int tilesOffset) {
+		Haversine.checkRange(lats, offset, length, "Latitudes");
+		Haversine.checkRange(lngs, offset, length, "Longitudes");
+		Tile.checkZoom(z);
+		Assert.notNull(xs, "Xs must not be null.");
+		Assert.notNull(ys, "Ys must not be null.");
+		Assert.isTrue(tilesOffset >= 0 && tilesOffset <= xs.length - length && tilesOffset <= ys.length - length,
+				"Tiles do not contain the range [" + tilesOffset + ", " + tilesOffset + " + " + length + ").");
+
+		for (int i = 0; i < length; i++) {
+			xs[tilesOffset + i] = Tile.x(lngs[offset + i], z);
+			ys[tilesOffset + i] = Tile.y(lats[offset + i], z);
+		}
+	}
+
+	/**
+	 * Get the tiles intersecting a circle. A tile intersects if its nearest
+	 * point to the center is within the haversine radius. As in
+	 * {@link #containing(double, double, int)}, the outer rows extend to the
+	 * poles.
+	 *
+	 * @param center center of the circle
+	 * @param radius radius of the circle
+	 * @param z      zoom level within [0, {@value #MAX_ZOOM}]
+	 * @return intersecting tiles, row by row from north to south
+	 */
+	public static Set<Tile> cover(LatLng center, Distance radius, int z) {
+		Assert.notNull(center, "Center must not be null.");
+		Assert.notNull(radius, "Radius must not be null.");
+		Tile.checkZoom(z);
+		final BoundingBox box = BoundingBox.around(center, radius);
+		final double lat = center.getLatitude();
+		final double lng = BoundingBox.normalizeLongitude(center.getLongitude());
+		final double latRad = Math.toRadians(lat);
+		final Haversine.Radius threshold = Haversine.radius(radius);
+
+		final Set<Tile> tiles = new LinkedHashSet<>();
+		final int n = 1 << z;
+		final int west = Tile.x(box.getWest(), z);
+		final int east = Tile.x(box.getEast(), z) + (box.crossesAntimeridian() ? n : 0);
+		final int north = Tile.y(box.getNorth(), z);
+		final int south = Tile.y(box.getSouth(), z);
+		for (int y = north; y <= south; y++) {
+			// the outer rows contain the clamped points beyond the limits of the projection
+			final double tileNorth = y == 0 ? 90 : Tile.latitude(y, z);
+			final double tileSouth = y == n - 1 ? -90 : Tile.latitude(y + 1, z);
+			for (int i = west; i <= east; i++) {
+				final int x = i % n;
+				final double tileWest = Tile.longitude(x, z);
+				final double tileEast = Tile.longitude(x + 1, z);
+				if (Tile.intersects(lat, lng, latRad, threshold, tileSouth, tileWest, tileNorth, tileEast)) {
+					tiles.add(new Tile(x, y, z));
+				}
+			}
+		}
+		return tiles;
+	}
+
+	/**
+	 * Get the tiles intersecting a bounding box.
+	 *
+	 * @param box bounding box
+	 * @param z   zoom level within [0, {@value #MAX_ZOOM}]
+	 * @return intersecting tiles, row by row from north to south
+	 */
+	public static Set<Tile> cover(BoundingBox box, int z) {
+		Assert.notNull(box, "Box must not be null.");
+		Tile.checkZoom(z);
+		final Set<Tile> tiles = new LinkedHashSet<>();
+		final int n = 1 << z;
+		final int west = Tile.x(box.getWest(), z);
+		final int east = Tile.x(box.getEast(), z) + (box.crossesAntimeridian() ? n : 0);
+		for (int y = Tile.y(box.getNorth(), z); y <= Tile.y(box.getSouth(), z); y++) {
+			for (int i = west; i <= east; i++) {
+				tiles.add(new Tile(i % n, y, z));
+			}
+		}
+		return tiles;
+	}
+
+	private static int x(double lng, int z) {
+		final int n = 1 << z;
+		final int x = (int) Math.floor((BoundingBox.normalizeLongitude(lng) + 180) / 360 * n);
+		return x < 0 ? 0 : x >= n ? n - 1 : x;
+	}
+
+	private static int y(double lat, int z) {
+		final int n = 1 << z;
+		final double latRad = Math.toRadians(Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, lat)));
+		final double mercator = Math.log(Math.tan(latRad) + 1 / Math.cos(latRad));
+		final int y = (int) Math.floor((1 - mercator / Math.PI) / 2 * n);
+		return y < 0 ? 0 : y >= n ? n - 1 : y;
+	}
+
+	private static double longitude(int x, int z) {
+		return (double) x / (1 << z) * 360 - 180;
+	}
+
+	private static double latitude(int y, int z) {
+		return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2.0 * y / (1 << z)))));
+	}
+
+	// whether the nearest point of the tile to the center is within the radius
+	private static boolean intersects(double lat, double lng, double latRad, Haversine.Radius radius,
+			double south, double west, double north, double east) {
+		final boolean withinLongitudes = lng >= west && lng <= east;
+		if (withinLongitudes) {
+			// the nearest point of a parallel lies on the meridian of the center
+			final double nearestLat = Math.max(south, Math.min(north, lat));
+			return radius.isWithin(nearestLat, lng, lat, lng);
+		}
+		final double dWest = BoundingBox.normalizeLongitude(west - lng);
+		final double dEast = BoundingBox.normalizeLongitude(lng - east);
+		final double edge = Math.abs(dWest) <= Math.abs(dEast) ? west : east;
+		// nearest point of the meridian of the edge, clamped to the edge
+		final double cosDelta = Math.cos(Math.toRadians(edge - lng));
+		final double nearestLat = cosDelta <= 0 ? Math.copySign(90, lat)
+				: Math.toDegrees(Math.atan(Math.tan(latRad) / cosDelta));
+		return radius.isWithin(Math.max(south, Math.min(north, nearestLat)), edge, lat, lng);
+	}
+
+	private static void checkZoom(int z) {
+		Assert.isTrue(z >= 0 && z <= MAX_ZOOM, "Zoom must be between 0 and " + MAX_ZOOM + ".");
+	}
+
+	private final int x;
+	private final int y;
+	private final int z;
+
+	private Tile(int x, int y, int z) {
+		this.x = x;
+		this.y = y;
+		this.z = z;
+	}
+
+	/**
+	 * Get the tile x.
+	 *
+	 * @return tile x
+	 */
+	public int getX() {
+		return this.x;
+	}
+
+	/**
+	 * Get the tile y.
+	 *
+	 * @return tile y
+	 */
+	public int getY() {
+		return this.y;
+	}
+
+	/**
+	 * Get the zoom level.
+	 *
+	 * @return zoom level
+	 */
+	public int getZ() {
+		return this.z;
+	}
+
+	/**
+	 * Get the bounding box of this tile.
+	 *
+	 * @return bounding box
+	 */
+	public BoundingBox getBoundingBox() {
+		return BoundingBox.of(Tile.latitude(this.y + 1, this.z), Tile.longitude(this.x, this.z),
+				Tile.latitude(this.y, this.z), Tile.longitude(this.x + 1, this.z));
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof Tile)) {
+			return false;
+		}
+		Tile o = (Tile) obj;
+		return this.x == o.x && this.y == o.y && this.z == o.z;
+	}
+
+	@Override
+	public int hashCode() {
+		return (31 * this.x + this.y) * 31 + this.z;
+	}
+
+	@Override
+	public String toString() {
+		return this.z + "/" + this.x + "/" + this.y;
+	}
+}
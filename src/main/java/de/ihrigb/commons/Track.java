@@ -0,0 +1,203 @@
+package de.ihrigb.commons;
+
+/**
+ * Accumulator for a stream of position fixes, e.g. of one GPS device. Keeps
+ * the cumulative haversine distance, the last segment and the derived speeds
+ * without storing the fixes. The trigonometric terms of the previous fix are
+ * reused, so each fix costs a single <code>cos</code> besides the haversine
+ * terms of the segment.
+ * <p>
+ * Not thread-safe, use one instance per track.
+ */
+public final class Track {
+
+	private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+	private int size;
+	private double lat;
+	private double lng;
+	private double latRad;
+	private double lngRad;
+	private double cosLat;
+	// of the first and the latest timestamped fix, and the distance covered up to them
+	private long firstTimestamp = NO_TIMESTAMP;
+	private long timestamp = NO_TIMESTAMP;
+	private double firstTimestampMeter;
+	private double timestampMeter;
+	// of the last fix, NO_TIMESTAMP if it had none or an ignored one
+	private long lastTimestamp = NO_TIMESTAMP;
+	private double totalMeter;
+	private double lastSegmentMeter;
+	private double lastSpeed = Double.NaN;
+	private double maxSpeed = Double.NaN;
+
+	/**
+	 * Add a fix without timestamp.
+	 *
+	 * @param latLng position
+	 */
+	public void add(LatLng latLng) {
+		Assert.notNull(latLng, "LatLng must not be null.");
+		this.add(latLng.getLatitude(), latLng.getLongitude(), NO_TIMESTAMP);
+	}
+
+	/**
+	 * Add a fix.
+	 *
+	 * @param latLng          position
+	 * @param timestampMillis time of the fix in milliseconds
+	 */
+	public void add(LatLng latLng, long timestampMillis) {
+		Assert.notNull(latLng, "LatLng must not be null.");
+		this.add(latLng.getLatitude(), latLng.getLongitude(), timestampMillis);
+	}
+
+	/**
+	 * Add a fix without timestamp.
+	 *
+	 * @param lat latitude
+	 * @param lng longitude
+	 */
+	public void add(double lat, double lng) {
+		this.add(lat, lng, NO_TIMESTAMP);
+	}
+
+	/**
+	 * Add a fix. Speeds are derived for segments between two fixes with
+	 * increasing timestamps only. A timestamp before the latest one is ignored,
+	 * the fix then counts as one without timestamp.
+	 *
+	 * @param lat             latitude
+	 * @param lng             longitude
+	 * @param timestampMillis time of the fix in milliseconds
+	 */
+	public void add(double lat, double lng, long timestampMillis) {
+		final double latRad = Math.toRadians(lat);
+		final double lngRad = Math.toRadians(lng);
+		final double cosLat = Math.cos(latRad);
+
+		final long validTimestamp = this.timestamp == NO_TIMESTAMP || timestampMillis >= this.timestamp
+				? timestampMillis
+				: NO_TIMESTAMP;
+		if (this.size > 0) {
+			this.lastSegmentMeter = Haversine.MEAN_EARTH_RADIUS_METER
+					* Haversine.centralAngle(this.latRad, this.lngRad, this.cosLat, latRad, lngRad, cosLat);
+			this.totalMeter += this.lastSegmentMeter;
+
+			if (this.lastTimestamp != NO_TIMESTAMP && validTimestamp != NO_TIMESTAMP
+					&& validTimestamp > this.lastTimestamp) {
+				this.lastSpeed = this.lastSegmentMeter * 1000 / (validTimestamp - this.lastTimestamp);
+				this.maxSpeed = Double.isNaN(this.maxSpeed) ? this.lastSpeed : Math.max(this.maxSpeed, this.lastSpeed);
+			} else {
+				this.lastSpeed = Double.NaN;
+			}
+		}
+
+		this.lat = lat;
+		this.lng = lng;
+		this.latRad = latRad;
+		this.lngRad = lngRad;
+		this.cosLat = cosLat;
+		if (validTimestamp != NO_TIMESTAMP) {
+			if (this.firstTimestamp == NO_TIMESTAMP) {
+				this.firstTimestamp = validTimestamp;
+				this.firstTimestampMeter = this.totalMeter;
+			}
+			this.timestamp = validTimestamp;
+			this.timestampMeter = this.totalMeter;
+		}
+		this.lastTimestamp = validTimestamp;
+		this.size++;
+	}
+
+	/**
+	 * Get the number of added fixes.
+	 *
+	 * @return number of fixes
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Get the total distance in meter.
+	 *
+	 * @return total distance in meter
+	 */
+	public double getTotalMeter() {
+		return this.totalMeter;
+	}
+
+	/**
+	 * Get the total distance.
+	 *
+	 * @return total distance
+	 */
+	public Distance getTotalDistance() {
+		return Distance.ofMeter(this.totalMeter);
+	}
+
+	/**
+	 * Get the distance between the last two fixes in meter.
+	 *
+	 * @return last segment distance in meter, 0 for less than two fixes
+	 */
+	public double getLastSegmentMeter() {
+		return this.lastSegmentMeter;
+	}
+
+	/**
+	 * Get the distance between the last two fixes.
+	 *
+	 * @return last segment distance, 0 for less than two fixes
+	 */
+	public Distance getLastSegment() {
+		return Distance.ofMeter(this.lastSegmentMeter);
+	}
+
+	/**
+	 * Get the speed between the last two fixes.
+	 *
+	 * @return speed in meter per second, NaN if not derivable
+	 */
+	public double getLastSpeed() {
+		return this.lastSpeed;
+	}
+
+	/**
+	 * Get the highest speed of all segments.
+	 *
+	 * @return speed in meter per second, NaN if not derivable
+	 */
+	public double getMaxSpeed() {
+		return this.maxSpeed;
+	}
+
+	/**
+	 * Get the time between the first and the last timestamped fix.
+	 *
+	 * @return duration in milliseconds, 0 if not derivable
+	 */
+	public long getDurationMillis() {
+		return this.firstTimestamp == NO_TIMESTAMP ? 0 : this.timestamp - this.firstTimestamp;
+	}
+
+	/**
+	 * Get the average speed between the first and the last timestamped fix.
+	 *
+	 * @return speed in meter per second, NaN if not derivable
+	 */
+	public double getAverageSpeed() {
+		final long duration = this.getDurationMillis();
+		return duration > 0 ? (this.timestampMeter - this.firstTimestampMeter) * 1000 / duration : Double.NaN;
+	}
+
+	/**
+	 * Get the last added position.
+	 *
+	 * @return last position, null if empty
+	 */
+	public LatLng getLast() {
+		return this.size == 0 ? null : new LatLng(this.lat, this.lng);
+	}
+}
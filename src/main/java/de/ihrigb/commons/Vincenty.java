@@ -0,0 +1,241 @@
+package de.ihrigb.commons;
+
+/**
+ * Utils to calculate geodesic distances on the WGS84 ellipsoid with the
+ * inverse formula of Vincenty, accurate to less than a millimeter. The
+ * iteration is bounded to {@value #MAX_ITERATIONS} steps; for nearly antipodal
+ * points where it does not converge, the start azimuth of the geodesic is
+ * bisected in as many steps instead, following the canonical setup of Karney,
+ * "Algorithms for geodesics" (2013).
+ */
+public final class Vincenty {
+
+	/**
+	 * Maximum number of iterations per distance.
+	 */
+	public static final int MAX_ITERATIONS = 50;
+
+	private static final double A = Constants.WGS84_SEMI_MAJOR_AXIS.getMeter();
+	private static final double F = Constants.WGS84_FLATTENING;
+	private static final double B = A * (1 - F);
+	private static final double EPSILON = 1e-12;
+
+	/**
+	 * Calculate the geodesic distance between two points.
+	 *
+	 * @param start start point
+	 * @param end   end point
+	 * @return geodesic distance
+	 */
+	public static Distance distance(LatLng start, LatLng end) {
+		Assert.notNull(start, "Start must not be null.");
+		Assert.notNull(end, "End must not be null.");
+		return Distance.ofMeter(Vincenty.distanceMeter(start.getLatitude(), start.getLongitude(), end.getLatitude(),
+				end.getLongitude()));
+	}
+
+	/**
+	 * Calculate the geodesic distance between two points in meter.
+	 *
+	 * @param latStart start latitude
+	 * @param lngStart start longitude
+	 * @param latEnd   end latitude
+	 * @param lngEnd   end longitude
+	 * @return geodesic distance in meter
+	 */
+	public static double distanceMeter(double latStart, double lngStart, double latEnd, double lngEnd) {
+		return new Origin(latStart, lngStart).distanceMeterTo(latEnd, lngEnd);
+	}
+
+	/**
+	 * Create an origin for repeated distance calculations from the same point.
+	 *
+	 * @param origin origin point
+	 * @return origin
+	 */
+	public static Origin origin(LatLng origin) {
+		Assert.notNull(origin, "Origin must not be null.");
+		return new Origin(origin.getLatitude(), origin.getLongitude());
+	}
+
+	/**
+	 * Create an origin for repeated distance calculations from the same point.
+	 *
+	 * @param lat origin latitude
+	 * @param lng origin longitude
+	 * @return origin
+	 */
+	public static Origin origin(double lat, double lng) {
+		return new Origin(lat, lng);
+	}
+
+	private Vincenty() {
+	}
+
+	/**
+	 * Origin with its reduced latitude precomputed. Distances from an origin
+	 * equal the ones of {@link Vincenty#distance(LatLng, LatLng)}.
+	 */
+	public static final class Origin {
+
+		private final double lat;
+		private final double lng;
+		private final double lngRad;
+		private final double sinU;
+		private final double cosU;
+
+		private Origin(double lat, double lng) {
+			this.lat = lat;
+			this.lng = lng;
+			this.lngRad = Math.toRadians(lng);
+			final double latRad = Math.toRadians(lat);
+			final double sin = (1 - F) * Math.sin(latRad);
+			final double cos = Math.cos(latRad);
+			final double norm = Math.sqrt(sin * sin + cos * cos);
+			this.sinU = sin / norm;
+			this.cosU = cos / norm;
+		}
+
+		/**
+		 * Get the origin as LatLng.
+		 *
+		 * @return origin
+		 */
+		public LatLng getLatLng() {
+			return new LatLng(this.lat, this.lng);
+		}
+
+		/**
+		 * Calculate the geodesic distance to another point.
+		 *
+		 * @param other target point
+		 * @return geodesic distance
+		 */
+		public Distance distanceTo(LatLng other) {
+			Assert.notNull(other, "Other must not be null.");
+			return Distance.ofMeter(this.distanceMeterTo(other.getLatitude(), other.getLongitude()));
+		}
+
+		/**
+		 * Calculate the geodesic distance to another point in meter.
+		 *
+		 * @param lat target latitude
+		 * @param lng target longitude
+		 * @return geodesic distance in meter
+		 */
+		public double distanceMeterTo(double lat, double lng) {
+			final double latRad = Math.toRadians(lat);
+			final double sin = (1 - F) * Math.sin(latRad);
+			final double cos = Math.cos(latRad);
+			final double norm = Math.sqrt(sin * sin + cos * cos);
+			final double sinU2 = sin / norm;
+			final double cosU2 = cos / norm;
+			final double sinU1sinU2 = this.sinU * sinU2;
+			final double cosU1cosU2 = this.cosU * cosU2;
+
+			final double l = Math.toRadians(lng) - this.lngRad;
+			double lambda = l;
+			for (int i = 0; i < MAX_ITERATIONS; i++) {
+				final double sinLambda = Math.sin(lambda);
+				final double cosLambda = Math.cos(lambda);
+				final double t0 = cosU2 * sinLambda;
+				final double t1 = this.cosU * sinU2 - this.sinU * cosU2 * cosLambda;
+				final double sinSigma = Math.sqrt(t0 * t0 + t1 * t1);
+				if (sinSigma == 0) {
+					return 0;
+				}
+				final double cosSigma = sinU1sinU2 + cosU1cosU2 * cosLambda;
+				final double sigma = Math.atan2(sinSigma, cosSigma);
+				final double sinAlpha = cosU1cosU2 * sinLambda / sinSigma;
+				final double cosSqAlpha = 1 - sinAlpha * sinAlpha;
+				// zero on equatorial lines
+				final double cos2SigmaM = cosSqAlpha == 0 ? 0 : cosSigma - 2 * sinU1sinU2 / cosSqAlpha;
+				final double c = F / 16 * cosSqAlpha * (4 + F * (4 - 3 * cosSqAlpha));
+				final double previous = lambda;
+				lambda = l + (1 - c) * F * sinAlpha
+						* (sigma + c * sinSigma * (cos2SigmaM + c * cosSigma * (-1 + 2 * cos2SigmaM * cos2SigmaM)));
+				if (Math.abs(lambda - previous) < EPSILON) {
+					return distanceMeter(sigma, sinSigma, cosSigma, cosSqAlpha, cos2SigmaM);
+				}
+			}
+			return antipodalDistanceMeter(this.sinU, this.cosU, sinU2, cosU2, l);
+		}
+
+		/**
+		 * Calculate the geodesic distances to the points of coordinate columns.
+		 *
+		 * @param lats         target latitudes
+		 * @param lngs         target longitudes
+		 * @param offset       index of the first point in the input columns
+		 * @param length       number of points
+		 * @param meters       target array for the distances in meter
+		 * @param metersOffset index of the first distance in the target array
+		 */
+		public void distances(double[] lats, double[] lngs, int offset, int length, double[] meters,
+				int metersOffset) {
+			Haversine.checkRange(lats, offset, length, "Latitudes");
+			Haversine.checkRange(lngs, offset, length, "Longitudes");
+			Haversine.checkRange(meters, metersOffset, length, "Meters");
+			for (int i = 0; i < length; i++) {
+				meters[metersOffset + i] = this.distanceMeterTo(lats[offset + i], lngs[offset + i]);
+			}
+		}
+
+		// For nearly antipodal points, where the iteration on lambda does not converge, the start azimuth is
+		// searched instead. In the canonical setup of Karney (2013), |u1| >= |u2|, u1 <= 0 and l within [0, pi],
+		// the longitude difference reached on the latitude of the end point grows monotonically from 0 to pi
+		// with the azimuth from 0 (north along the meridian) to pi (south over the pole), so it is bisected.
+		private static double antipodalDistanceMeter(double sinU1, double cosU1, double sinU2, double cosU2,
+				double l) {
+			final double lAbs = Math.abs(Math.IEEEremainder(l, 2 * Math.PI));
+			final boolean swap = Math.abs(sinU1) < Math.abs(sinU2);
+			final double sign = (swap ? sinU2 : sinU1) > 0 ? -1 : 1;
+			// a start on the equator lies just south of it, so geodesics heading south cross the pole first
+			final double sinB1 = Math.min(-Double.MIN_NORMAL, sign * (swap ? sinU2 : sinU1));
+			final double cosB1 = swap ? cosU2 : cosU1;
+			final double sinB2 = sign * (swap ? sinU1 : sinU2);
+			final double cosB2 = swap ? cosU1 : cosU2;
+
+			double low = 0;
+			double high = Math.PI;
+			double sigma = 0;
+			double cosSqAlpha = 0;
+			double cos2SigmaM = 0;
+			for (int i = 0; i < MAX_ITERATIONS; i++) {
+				final double alpha1 = (low + high) / 2;
+				final double cosAlpha1CosB1 = Math.cos(alpha1) * cosB1;
+				final double sinAlpha = Math.sin(alpha1) * cosB1;
+				// heading north when crossing the latitude of the end point
+				final double cosAlpha2CosB2 = Math.sqrt(
+						Math.max(0, cosAlpha1CosB1 * cosAlpha1CosB1 + (cosB2 - cosB1) * (cosB2 + cosB1)));
+				final double sigma1 = Math.atan2(sinB1, cosAlpha1CosB1);
+				final double sigma2 = Math.atan2(sinB2, cosAlpha2CosB2);
+				final double omega = Math.atan2(sinAlpha * sinB2, cosAlpha2CosB2)
+						- Math.atan2(sinAlpha * sinB1, cosAlpha1CosB1);
+				sigma = sigma2 - sigma1;
+				cosSqAlpha = 1 - sinAlpha * sinAlpha;
+				cos2SigmaM = Math.cos(sigma1 + sigma2);
+				final double c = F / 16 * cosSqAlpha * (4 + F * (4 - 3 * cosSqAlpha));
+				final double lambda = omega - (1 - c) * F * sinAlpha * (sigma + c * Math.sin(sigma)
+						* (cos2SigmaM + c * Math.cos(sigma) * (-1 + 2 * cos2SigmaM * cos2SigmaM)));
+				if (lambda < lAbs) {
+					low = alpha1;
+				} else {
+					high = alpha1;
+				}
+			}
+			return distanceMeter(sigma, Math.sin(sigma), Math.cos(sigma), cosSqAlpha, cos2SigmaM);
+		}
+
+		private static double distanceMeter(double sigma, double sinSigma, double cosSigma, double cosSqAlpha,
+				double cos2SigmaM) {
+			final double uSq = cosSqAlpha * (A * A - B * B) / (B * B);
+			final double a = 1 + uSq / 16384 * (4096 + uSq * (-768 + uSq * (320 - 175 * uSq)));
+			final double b = uSq / 1024 * (256 + uSq * (-128 + uSq * (74 - 47 * uSq)));
+			final double cos2SigmaMSq = cos2SigmaM * cos2SigmaM;
+			final double deltaSigma = b * sinSigma * (cos2SigmaM + b / 4 * (cosSigma * (-1 + 2 * cos2SigmaMSq)
+					- b / 6 * cos2SigmaM * (-3 + 4 * sinSigma * sinSigma) * (-3 + 4 * cos2SigmaMSq)));
+			return B * a * (sigma - deltaSigma);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package de.ihrigb.commons;
+
+/**
+ * Haversine column kernels for Java 17+. Delegates to
+ * {@link VectorHaversineKernel} if the <code>jdk.incubator.vector</code>
+ * module is part of the boot layer, otherwise computes scalar.
+ */
+final class HaversineKernel {
+
+	private static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+	static boolean isVectorized() {
+		return VECTORIZED;
+	}
+
+	static void oneToMany(double latRad, double lngRad, double cosLat, double[] lats, double[] lngs, int offset,
+			int length, double[] meters, int metersOffset) {
+		if (VECTORIZED) {
+			VectorHaversineKernel.oneToMany(latRad, lngRad, cosLat, lats, lngs, offset, length, meters, metersOffset);
+			return;
+		}
+		for (int i = 0; i < length; i++) {
+			final double latEndRad = Math.toRadians(lats[offset + i]);
+			meters[metersOffset + i] = Haversine.MEAN_EARTH_RADIUS_METER * Haversine.centralAngle(latRad, lngRad,
+					cosLat, latEndRad, Math.toRadians(lngs[offset + i]), Math.cos(latEndRad));
+		}
+	}
+
+	static void pairwise(double[] latsStart, double[] lngsStart, double[] latsEnd, double[] lngsEnd, int offset,
+			int length, double[] meters, int metersOffset) {
+		if (VECTORIZED) {
+			VectorHaversineKernel.pairwise(latsStart, lngsStart, latsEnd, lngsEnd, offset, length, meters,
+					metersOffset);
+			return;
+		}
+		for (int i = 0; i < length; i++) {
+			final int idx = offset + i;
+			meters[metersOffset + i] = Haversine.MEAN_EARTH_RADIUS_METER
+					* Haversine.centralAngle(latsStart[idx], lngsStart[idx], latsEnd[idx], lngsEnd[idx]);
+		}
+	}
+
+	private HaversineKernel() {
+	}
+}
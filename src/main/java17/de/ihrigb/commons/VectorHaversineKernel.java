@@ -0,0 +1,67 @@
+package de.ihrigb.commons;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Haversine column kernels on the Vector API. Only loaded if the
+ * <code>jdk.incubator.vector</code> module is available.
+ */
+final class VectorHaversineKernel {
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+	private static final double DEGREES_TO_RADIANS = Math.PI / 180;
+
+	static void oneToMany(double latRad, double lngRad, double cosLat, double[] lats, double[] lngs, int offset,
+			int length, double[] meters, int metersOffset) {
+		final int bound = SPECIES.loopBound(length);
+		int i = 0;
+		for (; i < bound; i += SPECIES.length()) {
+			final DoubleVector latEnd = DoubleVector.fromArray(SPECIES, lats, offset + i).mul(DEGREES_TO_RADIANS);
+			final DoubleVector lngEnd = DoubleVector.fromArray(SPECIES, lngs, offset + i).mul(DEGREES_TO_RADIANS);
+			final DoubleVector cosLatStart = DoubleVector.broadcast(SPECIES, cosLat);
+
+			meters(latEnd.sub(latRad), lngEnd.sub(lngRad), cosLatStart, latEnd.lanewise(VectorOperators.COS))
+					.intoArray(meters, metersOffset + i);
+		}
+		for (; i < length; i++) {
+			final double latEndRad = Math.toRadians(lats[offset + i]);
+			meters[metersOffset + i] = Haversine.MEAN_EARTH_RADIUS_METER * Haversine.centralAngle(latRad, lngRad,
+					cosLat, latEndRad, Math.toRadians(lngs[offset + i]), Math.cos(latEndRad));
+		}
+	}
+
+	static void pairwise(double[] latsStart, double[] lngsStart, double[] latsEnd, double[] lngsEnd, int offset,
+			int length, double[] meters, int metersOffset) {
+		final int bound = SPECIES.loopBound(length);
+		int i = 0;
+		for (; i < bound; i += SPECIES.length()) {
+			final int idx = offset + i;
+			final DoubleVector latStart = DoubleVector.fromArray(SPECIES, latsStart, idx).mul(DEGREES_TO_RADIANS);
+			final DoubleVector lngStart = DoubleVector.fromArray(SPECIES, lngsStart, idx).mul(DEGREES_TO_RADIANS);
+			final DoubleVector latEnd = DoubleVector.fromArray(SPECIES, latsEnd, idx).mul(DEGREES_TO_RADIANS);
+			final DoubleVector lngEnd = DoubleVector.fromArray(SPECIES, lngsEnd, idx).mul(DEGREES_TO_RADIANS);
+
+			meters(latEnd.sub(latStart), lngEnd.sub(lngStart), latStart.lanewise(VectorOperators.COS),
+					latEnd.lanewise(VectorOperators.COS)).intoArray(meters, metersOffset + i);
+		}
+		for (; i < length; i++) {
+			final int idx = offset + i;
+			meters[metersOffset + i] = Haversine.MEAN_EARTH_RADIUS_METER
+					* Haversine.centralAngle(latsStart[idx], lngsStart[idx], latsEnd[idx], lngsEnd[idx]);
+		}
+	}
+
+	private static DoubleVector meters(DoubleVector dLat, DoubleVector dLng, DoubleVector cosLatStart,
+			DoubleVector cosLatEnd) {
+		final DoubleVector sinLat = dLat.mul(0.5).lanewise(VectorOperators.SIN);
+		final DoubleVector sinLng = dLng.mul(0.5).lanewise(VectorOperators.SIN);
+		final DoubleVector a = sinLat.mul(sinLat).add(cosLatStart.mul(cosLatEnd).mul(sinLng).mul(sinLng));
+		final DoubleVector c = a.sqrt().lanewise(VectorOperators.ATAN2, a.neg().add(1).sqrt()).mul(2);
+		return c.mul(Haversine.MEAN_EARTH_RADIUS_METER);
+	}
+
+	private VectorHaversineKernel() {
+	}
+}
@@ -47,4 +47,17 @@ public class ArrayUtilsTest {
 		Assertions.assertEquals(-1, ArrayUtils.indexOf(new String[] { "value1", "value2" }, "value3"),
 				"indexOf should return -1");
 	}
+
+	@Test
+	public void testSort() throws Exception {
+		long[] keys = { 5L, Long.MIN_VALUE, -1L, 5L, Long.MAX_VALUE, 0L, 1L << 40 };
+		int[] values = { 0, 1, 2, 3, 4, 5, 6 };
+		ArrayUtils.sort(keys, values);
+		Assertions.assertAll(
+				() -> Assertions.assertArrayEquals(
+						new long[] { Long.MIN_VALUE, -1L, 0L, 5L, 5L, 1L << 40, Long.MAX_VALUE }, keys),
+				() -> Assertions.assertArrayEquals(new int[] { 1, 2, 5, 0, 3, 6, 4 }, values),
+				() -> Assertions.assertThrows(IllegalArgumentException.class,
+						() -> ArrayUtils.sort(new long[1], new int[2])));
+	}
 }
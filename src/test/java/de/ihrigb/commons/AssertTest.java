@@ -13,6 +13,8 @@ public class AssertTest {
 				() -> Assertions.assertThrows(IllegalArgumentException.class,
 						() -> Assert.notNull(null, () -> new IllegalArgumentException())),
 				() -> Assertions
-						.assertDoesNotThrow(() -> Assert.notNull("data", () -> new IllegalArgumentException())));
+						.assertDoesNotThrow(() -> Assert.notNull("data", () -> new IllegalArgumentException())),
+				() -> Assertions.assertThrows(IllegalArgumentException.class, () -> Assert.isTrue(false, "message")),
+				() -> Assertions.assertDoesNotThrow(() -> Assert.isTrue(true, "message")));
 	}
 }
@@ -0,0 +1,49 @@
+package de.ihrigb.commons;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class BoundingBoxTest {
+
+	private final static double DELTA = 0.000001d;
+
+	@Test
+	public void testAround() throws Exception {
+		BoundingBox box = BoundingBox.around(new LatLng(0, 0), Distance.ofKilometer(111.19492664455873));
+		Assertions.assertAll(() -> Assertions.assertEquals(-1, box.getSouth(), DELTA),
+				() -> Assertions.assertEquals(-1, box.getWest(), DELTA),
+				() -> Assertions.assertEquals(1, box.getNorth(), DELTA),
+				() -> Assertions.assertEquals(1, box.getEast(), DELTA),
+				() -> Assertions.assertFalse(box.crossesAntimeridian()),
+				() -> Assertions.assertTrue(box.contains(new LatLng(0.5, -0.5))),
+				() -> Assertions.assertFalse(box.contains(new LatLng(0.5, 1.5))));
+	}
+
+	@Test
+	public void testAntimeridian() throws Exception {
+		BoundingBox box = BoundingBox.around(new LatLng(0, 179.5), Distance.ofKilometer(111.19492664455873));
+		Assertions.assertAll(() -> Assertions.assertTrue(box.crossesAntimeridian()),
+				() -> Assertions.assertEquals(178.5, box.getWest(), DELTA),
+				() -> Assertions.assertEquals(-179.5, box.getEast(), DELTA),
+				() -> Assertions.assertTrue(box.contains(0, -179.9)),
+				() -> Assertions.assertTrue(box.contains(0, 179.9)),
+				() -> Assertions.assertFalse(box.contains(0, 0)));
+	}
+
+	@Test
+	public void testPole() throws Exception {
+		BoundingBox box = BoundingBox.around(new LatLng(89.5, 10), Distance.ofKilometer(111.19492664455873));
+		Assertions.assertAll(() -> Assertions.assertEquals(88.5, box.getSouth(), DELTA),
+				() -> Assertions.assertEquals(90, box.getNorth(), DELTA),
+				() -> Assertions.assertEquals(-180, box.getWest(), DELTA),
+				() -> Assertions.assertEquals(180, box.getEast(), DELTA),
+				() -> Assertions.assertTrue(box.contains(89, -170)));
+	}
+
+	@Test
+	public void testOf() throws Exception {
+		Assertions.assertAll(() -> Assertions.assertThrows(IllegalArgumentException.class,
+				() -> BoundingBox.of(10, 0, 0, 10)),
+				() -> Assertions.assertEquals(BoundingBox.of(0, 170, 10, -170), BoundingBox.of(0, 170, 10, -170)));
+	}
+}
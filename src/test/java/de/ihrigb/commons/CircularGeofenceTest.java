@@ -0,0 +1,20 @@
+package de.ihrigb.commons;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CircularGeofenceTest {
+
+	@Test
+	public void testContains() throws Exception {
+		CircularGeofence fence = CircularGeofence.of(new LatLng(0, 179.99), Distance.ofMeter(5000));
+
+		Assertions.assertAll(() -> Assertions.assertEquals(5000, fence.getRadius().getMeter()),
+				() -> Assertions.assertTrue(fence.getBoundingBox().crossesAntimeridian()),
+				() -> Assertions.assertTrue(fence.contains(0, 179.99)),
+				() -> Assertions.assertTrue(fence.contains(new LatLng(0, -179.99))),
+				() -> Assertions.assertTrue(fence.contains(0, 180.01)),
+				() -> Assertions.assertFalse(fence.contains(0, -179.9)),
+				() -> Assertions.assertFalse(fence.contains(0.1, 179.99)));
+	}
+}
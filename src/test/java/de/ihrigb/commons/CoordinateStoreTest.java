@@ -0,0 +1,72 @@
+package de.ihrigb.commons;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class CoordinateStoreTest {
+
+	@Test
+	public void testDirect() throws Exception {
+		CoordinateStore store = CoordinateStore.allocateDirect(3);
+		store.append(new LatLng(1, 2));
+		store.append(new double[] { 0, 3, 5 }, new double[] { 0, 4, 6 }, 1, 2);
+
+		double[] lats = new double[2];
+		double[] lngs = new double[2];
+		store.get(1, lats, lngs, 0, 2);
+
+		Assertions.assertAll(() -> Assertions.assertEquals(3, store.size()),
+				() -> Assertions.assertEquals(1, store.getLatitude(0)),
+				() -> Assertions.assertEquals(6, store.get(2).getLongitude()),
+				() -> Assertions.assertArrayEquals(new double[] { 3, 5 }, lats),
+				() -> Assertions.assertArrayEquals(new double[] { 4, 6 }, lngs),
+				() -> Assertions.assertThrows(IllegalStateException.class, () -> store.append(7, 8)),
+				() -> Assertions.assertThrows(IndexOutOfBoundsException.class, () -> store.getLatitude(3)));
+	}
+
+	@Test
+	public void testMappedFile(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("coordinates.bin");
+		Random random = new Random(23);
+		int n = 10000;
+		double[] lats = new double[n];
+		double[] lngs = new double[n];
+		for (int i = 0; i < n; i++) {
+			lats[i] = random.nextDouble() * 180 - 90;
+			lngs[i] = random.nextDouble() * 360 - 180;
+		}
+
+		CoordinateStore created = CoordinateStore.create(file, n + 10);
+		created.append(lats, lngs, 0, n);
+		created.force();
+
+		CoordinateStore opened = CoordinateStore.open(file, false);
+		LatLng center = new LatLng(30, 100);
+		Distance radius = Distance.ofKilometer(2000);
+
+		Assertions.assertAll(() -> Assertions.assertEquals(n, opened.size()),
+				() -> Assertions.assertEquals(n + 10, opened.capacity()),
+				() -> Assertions.assertEquals(lats[42], opened.getLatitude(42)),
+				() -> Assertions.assertEquals(lngs[n - 1], opened.getLongitude(n - 1)),
+				() -> Assertions.assertArrayEquals(RadiusQuery.indicesWithin(center, radius, lats, lngs, 0, n),
+						opened.indicesWithin(center, radius)),
+				() -> Assertions.assertThrows(IllegalStateException.class, () -> opened.append(0, 0)));
+
+		CoordinateStore writable = CoordinateStore.open(file, true);
+		writable.append(1, 1);
+		Assertions.assertEquals(n + 1, CoordinateStore.open(file, false).size());
+	}
+
+	@Test
+	public void testInvalidFile(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("invalid.bin");
+		Files.write(file, new byte[64]);
+		Assertions.assertThrows(IOException.class, () -> CoordinateStore.open(file, false));
+	}
+}
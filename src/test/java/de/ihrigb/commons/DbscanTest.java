@@ -0,0 +1,121 @@
+package de.ihrigb.commons;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DbscanTest {
+
+	@Test
+	public void testCluster() throws Exception {
+		int[] labels = Dbscan.cluster(Arrays.asList(new LatLng(50, 8), new LatLng(50.0001, 8),
+				new LatLng(50.0002, 8), new LatLng(0, 179.99995), new LatLng(0, -179.99995), new LatLng(0, 179.9999),
+				new LatLng(10, 10), new LatLng(50.0003, 8)), Distance.ofMeter(15), 3);
+
+		Assertions.assertArrayEquals(new int[] { 0, 0, 0, 1, 1, 1, Dbscan.NOISE, 0 }, labels);
+	}
+
+	@Test
+	public void testClusterRandom() throws Exception {
+		int n = 2000;
+		double[] lats = new double[n + 1];
+		double[] lngs = new double[n + 1];
+		hotspots(new Random(42), lats, lngs);
+		Distance epsilon = Distance.ofMeter(40);
+
+		int[] labels = Dbscan.cluster(lats, lngs, 1, n, epsilon, 5);
+		Assertions.assertArrayEquals(bruteForce(Arrays.copyOfRange(lats, 1, n + 1),
+				Arrays.copyOfRange(lngs, 1, n + 1), epsilon, 5), labels);
+	}
+
+	@Test
+	public void testClusterParallel() throws Exception {
+		// well above the parallel threshold, so the pool splits the phases into several tasks
+		int n = 20000;
+		double[] lats = new double[n + 1];
+		double[] lngs = new double[n + 1];
+		hotspots(new Random(43), lats, lngs);
+		Distance epsilon = Distance.ofMeter(20);
+
+		int[] labels = Dbscan.cluster(lats, lngs, 1, n, epsilon, 5);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Assertions.assertArrayEquals(labels, Dbscan.cluster(lats, lngs, 1, n, epsilon, 5, pool));
+		} finally {
+			pool.shutdown();
+		}
+		Assertions.assertTrue(Arrays.stream(labels).max().getAsInt() > 0);
+		Assertions.assertTrue(Arrays.stream(labels).anyMatch(label -> label == Dbscan.NOISE));
+	}
+
+	@Test
+	public void testInvalid() throws Exception {
+		Assertions.assertAll(
+				() -> Assertions.assertThrows(IllegalArgumentException.class,
+						() -> Dbscan.cluster(Arrays.asList(), Distance.ofMeter(1), 0)),
+				() -> Assertions.assertThrows(IllegalArgumentException.class,
+						() -> Dbscan.cluster(new double[1], new double[1], 0, 2, Distance.ofMeter(1), 1)));
+	}
+
+	// points around 20 hotspots, leaving index 0 unused
+	private static void hotspots(Random random, double[] lats, double[] lngs) {
+		for (int i = 1; i < lats.length; i++) {
+			int hotspot = random.nextInt(20);
+			lats[i] = 50 + hotspot * 0.01 + random.nextGaussian() * 0.001;
+			lngs[i] = 8 + hotspot * 0.01 + random.nextGaussian() * 0.001;
+		}
+	}
+
+	private static int[] bruteForce(double[] lats, double[] lngs, Distance epsilon, int minPoints) {
+		int n = lats.length;
+		boolean[] core = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			int count = 0;
+			for (int j = 0; j < n; j++) {
+				if (Haversine.distanceMeter(lats[i], lngs[i], lats[j], lngs[j]) <= epsilon.getMeter()) {
+					count++;
+				}
+			}
+			core[i] = count >= minPoints;
+		}
+		int[] labels = new int[n];
+		Arrays.fill(labels, Integer.MIN_VALUE);
+		int cluster = 0;
+		int[] queue = new int[n];
+		for (int i = 0; i < n; i++) {
+			if (!core[i] || labels[i] != Integer.MIN_VALUE) {
+				continue;
+			}
+			int head = 0;
+			int tail = 0;
+			queue[tail++] = i;
+			labels[i] = cluster;
+			while (head < tail) {
+				int p = queue[head++];
+				for (int j = 0; j < n; j++) {
+					if (core[j] && labels[j] == Integer.MIN_VALUE
+							&& Haversine.distanceMeter(lats[p], lngs[p], lats[j], lngs[j]) <= epsilon.getMeter()) {
+						labels[j] = cluster;
+						queue[tail++] = j;
+					}
+				}
+			}
+			cluster++;
+		}
+		for (int i = 0; i < n; i++) {
+			if (!core[i]) {
+				labels[i] = Dbscan.NOISE;
+				for (int j = 0; j < n; j++) {
+					if (core[j] && Haversine.distanceMeter(lats[i], lngs[i], lats[j], lngs[j]) <= epsilon.getMeter()) {
+						labels[i] = labels[j];
+						break;
+					}
+				}
+			}
+		}
+		return labels;
+	}
+}
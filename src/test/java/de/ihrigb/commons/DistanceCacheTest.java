@@ -0,0 +1,72 @@
+package de.ihrigb.commons;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DistanceCacheTest {
+
+	@Test
+	public void testDistance() throws Exception {
+		DistanceCache cache = DistanceCache.create(100);
+		LatLng start = new LatLng(50, 8);
+		LatLng end = new LatLng(51, 9);
+		double expected = Haversine.distance(start, end).getMeter();
+
+		Assertions.assertAll(() -> Assertions.assertEquals(128, cache.getCapacity()),
+				() -> Assertions.assertTrue(Double.isNaN(cache.getHitRate())),
+				() -> Assertions.assertEquals(expected, cache.distance(start, end).getMeter(), 0.01),
+				() -> Assertions.assertEquals(expected, cache.distance(end, start).getMeter(), 0.01),
+				() -> Assertions.assertEquals(expected, cache.distanceMeter(50, 8, 51, 9), 0.01),
+				() -> Assertions.assertEquals(0, cache.distanceMeter(0, 0, 0, 0)),
+				() -> Assertions.assertEquals(0, cache.distanceMeter(0, 0, 0, 0)),
+				() -> Assertions.assertEquals(3, cache.getHitCount()),
+				() -> Assertions.assertEquals(2, cache.getMissCount()),
+				() -> Assertions.assertEquals(0.6, cache.getHitRate(), 1e-9),
+				() -> Assertions.assertThrows(IllegalArgumentException.class, () -> DistanceCache.create(0)));
+	}
+
+	@Test
+	public void testEviction() throws Exception {
+		DistanceCache cache = DistanceCache.create(8);
+		for (int i = 0; i < 100; i++) {
+			cache.distanceMeter(0, 0, i * 0.5, 0);
+			// keeps the first pair referenced
+			cache.distanceMeter(0, 0, 0, 0);
+		}
+
+		Assertions.assertAll(() -> Assertions.assertEquals(100, cache.getMissCount()),
+				() -> Assertions.assertEquals(100, cache.getHitCount()),
+				() -> Assertions.assertEquals(Haversine.distanceMeter(0, 0, 49.5, 0), cache.distanceMeter(0, 0, 49.5, 0),
+						0.01),
+				() -> Assertions.assertEquals(101, cache.getHitCount()));
+	}
+
+	@Test
+	public void testConcurrently() throws Exception {
+		DistanceCache cache = DistanceCache.create(1024);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < 100000; i++) {
+					int lat = i % 2000;
+					Assertions.assertEquals(Haversine.distanceMeter(lat * 0.01, 8, 50, 8),
+							cache.distanceMeter(lat * 0.01, 8, 50, 8), 0.05);
+				}
+			}));
+		}
+		executor.shutdown();
+		Assertions.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		Assertions.assertEquals(400000, cache.getHitCount() + cache.getMissCount());
+	}
+}
@@ -0,0 +1,100 @@
+package de.ihrigb.commons;
+
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DistanceMatrixTest {
+
+	private static double[] random(Random random, int n, double range) {
+		double[] values = new double[n];
+		for (int i = 0; i < n; i++) {
+			values[i] = random.nextDouble() * 2 * range - range;
+		}
+		return values;
+	}
+
+	@Test
+	public void testSymmetric() throws Exception {
+		Random random = new Random(29);
+		int n = 300;
+		double[] lats = random(random, n, 90);
+		double[] lngs = random(random, n, 180);
+
+		double[] matrix = DistanceMatrix.of(lats, lngs);
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				Assertions.assertEquals(Haversine.distanceMeter(lats[i], lngs[i], lats[j], lngs[j]),
+						matrix[i * n + j], 1e-6);
+			}
+		}
+	}
+
+	@Test
+	public void testOriginsToDestinations() throws Exception {
+		Random random = new Random(31);
+		double[] originLats = random(random, 150, 90);
+		double[] originLngs = random(random, 150, 180);
+		double[] destinationLats = random(random, 270, 90);
+		double[] destinationLngs = random(random, 270, 180);
+
+		double[] matrix = DistanceMatrix.of(originLats, originLngs, destinationLats, destinationLngs);
+		DoubleBuffer buffer = DoubleBuffer.allocate(matrix.length);
+		DistanceMatrix.submit(originLats, originLngs, destinationLats, destinationLngs, buffer,
+				ForkJoinPool.commonPool()).join();
+
+		for (int i = 0; i < 150; i++) {
+			for (int j = 0; j < 270; j++) {
+				double expected = Haversine.distanceMeter(originLats[i], originLngs[i], destinationLats[j],
+						destinationLngs[j]);
+				Assertions.assertEquals(expected, matrix[i * 270 + j]);
+				Assertions.assertEquals(expected, buffer.get(i * 270 + j));
+			}
+		}
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> DistanceMatrix.submit(originLats, originLngs, destinationLats, destinationLngs,
+						new double[10], ForkJoinPool.commonPool()));
+		Assertions.assertThrows(IllegalArgumentException.class,
+				() -> DistanceMatrix.submit(originLats, originLngs, destinationLats, destinationLngs,
+						DoubleBuffer.allocate(matrix.length).limit(matrix.length - 1), ForkJoinPool.commonPool()));
+	}
+
+	@Test
+	public void testCancel() throws Exception {
+		Random random = new Random(37);
+		double[] originLats = random(random, 2000, 90);
+		double[] originLngs = random(random, 2000, 180);
+		double[] destinationLats = random(random, 2000, 90);
+		double[] destinationLngs = random(random, 2000, 180);
+		double[] matrix = new double[2000 * 2000];
+		Arrays.fill(matrix, Double.NaN);
+		ForkJoinPool pool = new ForkJoinPool(2);
+		try {
+			ForkJoinTask<Void> task = DistanceMatrix.submit(originLats, originLngs, destinationLats, destinationLngs,
+					matrix, pool);
+			// cancels once the first tile is being written
+			while (Double.isNaN(matrix[0])) {
+				Thread.sleep(1);
+			}
+			Assertions.assertTrue(task.cancel(true));
+			Assertions.assertThrows(CancellationException.class, task::join);
+			Assertions.assertTrue(pool.awaitQuiescence(10, TimeUnit.SECONDS));
+
+			long written = Arrays.stream(matrix).filter(meter -> !Double.isNaN(meter)).count();
+			Thread.sleep(50);
+			Assertions.assertAll(() -> Assertions.assertTrue(written < matrix.length / 2),
+					() -> Assertions.assertEquals(written,
+							Arrays.stream(matrix).filter(meter -> !Double.isNaN(meter)).count()),
+					() -> Assertions.assertTrue(Double.isNaN(matrix[matrix.length - 1])));
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
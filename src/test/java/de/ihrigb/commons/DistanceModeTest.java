@@ -0,0 +1,33 @@
+package de.ihrigb.commons;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DistanceModeTest {
+
+	@Test
+	public void test() throws Exception {
+		LatLng start = new LatLng(49.654321, 8.654321);
+		LatLng end = new LatLng(49.123456, 8.123456);
+		double haversine = Haversine.distance(start, end).getMeter();
+
+		Assertions.assertAll(
+				() -> Assertions.assertEquals(haversine, DistanceMode.HAVERSINE.distance(start, end).getMeter()),
+				() -> Assertions.assertEquals(haversine,
+						DistanceMode.SPHERICAL_LAW_OF_COSINES.distance(start, end).getMeter(), 0.2),
+				() -> Assertions.assertEquals(haversine, DistanceMode.EQUIRECTANGULAR.distance(start, end).getMeter(),
+						haversine * 0.0005),
+				() -> Assertions.assertEquals(haversine, CheapRuler.of(49.5).distance(start, end).getMeter(),
+						haversine * 0.0005));
+	}
+
+	@Test
+	public void testAntimeridian() throws Exception {
+		double haversine = Haversine.distanceMeter(10, 179.9, 10.1, -179.9);
+		Assertions.assertAll(
+				() -> Assertions.assertEquals(haversine,
+						DistanceMode.EQUIRECTANGULAR.distanceMeter(10, 179.9, 10.1, -179.9), haversine * 0.00001),
+				() -> Assertions.assertEquals(haversine, CheapRuler.of(10).distanceMeter(10, 179.9, 10.1, -179.9),
+						haversine * 0.00001));
+	}
+}
@@ -0,0 +1,79 @@
+package de.ihrigb.commons;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class EncodedPolylineTest {
+
+	private final static double DELTA = 0.0000001d;
+
+	private final static String ENCODED = "_p~iF~ps|U_ulLnnqC_mqNvxq`@";
+
+	private final static List<LatLng> POINTS = Arrays.asList(new LatLng(38.5, -120.2), new LatLng(40.7, -120.95),
+			new LatLng(43.252, -126.453));
+
+	@Test
+	public void testEncode() throws Exception {
+		Assertions.assertAll(() -> Assertions.assertEquals(ENCODED, EncodedPolyline.encode(POINTS)),
+				() -> Assertions.assertEquals(ENCODED, EncodedPolyline.encode(new double[] { 0, 38.5, 40.7, 43.252 },
+						new double[] { 0, -120.2, -120.95, -126.453 }, 1, 3, 5)),
+				() -> Assertions.assertEquals("", EncodedPolyline.encode(Arrays.asList())));
+	}
+
+	@Test
+	public void testDecode() throws Exception {
+		List<LatLng> points = EncodedPolyline.decode(ENCODED);
+		Assertions.assertEquals(3, points.size());
+		for (int i = 0; i < 3; i++) {
+			Assertions.assertEquals(POINTS.get(i).getLatitude(), points.get(i).getLatitude(), DELTA);
+			Assertions.assertEquals(POINTS.get(i).getLongitude(), points.get(i).getLongitude(), DELTA);
+		}
+	}
+
+	@Test
+	public void testDecodeColumns() throws Exception {
+		ByteBuffer buffer = ByteBuffer.wrap(("xx" + ENCODED).getBytes(StandardCharsets.US_ASCII));
+		buffer.position(2);
+		double[] lats = new double[4];
+		double[] lngs = new double[4];
+
+		Assertions.assertAll(() -> Assertions.assertEquals(3, EncodedPolyline.count(ENCODED)),
+				() -> Assertions.assertEquals(3, EncodedPolyline.count(buffer)),
+				() -> Assertions.assertEquals(3, EncodedPolyline.decode(buffer, 5, lats, lngs, 1)),
+				() -> Assertions.assertEquals(2, buffer.position()),
+				() -> Assertions.assertArrayEquals(new double[] { 0, 38.5, 40.7, 43.252 }, lats, DELTA),
+				() -> Assertions.assertArrayEquals(new double[] { 0, -120.2, -120.95, -126.453 }, lngs, DELTA),
+				() -> Assertions.assertThrows(IllegalArgumentException.class,
+						() -> EncodedPolyline.decode(ENCODED, 5, new double[2], new double[2], 0)));
+	}
+
+	@Test
+	public void testLength() throws Exception {
+		double expected = Haversine.distanceMeter(38.5, -120.2, 40.7, -120.95)
+				+ Haversine.distanceMeter(40.7, -120.95, 43.252, -126.453);
+		Assertions.assertAll(
+				() -> Assertions.assertEquals(expected, EncodedPolyline.length(ENCODED, 5).getMeter(), 0.001),
+				() -> Assertions.assertEquals(expected, EncodedPolyline
+						.length(ByteBuffer.wrap(ENCODED.getBytes(StandardCharsets.US_ASCII)), 5).getMeter(), 0.001));
+	}
+
+	@Test
+	public void testInvalid() throws Exception {
+		Assertions.assertAll(
+				() -> Assertions.assertThrows(IllegalArgumentException.class, () -> EncodedPolyline.decode("_p~iF")),
+				() -> Assertions.assertThrows(IllegalArgumentException.class, () -> EncodedPolyline.count("_p~i")),
+				() -> Assertions.assertThrows(IllegalArgumentException.class, () -> EncodedPolyline.decode(" ")));
+	}
+
+	@Test
+	public void testPrecision() throws Exception {
+		List<LatLng> points = Arrays.asList(new LatLng(49.654321, 8.654321), new LatLng(-49.123456, -8.123456));
+		List<LatLng> decoded = EncodedPolyline.decode(EncodedPolyline.encode(points, 6), 6);
+		Assertions.assertEquals(-8.123456, decoded.get(1).getLongitude(), DELTA);
+	}
+}
@@ -0,0 +1,79 @@
+package de.ihrigb.commons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GeofenceEventDetectorTest {
+
+	private final static Geofence CIRCLE = CircularGeofence.of(new LatLng(50, 8), Distance.ofMeter(1000));
+	private final static Geofence SQUARE = PolygonGeofence.of(Arrays.asList(new LatLng(49.99, 7.99),
+			new LatLng(49.99, 8.1), new LatLng(50.1, 8.1), new LatLng(50.1, 7.99)));
+	private final static Geofence WORLD = PolygonGeofence.of(Arrays.asList(new LatLng(-80, -170),
+			new LatLng(-80, 170), new LatLng(80, 170), new LatLng(80, -170)));
+
+	@Test
+	public void testUpdate() throws Exception {
+		List<String> events = new ArrayList<>();
+		GeofenceEventDetector<String> detector = GeofenceEventDetector.of(Arrays.asList(CIRCLE, SQUARE, WORLD),
+				60000, event -> events.add(event.toString()));
+
+		detector.update("a", 0, 0, 0);
+		detector.update("a", new LatLng(50, 8), 1000);
+		detector.update("a", 50.05, 8.05, 2000);
+		detector.update("a", 50, 8, 1500);
+		detector.update("a", 50.05, 8.05, 62000);
+		detector.update("a", 50.05, 8.05, 63000);
+		detector.update("a", 0, 180, 64000);
+
+		Assertions.assertAll(
+				() -> Assertions.assertEquals(Arrays.asList("ENTER a 2 @ 0", "ENTER a 0 @ 1000", "ENTER a 1 @ 1000",
+						"EXIT a 0 @ 2000", "DWELL a 1 @ 62000", "DWELL a 2 @ 62000", "EXIT a 1 @ 64000",
+						"EXIT a 2 @ 64000"), events),
+				() -> Assertions.assertEquals(1, detector.size()),
+				() -> Assertions.assertArrayEquals(new int[0], detector.getFenceIndices("a")),
+				() -> Assertions.assertTrue(detector.remove("a")),
+				() -> Assertions.assertEquals(0, detector.size()));
+	}
+
+	@Test
+	public void testUpdateConcurrently() throws Exception {
+		List<GeofenceEvent<Integer>> events = Collections.synchronizedList(new ArrayList<>());
+		GeofenceEventDetector<Integer> detector = GeofenceEventDetector.of(Arrays.asList(CIRCLE, SQUARE),
+				events::add);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		for (int t = 0; t < 4; t++) {
+			executor.execute(() -> {
+				for (int i = 0; i < 1000; i++) {
+					detector.update(i, 50, 8, 0);
+					detector.update(i, 50.05, 8.05, 1);
+				}
+			});
+		}
+		executor.shutdown();
+		Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+		Assertions.assertAll(() -> Assertions.assertEquals(1000, detector.size()),
+				() -> Assertions.assertEquals(3000, events.size()),
+				() -> Assertions.assertArrayEquals(new int[] { 1 }, detector.getFenceIndices(999)));
+	}
+
+	@Test
+	public void testInvalid() throws Exception {
+		Assertions.assertAll(
+				() -> Assertions.assertThrows(IllegalArgumentException.class,
+						() -> GeofenceEventDetector.of(Arrays.asList(CIRCLE), -1, event -> {
+						})),
+				() -> Assertions.assertThrows(IllegalArgumentException.class,
+						() -> GeofenceEventDetector.of(Arrays.asList(CIRCLE, null), event -> {
+						})));
+	}
+}
@@ -0,0 +1,89 @@
+package de.ihrigb.commons;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class GeohashTest {
+
+	private final static double DELTA = 0.000001d;
+
+	@Test
+	public void testEncode() throws Exception {
+		Assertions.assertAll(() -> Assertions.assertEquals("ezs42", Geohash.encode(new LatLng(42.6, -5.6), 5)),
+				() -> Assertions.assertEquals(Geohash.toBits("ezs42"), Geohash.encodeBits(42.6, -5.6, 25)),
+				() -> Assertions.assertEquals("s00000000000", Geohash.encode(0, 0, 12)),
+				() -> Assertions.assertEquals("zzzzzzzzzzzz", Geohash.encode(90, 180, 12)),
+				() -> Assertions.assertThrows(IllegalArgumentException.class, () -> Geohash.encode(0, 0, 13)));
+	}
+
+	@Test
+	public void testDecode() throws Exception {
+		BoundingBox bounds = Geohash.bounds("ezs42");
+		LatLng center = Geohash.decode("ezs42");
+		Assertions.assertAll(() -> Assertions.assertEquals(42.583008, bounds.getSouth(), DELTA),
+				() -> Assertions.assertEquals(42.626953, bounds.getNorth(), DELTA),
+				() -> Assertions.assertEquals(-5.625, bounds.getWest(), DELTA),
+				() -> Assertions.assertEquals(-5.581055, bounds.getEast(), DELTA),
+				() -> Assertions.assertEquals(42.604980, center.getLatitude(), DELTA),
+				() -> Assertions.assertEquals(-5.603027, center.getLongitude(), DELTA),
+				() -> Assertions.assertThrows(IllegalArgumentException.class, () -> Geohash.decode("ezs4a")));
+	}
+
+	@Test
+	public void testNeighbors() throws Exception {
+		Assertions.assertAll(
+				() -> Assertions.assertEquals(new HashSet<>(Arrays.asList("ezs48", "ezs49", "ezs43", "ezs41", "ezs40",
+						"ezefp", "ezefr", "ezefx")), new HashSet<>(Arrays.asList(Geohash.neighbors("ezs42")))),
+				() -> Assertions.assertEquals(Geohash.encode(89.99, -179.99, 3), Geohash.neighbor("zzz", 0, 1)),
+				() -> Assertions.assertNull(Geohash.neighbor("zzz", 1, 0)),
+				() -> Assertions.assertEquals(5, Geohash.neighbors("zzz").length));
+	}
+
+	@Test
+	public void testIndex() throws Exception {
+		Random random = new Random(17);
+		int n = 20000;
+		double[] lats = new double[n];
+		double[] lngs = new double[n];
+		for (int i = 0; i < n; i++) {
+			lats[i] = 49 + random.nextDouble();
+			lngs[i] = random.nextBoolean() ? 179.5 + random.nextDouble() * 0.5 : -180 + random.nextDouble() * 0.5;
+		}
+		GeohashIndex index = GeohashIndex.of(lats, lngs, 0, n, 5);
+
+		for (LatLng center : new LatLng[] { new LatLng(49.5, 179.99), new LatLng(49.5, -179.8) }) {
+			Distance radius = Distance.ofKilometer(4);
+			int[] expected = RadiusQuery.indicesWithin(center, radius, lats, lngs, 0, n);
+			int[] actual = index.within(center, radius).getIndices();
+			Arrays.sort(actual);
+			Assertions.assertTrue(expected.length > 0);
+			Assertions.assertArrayEquals(expected, actual);
+
+			int[] wide = index.within(center, Distance.ofKilometer(100)).getIndices();
+			Arrays.sort(wide);
+			Assertions.assertArrayEquals(
+					RadiusQuery.indicesWithin(center, Distance.ofKilometer(100), lats, lngs, 0, n), wide);
+		}
+
+		int[] fine = GeohashIndex.of(lats, lngs, 0, n, 12).within(new LatLng(49.5, 179.99), Distance.ofKilometer(4))
+				.getIndices();
+		Arrays.sort(fine);
+		Assertions.assertArrayEquals(
+				RadiusQuery.indicesWithin(new LatLng(49.5, 179.99), Distance.ofKilometer(4), lats, lngs, 0, n), fine);
+
+		String prefix = Geohash.encode(lats[0], lngs[0], 3);
+		Set<Integer> prefixed = new HashSet<>();
+		for (int i : index.indicesOf(prefix)) {
+			prefixed.add(i);
+		}
+		Assertions.assertTrue(prefixed.contains(0));
+		for (int i = 0; i < n; i++) {
+			Assertions.assertEquals(Geohash.encode(lats[i], lngs[i], 5).startsWith(prefix), prefixed.contains(i));
+		}
+	}
+}
@@ -1,5 +1,7 @@
 package de.ihrigb.commons;
 
+import java.util.Random;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -12,4 +14,117 @@ public class HaversineTest {
 		Assertions.assertEquals(70432.888669d, Haversine.distance(49.654321, 8.654321, 49.123456, 8.123456).getMeter(),
 				DELTA);
 	}
+
+	@Test
+	public void testDistanceMeter() throws Exception {
+		Assertions.assertEquals(Haversine.distance(49.654321, 8.654321, 49.123456, 8.123456).getMeter(),
+				Haversine.distanceMeter(49.654321, 8.654321, 49.123456, 8.123456));
+	}
+
+	@Test
+	public void testDistances() throws Exception {
+		double[] latsStart = { 0, 49.654321, -33.9, 89.9 };
+		double[] lngsStart = { 0, 8.654321, 151.2, -179.9 };
+		double[] latsEnd = { 0, 49.123456, 51.5, -89.9 };
+		double[] lngsEnd = { 0, 8.123456, -0.1, 179.9 };
+		double[] meters = new double[4];
+
+		Haversine.distances(latsStart, lngsStart, latsEnd, lngsEnd, 1, 3, meters, 0);
+
+		Assertions.assertAll(
+				() -> Assertions.assertEquals(Haversine.distance(49.654321, 8.654321, 49.123456, 8.123456).getMeter(),
+						meters[0]),
+				() -> Assertions.assertEquals(Haversine.distance(-33.9, 151.2, 51.5, -0.1).getMeter(), meters[1]),
+				() -> Assertions.assertEquals(Haversine.distance(89.9, -179.9, -89.9, 179.9).getMeter(), meters[2]),
+				() -> Assertions.assertEquals(0d, meters[3]));
+	}
+
+	@Test
+	public void testDistancesRange() throws Exception {
+		double[] column = new double[4];
+		Assertions.assertAll(
+				() -> Assertions.assertThrows(IllegalArgumentException.class,
+						() -> Haversine.distances(column, column, column, column, 2, 3, new double[3], 0)),
+				() -> Assertions.assertThrows(IllegalArgumentException.class,
+						() -> Haversine.distances(column, column, column, column, 0, 4, new double[4], 1)),
+				() -> Assertions.assertThrows(IllegalArgumentException.class,
+						() -> Haversine.distances(null, column, column, column, 0, 1, new double[1], 0)));
+	}
+
+	@Test
+	public void testOrigin() throws Exception {
+		Haversine.Origin origin = Haversine.origin(new LatLng(49.654321, 8.654321));
+		double[] lats = { 49.123456, -33.9, 49.654321 };
+		double[] lngs = { 8.123456, 151.2, 8.654321 };
+		double[] meters = new double[4];
+
+		origin.distances(lats, lngs, 0, 3, meters, 1);
+
+		Assertions.assertAll(
+				() -> Assertions.assertEquals(Haversine.distance(49.654321, 8.654321, 49.123456, 8.123456),
+						origin.distanceTo(new LatLng(49.123456, 8.123456))),
+				() -> Assertions.assertEquals(Haversine.distanceMeter(49.654321, 8.654321, -33.9, 151.2),
+						origin.distanceMeterTo(-33.9, 151.2)),
+				() -> Assertions.assertEquals(0d, meters[0]),
+				() -> Assertions.assertEquals(Haversine.distanceMeter(49.654321, 8.654321, 49.123456, 8.123456),
+						meters[1]),
+				() -> Assertions.assertEquals(Haversine.distanceMeter(49.654321, 8.654321, -33.9, 151.2), meters[2]),
+				() -> Assertions.assertEquals(0d, meters[3]));
+	}
+
+	@Test
+	public void testDistancesVectorized() throws Exception {
+		int n = 37;
+		double[] lats = new double[n];
+		double[] lngs = new double[n];
+		for (int i = 0; i < n; i++) {
+			lats[i] = -90 + i * 5;
+			lngs[i] = -180 + i * 10;
+		}
+		double[] expected = new double[n];
+		double[] actual = new double[n];
+		Haversine.Origin origin = Haversine.origin(49.654321, 8.654321);
+
+		origin.distances(lats, lngs, 0, n, expected, 0);
+		origin.distancesVectorized(lats, lngs, 0, n, actual, 0);
+		Assertions.assertArrayEquals(expected, actual, DELTA);
+
+		Haversine.distances(lats, lngs, lngs, lats, 0, n, expected, 0);
+		Haversine.distancesVectorized(lats, lngs, lngs, lats, 0, n, actual, 0);
+		Assertions.assertArrayEquals(expected, actual, DELTA);
+	}
+
+	@Test
+	public void testIsWithin() throws Exception {
+		LatLng start = new LatLng(49.654321, 8.654321);
+		LatLng end = new LatLng(49.123456, 8.123456);
+		Assertions.assertAll(() -> Assertions.assertTrue(Haversine.isWithin(start, end, Distance.ofKilometer(71))),
+				() -> Assertions.assertFalse(start.isWithin(end, Distance.ofKilometer(70))),
+				() -> Assertions.assertTrue(start.isWithin(start, Distance.ofMeter(0))),
+				() -> Assertions.assertFalse(start.isWithin(start, Distance.ofMeter(-1))),
+				() -> Assertions.assertTrue(Haversine.isWithin(new LatLng(90, 0), new LatLng(-90, 0),
+						Constants.MEAN_EARTH_RADIUS.multiply(Math.PI))));
+	}
+
+	@Test
+	public void testRadiusMatchesDistance() throws Exception {
+		Random random = new Random(42);
+		for (Distance distance : new Distance[] { Distance.ofMeter(50), Distance.ofKilometer(10),
+				Distance.ofKilometer(5000) }) {
+			Haversine.Radius radius = Haversine.radius(distance);
+			for (int i = 0; i < 10000; i++) {
+				double lat = random.nextDouble() * 180 - 90;
+				double lng = random.nextDouble() * 360 - 180;
+				double scale = distance.getKilometer() / 50;
+				LatLng start = new LatLng(lat, lng);
+				LatLng end = new LatLng(Math.max(-90, Math.min(90, lat + (random.nextDouble() - 0.5) * scale)),
+						lng + (random.nextDouble() - 0.5) * scale);
+				Haversine.Origin origin = Haversine.origin(start);
+
+				boolean expected = start.getDistanceTo(end).isLessOrEqual(distance);
+				Assertions.assertEquals(expected, radius.isWithin(start, end));
+				Assertions.assertEquals(expected, origin.isWithin(end, radius));
+			}
+		}
+	}
 }
@@ -0,0 +1,106 @@
+package de.ihrigb.commons;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HeatmapTest {
+
+	@Test
+	public void testAdd() throws Exception {
+		Heatmap heatmap = Heatmap.create(BoundingBox.of(50, 8, 52, 12), 2, 4);
+
+		Assertions.assertAll(() -> Assertions.assertTrue(heatmap.add(new LatLng(51.5, 8.5))),
+				() -> Assertions.assertTrue(heatmap.add(51.9, 8.1)),
+				() -> Assertions.assertTrue(heatmap.add(50.5, 11.5)),
+				() -> Assertions.assertTrue(heatmap.add(50, 12)),
+				() -> Assertions.assertTrue(heatmap.add(52, 8)),
+				() -> Assertions.assertFalse(heatmap.add(49.9, 9)),
+				() -> Assertions.assertFalse(heatmap.add(51, 12.1)),
+				() -> Assertions.assertEquals(1, heatmap.add(new double[] { 0, 51, 60 }, new double[] { 0, 10.5, 9 }, 1, 2)),
+				() -> Assertions.assertThrows(IllegalStateException.class, () -> heatmap.add(51, 9, 1)));
+
+		Heatmap.Snapshot snapshot = heatmap.snapshot();
+		Assertions.assertAll(() -> Assertions.assertEquals(3, snapshot.getCount(0, 0)),
+				() -> Assertions.assertEquals(2, snapshot.getCount(1, 3)),
+				() -> Assertions.assertEquals(1, snapshot.getCount(1, 2)),
+				() -> Assertions.assertEquals(0, snapshot.getCount(1, 0)),
+				() -> Assertions.assertEquals(6, snapshot.getTotalCount()),
+				() -> Assertions.assertEquals(3, snapshot.getMaxCount()),
+				() -> Assertions.assertEquals(3, snapshot.getDroppedCount()),
+				() -> Assertions.assertTrue(Double.isNaN(snapshot.getWeight(0, 0))),
+				() -> Assertions.assertEquals(BoundingBox.of(50, 11, 51, 12), snapshot.getCellBounds(1, 3)),
+				() -> Assertions.assertThrows(IndexOutOfBoundsException.class, () -> snapshot.getCount(2, 0)),
+				() -> Assertions.assertThrows(IllegalArgumentException.class,
+						() -> Heatmap.create(BoundingBox.of(50, 8, 50, 12), 2, 2)),
+				() -> Assertions.assertThrows(IllegalArgumentException.class,
+						() -> Heatmap.create(BoundingBox.of(50, 8, 52, 12), 0, 2)));
+	}
+
+	@Test
+	public void testWeightedAndDrain() throws Exception {
+		Heatmap heatmap = Heatmap.weighted(BoundingBox.of(-10, 170, 10, -170), 1, 4);
+		heatmap.add(new LatLng(0, 171), 2.5);
+		heatmap.add(0, 179, 1);
+		heatmap.add(0, -179, 0.5);
+		heatmap.add(new double[] { 0, 0, 0 }, new double[] { -171, 0, 171 }, new double[] { 4, 8, 1 }, 0, 3);
+
+		Heatmap.Snapshot drained = heatmap.drain();
+		Heatmap.Snapshot empty = heatmap.snapshot();
+		Assertions.assertAll(() -> Assertions.assertTrue(heatmap.isWeighted()),
+				() -> Assertions.assertEquals(2, drained.getCount(0, 0)),
+				() -> Assertions.assertEquals(3.5, drained.getWeight(0, 0)),
+				() -> Assertions.assertEquals(1, drained.getWeight(0, 1)),
+				() -> Assertions.assertEquals(0.5, drained.getWeight(0, 2)),
+				() -> Assertions.assertEquals(4, drained.getWeight(0, 3)),
+				() -> Assertions.assertEquals(1, drained.getDroppedCount()),
+				() -> Assertions.assertEquals(BoundingBox.of(-10, 175, 10, 180), drained.getCellBounds(0, 1)),
+				() -> Assertions.assertEquals(0, empty.getTotalCount()),
+				() -> Assertions.assertEquals(0, empty.getWeight(0, 0)),
+				() -> Assertions.assertEquals(0, heatmap.getDroppedCount()));
+	}
+
+	@Test
+	public void testConcurrently() throws Exception {
+		Heatmap heatmap = Heatmap.weighted(BoundingBox.of(50, 8, 51, 9), 10, 10);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> futures = new ArrayList<>();
+		List<Heatmap.Snapshot> drained = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < 100000; i++) {
+					heatmap.add(50.05 + (i % 10) * 0.1, 8.05 + (i / 10 % 10) * 0.1, 0.5);
+				}
+			}));
+		}
+		futures.add(executor.submit(() -> {
+			for (int i = 0; i < 10; i++) {
+				drained.add(heatmap.drain());
+			}
+		}));
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		executor.awaitTermination(1, TimeUnit.MINUTES);
+		drained.add(heatmap.drain());
+
+		long total = 0;
+		long cell = 0;
+		double weight = 0;
+		for (Heatmap.Snapshot snapshot : drained) {
+			total += snapshot.getTotalCount();
+			cell += snapshot.getCount(9, 0);
+			weight += snapshot.getWeight(9, 0);
+		}
+		Assertions.assertEquals(400000, total);
+		Assertions.assertEquals(4000, cell);
+		Assertions.assertEquals(2000, weight, 1e-9);
+	}
+}
@@ -0,0 +1,38 @@
+package de.ihrigb.commons;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LatLngE7Test {
+
+	private final static double DELTA = 0.00000005d;
+
+	@Test
+	public void testPack() throws Exception {
+		long packed = LatLngE7.pack(new LatLng(-49.6543215, 179.9999999));
+		LatLng latLng = LatLngE7.toLatLng(packed);
+		Assertions.assertAll(() -> Assertions.assertEquals(-496543215, LatLngE7.latitudeE7(packed)),
+				() -> Assertions.assertEquals(1799999999, LatLngE7.longitudeE7(packed)),
+				() -> Assertions.assertEquals(packed, LatLngE7.packE7(-496543215, 1799999999)),
+				() -> Assertions.assertEquals(-49.6543215, latLng.getLatitude(), DELTA),
+				() -> Assertions.assertEquals(179.9999999, latLng.getLongitude(), DELTA),
+				() -> Assertions.assertEquals(-180, LatLngE7.longitude(LatLngE7.pack(90, -180))),
+				() -> Assertions.assertEquals(90, LatLngE7.latitude(LatLngE7.pack(90, -180))),
+				() -> Assertions.assertThrows(IllegalArgumentException.class, () -> LatLngE7.pack(91, 0)),
+				() -> Assertions.assertThrows(IllegalArgumentException.class, () -> LatLngE7.pack(0, 181)));
+	}
+
+	@Test
+	public void testPackColumns() throws Exception {
+		long[] packed = new long[3];
+		LatLngE7.pack(new double[] { 1, 2, 3 }, new double[] { -1, -2, -3 }, 1, 2, packed, 1);
+		Assertions.assertArrayEquals(new long[] { 0, LatLngE7.pack(2, -2), LatLngE7.pack(3, -3) }, packed);
+	}
+
+	@Test
+	public void testDistance() throws Exception {
+		Assertions.assertEquals(70432.888669d,
+				LatLngE7.distance(LatLngE7.pack(49.654321, 8.654321), LatLngE7.pack(49.123456, 8.123456)).getMeter(),
+				0.001d);
+	}
+}
@@ -0,0 +1,60 @@
+package de.ihrigb.commons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LatLngTreeTest {
+
+	@Test
+	public void testNearest() throws Exception {
+		Random random = new Random(11);
+		List<LatLng> points = new ArrayList<>();
+		for (int i = 0; i < 5000; i++) {
+			points.add(new LatLng(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+		}
+		LatLngTree tree = LatLngTree.of(points);
+
+		for (LatLng query : new LatLng[] { new LatLng(49.6, 8.6), new LatLng(0, 180), new LatLng(-90, 0) }) {
+			int[] expected = IntStream.range(0, points.size()).boxed()
+					.sorted((i, j) -> Double.compare(query.getDistanceTo(points.get(i)).getMeter(),
+							query.getDistanceTo(points.get(j)).getMeter()))
+					.mapToInt(Integer::intValue).limit(10).toArray();
+
+			Neighbors neighbors = tree.nearest(query, 10);
+			Assertions.assertArrayEquals(expected, neighbors.getIndices());
+			for (int i = 0; i < neighbors.size(); i++) {
+				Assertions.assertEquals(query.getDistanceTo(points.get(expected[i])).getMeter(), neighbors.getMeter(i));
+			}
+		}
+		Assertions.assertEquals(5000, tree.nearest(0, 0, 10000).size());
+		Assertions.assertThrows(IllegalArgumentException.class, () -> tree.nearest(0, 0, 0));
+	}
+
+	@Test
+	public void testWithinParallelBuild() throws Exception {
+		Random random = new Random(13);
+		int n = 100000;
+		double[] lats = new double[n + 1];
+		double[] lngs = new double[n + 1];
+		for (int i = 1; i <= n; i++) {
+			lats[i] = random.nextDouble() * 180 - 90;
+			lngs[i] = random.nextDouble() * 360 - 180;
+		}
+		LatLngTree tree = LatLngTree.of(lats, lngs, 1, n);
+		LatLng center = new LatLng(60, -179);
+		Distance radius = Distance.ofKilometer(300);
+
+		int[] expected = RadiusQuery.indicesWithin(center, radius, lats, lngs, 1, n);
+		int[] actual = tree.within(center, radius).getIndices();
+		Arrays.sort(actual);
+
+		Assertions.assertTrue(expected.length > 0);
+		Assertions.assertArrayEquals(expected, actual);
+	}
+}
@@ -0,0 +1,201 @@
+package de.ihrigb.commons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MovingObjectIndexTest {
+
+	@Test
+	public void testUpdate() throws Exception {
+		MovingObjectIndex<String> index = MovingObjectIndex.create();
+		index.update("a", 50, 8);
+		index.update("b", new LatLng(50.001, 8));
+		index.update("c", 50.1, 8);
+		index.update("a", 50.02, 8);
+
+		Assertions.assertAll(() -> Assertions.assertEquals(3, index.size()),
+				() -> Assertions.assertEquals(50.02, index.getPosition("a").getLatitude()),
+				() -> Assertions.assertEquals(Arrays.asList("b", "a"),
+						index.within(new LatLng(50, 8), Distance.ofMeter(3000))),
+				() -> Assertions.assertEquals(Arrays.asList("b", "a", "c"),
+						index.within(new LatLng(50, 8), Distance.ofMeter(20000))),
+				() -> Assertions.assertTrue(index.remove("b")),
+				() -> Assertions.assertFalse(index.remove("b")),
+				() -> Assertions.assertNull(index.getPosition("b")),
+				() -> Assertions.assertEquals(Arrays.asList("a"),
+						index.within(new LatLng(50, 8), Distance.ofMeter(3000))));
+	}
+
+	@Test
+	public void testAntimeridian() throws Exception {
+		MovingObjectIndex<Integer> index = MovingObjectIndex.create();
+		index.update(1, 0, 179.999);
+		index.update(2, 0, -179.999);
+		index.update(3, 0, 181);
+
+		Assertions.assertAll(
+				() -> Assertions.assertEquals(Arrays.asList(1, 2),
+						index.within(new LatLng(0, 179.9999), Distance.ofMeter(1000))),
+				() -> Assertions.assertEquals(Arrays.asList(2, 1), index.nearest(new LatLng(0, -179.99999), 2)));
+	}
+
+	@Test
+	public void testNearest() throws Exception {
+		Random random = new Random(42);
+		MovingObjectIndex<Integer> index = MovingObjectIndex.create(Distance.ofMeter(5000));
+		List<LatLng> points = new ArrayList<>();
+		for (int i = 0; i < 2000; i++) {
+			LatLng point = new LatLng(49 + 2 * random.nextDouble(), 7 + 2 * random.nextDouble());
+			points.add(point);
+			index.update(i, point);
+		}
+		LatLngTree tree = LatLngTree.of(points);
+
+		for (LatLng center : Arrays.asList(new LatLng(50, 8), new LatLng(48, 6), new LatLng(-30, 100))) {
+			Neighbors expected = tree.nearest(center, 10);
+			List<Integer> actual = index.nearest(center, 10);
+			Assertions.assertEquals(10, actual.size());
+			for (int i = 0; i < 10; i++) {
+				Assertions.assertEquals(expected.getIndex(i), actual.get(i).intValue());
+			}
+		}
+		Assertions.assertEquals(2000, index.nearest(new LatLng(0, 0), 5000).size());
+	}
+
+	@Test
+	public void testUpdateConcurrently() throws Exception {
+		MovingObjectIndex<Integer> index = MovingObjectIndex.create();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> futures = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			final int thread = t;
+			futures.add(executor.submit(() -> {
+				for (int i = 0; i < 10000; i++) {
+					index.update(thread * 100 + i % 100, 50 + (i % 7) * 0.01, 8);
+					Assertions.assertTrue(index.within(new LatLng(50, 8), Distance.ofMeter(10000)).size() <= 400);
+				}
+			}));
+		}
+		executor.shutdown();
+		Assertions.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+		for (Future<?> future : futures) {
+			future.get();
+		}
+
+		Assertions.assertAll(() -> Assertions.assertEquals(400, index.size()),
+				() -> Assertions.assertEquals(400, index.within(new LatLng(50, 8), Distance.ofMeter(10000)).size()));
+	}
+
+	@Test
+	public void testQueryConcurrently() throws Exception {
+		MovingObjectIndex<Integer> index = MovingObjectIndex.create();
+		for (int id = 0; id < 200; id++) {
+			index.update(id, 50, 8);
+		}
+		LatLng center = new LatLng(50.01, 8);
+		AtomicBoolean running = new AtomicBoolean(true);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> writers = new ArrayList<>();
+		for (int t = 0; t < 2; t++) {
+			final int thread = t;
+			writers.add(executor.submit(() -> {
+				// objects jump back and forth between cells, all within the queried radius
+				for (int i = 0; running.get(); i++) {
+					index.update(thread * 100 + i % 100, i / 100 % 2 == 0 ? 50.02 : 50, 8);
+				}
+			}));
+		}
+		List<Future<?>> readers = new ArrayList<>();
+		readers.add(executor.submit(() -> {
+			for (int i = 0; i < 500; i++) {
+				Assertions.assertEquals(200, index.within(center, Distance.ofMeter(5000)).size());
+			}
+		}));
+		readers.add(executor.submit(() -> {
+			for (int i = 0; i < 500; i++) {
+				Assertions.assertEquals(200, index.nearest(center, 300).size());
+			}
+		}));
+		try {
+			for (Future<?> reader : readers) {
+				reader.get();
+			}
+		} finally {
+			running.set(false);
+			executor.shutdown();
+		}
+		Assertions.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+		for (Future<?> writer : writers) {
+			writer.get();
+		}
+	}
+
+	@Test
+	public void testMoveLogOverrun() throws Exception {
+		MovingObjectIndex<Id> index = MovingObjectIndex.create(Distance.ofMeter(1000));
+		for (int i = 0; i < 50; i++) {
+			// far away cells, so the query reads the cells around the center row by row
+			index.update(new Id(-1 - i), -60 + i, 8);
+		}
+		Id first = new Id(0);
+		index.update(first, 49.995, 8.005);
+		List<Id> ids = new ArrayList<>();
+		for (int i = 1; i <= 300; i++) {
+			Id id = new Id(i);
+			ids.add(id);
+			index.update(id, 50.005, 8.005);
+		}
+
+		// runs when the query meets the first object, in the southern cell, before it reads the northern cell
+		Id.onHash.set(() -> {
+			for (int round = 0; round < 5; round++) {
+				for (Id id : ids) {
+					index.update(id, round % 2 == 0 ? 49.995 : 50.005, 8.005);
+				}
+			}
+		});
+		List<Id> result = index.within(new LatLng(50, 8), Distance.ofMeter(2000));
+		ids.add(first);
+
+		Assertions.assertAll(() -> Assertions.assertNull(Id.onHash.get()),
+				() -> Assertions.assertEquals(ids.size(), result.size()),
+				() -> Assertions.assertEquals(new HashSet<>(ids), new HashSet<>(result)));
+	}
+
+	private static final class Id {
+
+		private static final AtomicReference<Runnable> onHash = new AtomicReference<>();
+
+		private final int value;
+
+		private Id(int value) {
+			this.value = value;
+		}
+
+		@Override
+		public int hashCode() {
+			final Runnable runnable = onHash.getAndSet(null);
+			if (runnable != null) {
+				runnable.run();
+			}
+			return this.value;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Id && ((Id) obj).value == this.value;
+		}
+	}
+}
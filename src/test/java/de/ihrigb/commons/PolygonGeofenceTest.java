@@ -0,0 +1,82 @@
+package de.ihrigb.commons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PolygonGeofenceTest {
+
+	@Test
+	public void testContains() throws Exception {
+		// U shape opening to the north
+		PolygonGeofence fence = PolygonGeofence.of(Arrays.asList(new LatLng(0, 0), new LatLng(0, 3),
+				new LatLng(3, 3), new LatLng(3, 2), new LatLng(1, 2), new LatLng(1, 1), new LatLng(3, 1),
+				new LatLng(3, 0), new LatLng(0, 0)));
+
+		Assertions.assertAll(() -> Assertions.assertEquals(8, fence.getEdgeCount()),
+				() -> Assertions.assertEquals(BoundingBox.of(0, 0, 3, 3), fence.getBoundingBox()),
+				() -> Assertions.assertTrue(fence.contains(0.5, 1.5)),
+				() -> Assertions.assertTrue(fence.contains(new LatLng(2.5, 0.5))),
+				() -> Assertions.assertTrue(fence.contains(2.5, 2.5)),
+				() -> Assertions.assertFalse(fence.contains(2.5, 1.5)),
+				() -> Assertions.assertFalse(fence.contains(-0.5, 1.5)),
+				() -> Assertions.assertFalse(fence.contains(1.5, 3.5)));
+	}
+
+	@Test
+	public void testContainsBatch() throws Exception {
+		PolygonGeofence fence = PolygonGeofence.of(new double[] { 0, 0, 2, 2 }, new double[] { 0, 2, 2, 0 }, 0,
+				4);
+		boolean[] results = new boolean[4];
+
+		Assertions.assertAll(
+				() -> Assertions.assertEquals(2, fence.contains(new double[] { 1, 3, 1 }, new double[] { 1, 1, 1.5 },
+						0, 3, results, 1)),
+				() -> Assertions.assertArrayEquals(new boolean[] { false, true, false, true }, results),
+				() -> Assertions.assertThrows(IllegalArgumentException.class,
+						() -> fence.contains(new double[2], new double[2], 0, 2, new boolean[1], 0)));
+	}
+
+	@Test
+	public void testContainsRandom() throws Exception {
+		Random random = new Random(42);
+		double[] lats = new double[2000];
+		double[] lngs = new double[2000];
+		for (int i = 0; i < lats.length; i++) {
+			double angle = 2 * Math.PI * i / lats.length;
+			double radius = 0.5 + random.nextDouble();
+			lats[i] = 50 + radius * Math.sin(angle);
+			lngs[i] = 8 + radius * Math.cos(angle);
+		}
+		PolygonGeofence fence = PolygonGeofence.of(lats, lngs, 0, lats.length);
+
+		for (int i = 0; i < 20000; i++) {
+			double lat = 48 + 4 * random.nextDouble();
+			double lng = 6 + 4 * random.nextDouble();
+			Assertions.assertEquals(rayCast(lats, lngs, lat, lng), fence.contains(lat, lng));
+		}
+	}
+
+	@Test
+	public void testInvalid() throws Exception {
+		List<LatLng> vertices = new ArrayList<>(Arrays.asList(new LatLng(0, 0), new LatLng(1, 1), new LatLng(0, 0)));
+		Assertions.assertAll(
+				() -> Assertions.assertThrows(IllegalArgumentException.class, () -> PolygonGeofence.of(vertices)),
+				() -> Assertions.assertThrows(IllegalArgumentException.class, () -> PolygonGeofence.of(null)));
+	}
+
+	private static boolean rayCast(double[] lats, double[] lngs, double lat, double lng) {
+		boolean inside = false;
+		for (int i = 0, j = lats.length - 1; i < lats.length; j = i++) {
+			if ((lats[i] > lat) != (lats[j] > lat)
+					&& lng < (lngs[j] - lngs[i]) * (lat - lats[i]) / (lats[j] - lats[i]) + lngs[i]) {
+				inside = !inside;
+			}
+		}
+		return inside;
+	}
+}
@@ -0,0 +1,44 @@
+package de.ihrigb.commons;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RadiusQueryTest {
+
+	@Test
+	public void testWithin() throws Exception {
+		Random random = new Random(7);
+		int n = 20000;
+		double[] lats = new double[n];
+		double[] lngs = new double[n];
+		List<LatLng> points = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			lats[i] = random.nextDouble() * 180 - 90;
+			lngs[i] = random.nextDouble() * 360 - 180;
+			points.add(new LatLng(lats[i], lngs[i]));
+		}
+
+		for (LatLng center : new LatLng[] { new LatLng(49.6, 8.6), new LatLng(-10, 179.9), new LatLng(88, -40) }) {
+			Distance radius = Distance.ofKilometer(1500);
+			int[] expected = IntStream.range(0, n)
+					.filter(i -> center.getDistanceTo(points.get(i)).isLessOrEqual(radius)).toArray();
+
+			Assertions.assertTrue(expected.length > 0);
+			Assertions.assertArrayEquals(expected, RadiusQuery.indicesWithin(center, radius, lats, lngs, 0, n));
+			Assertions.assertEquals(IntStream.of(expected).mapToObj(points::get).collect(Collectors.toList()),
+					RadiusQuery.within(center, radius, points));
+		}
+	}
+
+	@Test
+	public void testRange() throws Exception {
+		Assertions.assertArrayEquals(new int[] { 2 }, RadiusQuery.indicesWithin(new LatLng(0, 0),
+				Distance.ofMeter(1), new double[] { 0, 0, 0 }, new double[] { 0, 0, 0 }, 2, 1));
+	}
+}
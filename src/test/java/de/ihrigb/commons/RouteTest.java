@@ -0,0 +1,86 @@
+package de.ihrigb.commons;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RouteTest {
+
+	private final static double DELTA = 0.001d;
+
+	private final static Route ROUTE = Route.of(Arrays.asList(new LatLng(0, 0), new LatLng(0, 1), new LatLng(1, 1)));
+
+	@Test
+	public void testDistance() throws Exception {
+		double segment = Haversine.distanceMeter(0, 0, 0, 1);
+
+		Assertions.assertAll(() -> Assertions.assertEquals(3, ROUTE.size()),
+				() -> Assertions.assertEquals(1, ROUTE.get(2).getLatitude()),
+				() -> Assertions.assertEquals(2 * segment, ROUTE.getLength().getMeter(), DELTA),
+				() -> Assertions.assertEquals(segment, ROUTE.getMeterAt(1), DELTA),
+				() -> Assertions.assertEquals(segment, ROUTE.distanceBetween(2, 1).getMeter(), DELTA),
+				() -> Assertions.assertThrows(IndexOutOfBoundsException.class, () -> ROUTE.distanceBetween(0, 3)));
+	}
+
+	@Test
+	public void testPositionAt() throws Exception {
+		double segment = Haversine.distanceMeter(0, 0, 0, 1);
+
+		Assertions.assertAll(
+				() -> Assertions.assertEquals(0.5, ROUTE.positionAt(Distance.ofMeter(segment / 2)).getLongitude(),
+						1e-9),
+				() -> Assertions.assertEquals(0.25,
+						ROUTE.positionAt(Distance.ofMeter(segment * 1.25)).getLatitude(), 1e-9),
+				() -> Assertions.assertEquals(0, ROUTE.positionAt(Distance.ofMeter(-1)).getLongitude()),
+				() -> Assertions.assertEquals(1, ROUTE.positionAt(Distance.ofMeter(1e9)).getLatitude()));
+	}
+
+	@Test
+	public void testSnap() throws Exception {
+		Route.Snap snap = ROUTE.snap(new LatLng(0.5, 1.1));
+		Route.Snap end = ROUTE.snap(new LatLng(-0.1, -0.1));
+
+		Assertions.assertAll(() -> Assertions.assertEquals(1, snap.getSegment()),
+				() -> Assertions.assertEquals(1, snap.getPosition().getLongitude(), 1e-9),
+				() -> Assertions.assertEquals(0.5, snap.getPosition().getLatitude(), 1e-4),
+				() -> Assertions.assertEquals(Haversine.distanceMeter(0.5, 1.1, 0.5, 1),
+						snap.getDistanceFrom().getMeter(), 1),
+				() -> Assertions.assertEquals(ROUTE.getMeterAt(1) + Haversine.distanceMeter(0, 1, 0.5, 1),
+						snap.getDistanceAlong().getMeter(), 1),
+				() -> Assertions.assertEquals(0, end.getSegment()),
+				() -> Assertions.assertEquals(0, end.getDistanceAlong().getMeter()),
+				() -> Assertions.assertEquals(Haversine.distanceMeter(-0.1, -0.1, 0, 0),
+						end.getDistanceFrom().getMeter(), DELTA));
+	}
+
+	@Test
+	public void testSnapRandom() throws Exception {
+		Random random = new Random(42);
+		int n = 2000;
+		double[] lats = new double[n];
+		double[] lngs = new double[n];
+		for (int i = 1; i < n; i++) {
+			lats[i] = lats[i - 1] + random.nextGaussian() * 0.01;
+			lngs[i] = lngs[i - 1] + random.nextDouble() * 0.01;
+		}
+		Route route = Route.of(lats, lngs, 0, n);
+		Route[] segments = new Route[n - 1];
+		for (int i = 0; i < n - 1; i++) {
+			segments[i] = Route.of(lats, lngs, i, 2);
+		}
+
+		for (int q = 0; q < 200; q++) {
+			LatLng point = new LatLng(random.nextGaussian() * 0.5, random.nextDouble() * 12 - 1);
+			double expected = Double.POSITIVE_INFINITY;
+			for (Route segment : segments) {
+				expected = Math.min(expected, segment.snap(point).getDistanceFrom().getMeter());
+			}
+			Route.Snap snap = route.snap(point);
+			Assertions.assertEquals(expected, snap.getDistanceFrom().getMeter(), 1e-6);
+			Assertions.assertEquals(snap.getDistanceFrom().getMeter(),
+					Haversine.distance(point, snap.getPosition()).getMeter(), 0.01);
+		}
+	}
+}
@@ -0,0 +1,76 @@
+package de.ihrigb.commons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SimplificationTest {
+
+	// bump of about 11 m, then a spike of about 111 m
+	private final static List<LatLng> POINTS = Arrays.asList(new LatLng(50, 8), new LatLng(50.0001, 8.001),
+			new LatLng(50, 8.002), new LatLng(50.001, 8.003), new LatLng(50, 8.004));
+
+	@Test
+	public void testDouglasPeucker() throws Exception {
+		Assertions.assertAll(
+				() -> Assertions.assertEquals(Arrays.asList(POINTS.get(0), POINTS.get(2), POINTS.get(3), POINTS.get(4)),
+						Simplification.douglasPeucker(POINTS, Distance.ofMeter(20))),
+				() -> Assertions.assertEquals(POINTS, Simplification.douglasPeucker(POINTS, Distance.ofMeter(5))),
+				() -> Assertions.assertEquals(Arrays.asList(POINTS.get(0), POINTS.get(4)),
+						Simplification.douglasPeucker(POINTS, Distance.ofMeter(200))),
+				() -> Assertions.assertEquals(Arrays.asList(),
+						Simplification.douglasPeucker(Arrays.asList(), Distance.ofMeter(1))),
+				() -> Assertions.assertThrows(IllegalArgumentException.class,
+						() -> Simplification.douglasPeucker(POINTS, Distance.ofMeter(-1))));
+	}
+
+	@Test
+	public void testVisvalingam() throws Exception {
+		Assertions.assertAll(
+				() -> Assertions.assertEquals(Arrays.asList(POINTS.get(0), POINTS.get(2), POINTS.get(3), POINTS.get(4)),
+						Simplification.visvalingam(POINTS, Distance.ofMeter(20))),
+				() -> Assertions.assertEquals(POINTS, Simplification.visvalingam(POINTS, Distance.ofMeter(5))),
+				() -> Assertions.assertEquals(Arrays.asList(POINTS.get(0), POINTS.get(4)),
+						Simplification.visvalingam(POINTS, Distance.ofMeter(200))));
+	}
+
+	@Test
+	public void testColumns() throws Exception {
+		double[] lats = new double[] { 0, 50, 50.0001, 50, 50.001, 50 };
+		double[] lngs = new double[] { 0, 8, 8.001, 8.002, 8.003, 8.004 };
+
+		Assertions.assertAll(
+				() -> Assertions.assertArrayEquals(new int[] { 1, 3, 4, 5 },
+						Simplification.douglasPeucker(lats, lngs, 1, 5, Distance.ofMeter(20))),
+				() -> Assertions.assertArrayEquals(new int[] { 1, 3, 4, 5 },
+						Simplification.visvalingam(lats, lngs, 1, 5, Distance.ofMeter(20))));
+	}
+
+	@Test
+	public void testLongTrack() throws Exception {
+		Random random = new Random(42);
+		int n = 100000;
+		double[] lats = new double[n];
+		double[] lngs = new double[n];
+		List<LatLng> points = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			lats[i] = 50 + 0.5 * Math.sin(i / 5000d) + random.nextGaussian() * 0.00002;
+			lngs[i] = 8 + i * 0.00001;
+			points.add(new LatLng(lats[i], lngs[i]));
+		}
+		Distance tolerance = Distance.ofMeter(10);
+
+		for (int[] kept : Arrays.asList(Simplification.douglasPeucker(lats, lngs, 0, n, tolerance),
+				Simplification.visvalingam(lats, lngs, 0, n, tolerance))) {
+			Assertions.assertTrue(kept.length < n / 10);
+			Assertions.assertEquals(0, kept[0]);
+			Assertions.assertEquals(n - 1, kept[kept.length - 1]);
+		}
+		Assertions.assertEquals(Simplification.douglasPeucker(lats, lngs, 0, n, tolerance).length,
+				Simplification.douglasPeucker(points, tolerance).size());
+	}
+}
@@ -0,0 +1,64 @@
+package de.ihrigb.commons;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SpaceFillingCurveTest {
+
+	@Test
+	public void testMorton() throws Exception {
+		Assertions.assertAll(() -> Assertions.assertEquals(0L, SpaceFillingCurve.MORTON.key(-90, -180)),
+				() -> Assertions.assertEquals(-1L, SpaceFillingCurve.MORTON.key(90, 180)),
+				() -> Assertions.assertEquals(Geohash.encodeBits(49.6, 8.6, 64),
+						SpaceFillingCurve.MORTON.key(new LatLng(49.6, 8.6))));
+	}
+
+	@Test
+	public void testHilbert() throws Exception {
+		// order 32: quadrants (0,0), (0,1), (1,1), (1,0) map to the four quarters of the key range
+		Assertions.assertAll(() -> Assertions.assertEquals(0L, SpaceFillingCurve.HILBERT.key(-90, -180)),
+				() -> Assertions.assertEquals(1L, SpaceFillingCurve.HILBERT.key(-90, -180 + 360 / 0x1p32)),
+				() -> Assertions.assertEquals(1L << 62, SpaceFillingCurve.HILBERT.key(0, -180)),
+				() -> Assertions.assertEquals(2L << 62, SpaceFillingCurve.HILBERT.key(0, 0)),
+				() -> Assertions.assertEquals(-1L, SpaceFillingCurve.HILBERT.key(-90, 180)));
+	}
+
+	@Test
+	public void testSort() throws Exception {
+		Random random = new Random(19);
+		int n = 1000;
+		double[] lats = new double[n + 2];
+		double[] lngs = new double[n + 2];
+		List<LatLng> points = new ArrayList<>();
+		for (int i = 1; i <= n; i++) {
+			lats[i] = random.nextDouble() * 180 - 90;
+			lngs[i] = random.nextDouble() * 360 - 180;
+			points.add(new LatLng(lats[i], lngs[i]));
+		}
+		double[] originalLats = lats.clone();
+		double[] originalLngs = lngs.clone();
+
+		for (SpaceFillingCurve curve : SpaceFillingCurve.values()) {
+			int[] permutation = curve.sort(lats, lngs, 1, n);
+			for (int i = 0; i < n; i++) {
+				Assertions.assertEquals(originalLats[permutation[i]], lats[1 + i]);
+				Assertions.assertEquals(originalLngs[permutation[i]], lngs[1 + i]);
+				if (i > 0) {
+					Assertions.assertTrue(Long.compareUnsigned(curve.key(lats[i], lngs[i]),
+							curve.key(lats[1 + i], lngs[1 + i])) <= 0);
+				}
+			}
+
+			curve.sort(points);
+			for (int i = 0; i < n; i++) {
+				Assertions.assertEquals(lats[1 + i], points.get(i).getLatitude());
+			}
+			System.arraycopy(originalLats, 0, lats, 0, lats.length);
+			System.arraycopy(originalLngs, 0, lngs, 0, lngs.length);
+		}
+	}
+}
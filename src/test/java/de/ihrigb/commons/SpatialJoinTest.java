@@ -0,0 +1,70 @@
+package de.ihrigb.commons;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SpatialJoinTest {
+
+	@Test
+	public void testJoin() throws Exception {
+		List<String> pairs = new ArrayList<>();
+		long count = SpatialJoin.join(Arrays.asList(new LatLng(50, 8), new LatLng(0, 180)),
+				Arrays.asList(new LatLng(50.0001, 8), new LatLng(0, -179.9999), new LatLng(50.01, 8)),
+				Distance.ofMeter(100), (left, right, meter) -> pairs.add(left + "-" + right + ":" + Math.round(meter)));
+		Collections.sort(pairs);
+
+		Assertions.assertAll(() -> Assertions.assertEquals(2, count),
+				() -> Assertions.assertEquals(Arrays.asList("0-0:11", "1-1:11"), pairs));
+	}
+
+	@Test
+	public void testJoinRandom() throws Exception {
+		Random random = new Random(42);
+		double[] leftLats = new double[5000];
+		double[] leftLngs = new double[5000];
+		double[] rightLats = new double[3001];
+		double[] rightLngs = new double[3001];
+		for (int i = 0; i < leftLats.length; i++) {
+			leftLats[i] = 50 + random.nextDouble() * 0.1;
+			leftLngs[i] = 8 + random.nextDouble() * 0.1;
+		}
+		for (int i = 0; i < rightLats.length; i++) {
+			rightLats[i] = 50 + random.nextDouble() * 0.1;
+			rightLngs[i] = 8 + random.nextDouble() * 0.1;
+		}
+		Distance distance = Distance.ofMeter(100);
+
+		Set<Long> expected = new HashSet<>();
+		for (int l = 0; l < leftLats.length; l++) {
+			for (int r = 1; r < rightLats.length; r++) {
+				if (Haversine.distanceMeter(leftLats[l], leftLngs[l], rightLats[r], rightLngs[r]) <= 100) {
+					expected.add((long) l << 32 | r);
+				}
+			}
+		}
+		Set<Long> sequential = new HashSet<>();
+		Set<Long> parallel = ConcurrentHashMap.newKeySet();
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			Assertions.assertEquals(expected.size(), SpatialJoin.join(leftLats, leftLngs, 0, leftLats.length,
+					rightLats, rightLngs, 1, 3000, distance, (left, right, meter) -> sequential.add((long) left << 32 | right)));
+			Assertions.assertEquals(expected.size(), SpatialJoin.join(leftLats, leftLngs, 0, leftLats.length,
+					rightLats, rightLngs, 1, 3000, distance, (left, right, meter) -> parallel.add((long) left << 32 | right),
+					pool));
+		} finally {
+			pool.shutdown();
+		}
+		Assertions.assertAll(() -> Assertions.assertEquals(expected, sequential),
+				() -> Assertions.assertEquals(expected, parallel));
+	}
+}
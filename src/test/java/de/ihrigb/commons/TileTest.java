@@ -0,0 +1,97 @@
+package de.ihrigb.commons;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TileTest {
+
+	@Test
+	public void testOf() throws Exception {
+		int[] xs = new int[3];
+		int[] ys = new int[3];
+		Tile.containing(new double[] { 48.1372, 90, -90 }, new double[] { 11.5756, 180, -180 }, 0, 3, 10, xs, ys, 0);
+
+		Assertions.assertAll(() -> Assertions.assertEquals(Tile.of(544, 355, 10), Tile.containing(48.1372, 11.5756, 10)),
+				() -> Assertions.assertEquals("0/0/0", Tile.containing(new LatLng(50, 8), 0).toString()),
+				() -> Assertions.assertEquals(Tile.of(1, 1, 1), Tile.containing(0, 0, 1)),
+				() -> Assertions.assertArrayEquals(new int[] { 544, 1023, 0 }, xs),
+				() -> Assertions.assertArrayEquals(new int[] { 355, 0, 1023 }, ys),
+				() -> Assertions.assertThrows(IllegalArgumentException.class, () -> Tile.of(2, 0, 1)),
+				() -> Assertions.assertThrows(IllegalArgumentException.class, () -> Tile.of(0, 0, 31)));
+	}
+
+	@Test
+	public void testBoundingBox() throws Exception {
+		BoundingBox box = Tile.of(1, 0, 1).getBoundingBox();
+
+		Assertions.assertAll(() -> Assertions.assertEquals(0, box.getSouth(), 1e-9),
+				() -> Assertions.assertEquals(0, box.getWest()), () -> Assertions.assertEquals(180, box.getEast()),
+				() -> Assertions.assertEquals(Tile.MAX_LATITUDE, box.getNorth(), 1e-9),
+				() -> Assertions.assertEquals(85.0511287798, Tile.MAX_LATITUDE, 1e-9));
+	}
+
+	@Test
+	public void testCover() throws Exception {
+		Assertions.assertAll(
+				() -> Assertions.assertEquals(
+						new HashSet<>(Arrays.asList(Tile.of(0, 0, 1), Tile.of(1, 0, 1), Tile.of(0, 1, 1),
+								Tile.of(1, 1, 1))),
+						Tile.cover(new LatLng(0, 0), Distance.ofMeter(10), 1)),
+				() -> Assertions.assertEquals(new HashSet<>(Arrays.asList(Tile.of(0, 1, 1), Tile.of(1, 1, 1))),
+						Tile.cover(new LatLng(-10, 180), Distance.ofMeter(10), 1)),
+				() -> Assertions.assertEquals(Tile.cover(BoundingBox.of(-1, 179, 1, -179), 2),
+						new HashSet<>(Arrays.asList(Tile.of(3, 1, 2), Tile.of(0, 1, 2), Tile.of(3, 2, 2),
+								Tile.of(0, 2, 2)))));
+	}
+
+	@Test
+	public void testCoverRandom() throws Exception {
+		Random random = new Random(42);
+		for (int q = 0; q < 50; q++) {
+			LatLng center = new LatLng(random.nextDouble() * 160 - 80, random.nextDouble() * 360 - 180);
+			assertCover(random, center, Distance.ofMeter(1000 + random.nextDouble() * 50000), 8 + random.nextInt(6));
+		}
+	}
+
+	@Test
+	public void testCoverPolar() throws Exception {
+		Assertions.assertAll(
+				() -> Assertions.assertTrue(
+						Tile.cover(new LatLng(89, 10), Distance.ofMeter(10000), 5).contains(Tile.of(16, 0, 5))),
+				() -> Assertions.assertTrue(
+						Tile.cover(new LatLng(-86, 10), Distance.ofMeter(10000), 5).contains(Tile.of(16, 31, 5))),
+				() -> Assertions.assertEquals(8, Tile.cover(new LatLng(90, 0), Distance.ofMeter(10000), 3).size()));
+
+		Random random = new Random(43);
+		for (int q = 0; q < 50; q++) {
+			double lat = 84 + random.nextDouble() * 6;
+			LatLng center = new LatLng(random.nextBoolean() ? lat : -lat, random.nextDouble() * 360 - 180);
+			assertCover(random, center, Distance.ofMeter(1000 + random.nextDouble() * 50000), 4 + random.nextInt(6));
+		}
+	}
+
+	private static void assertCover(Random random, LatLng center, Distance radius, int z) {
+		Set<Tile> cover = Tile.cover(center, radius, z);
+		Set<Tile> boxCover = Tile.cover(BoundingBox.around(center, radius), z);
+
+		Assertions.assertTrue(boxCover.containsAll(cover));
+		Assertions.assertTrue(cover.contains(Tile.containing(center, z)));
+		// every point of the circle lies in a covering tile
+		for (int i = 0; i < 200; i++) {
+			double bearing = random.nextDouble() * 2 * Math.PI;
+			double angle = radius.getMeter() * Math.sqrt(random.nextDouble()) / Constants.MEAN_EARTH_RADIUS.getMeter();
+			double latRad = Math.toRadians(center.getLatitude());
+			double lat = Math.asin(Math.sin(latRad) * Math.cos(angle)
+					+ Math.cos(latRad) * Math.sin(angle) * Math.cos(bearing));
+			double lng = Math.toRadians(center.getLongitude()) + Math.atan2(
+					Math.sin(bearing) * Math.sin(angle) * Math.cos(latRad),
+					Math.cos(angle) - Math.sin(latRad) * Math.sin(lat));
+			Assertions.assertTrue(cover.contains(Tile.containing(Math.toDegrees(lat), Math.toDegrees(lng), z)));
+		}
+	}
+}
@@ -0,0 +1,69 @@
+package de.ihrigb.commons;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TrackTest {
+
+	private final static double DELTA = 0.000001d;
+
+	@Test
+	public void test() throws Exception {
+		Track track = new Track();
+		Assertions.assertAll(() -> Assertions.assertEquals(0, track.size()),
+				() -> Assertions.assertNull(track.getLast()),
+				() -> Assertions.assertTrue(Double.isNaN(track.getAverageSpeed())));
+
+		track.add(49.654321, 8.654321, 1000);
+		track.add(new LatLng(49.123456, 8.123456), 3601000);
+		track.add(49.654321, 8.654321, 5401000);
+
+		double segment = Haversine.distanceMeter(49.654321, 8.654321, 49.123456, 8.123456);
+		Assertions.assertAll(() -> Assertions.assertEquals(3, track.size()),
+				() -> Assertions.assertEquals(2 * segment, track.getTotalMeter(), DELTA),
+				() -> Assertions.assertEquals(2 * segment, track.getTotalDistance().getMeter(), DELTA),
+				() -> Assertions.assertEquals(segment, track.getLastSegmentMeter(), DELTA),
+				() -> Assertions.assertEquals(segment / 1800, track.getLastSpeed(), DELTA),
+				() -> Assertions.assertEquals(segment / 1800, track.getMaxSpeed(), DELTA),
+				() -> Assertions.assertEquals(5400000, track.getDurationMillis()),
+				() -> Assertions.assertEquals(2 * segment / 5400, track.getAverageSpeed(), DELTA),
+				() -> Assertions.assertEquals(49.654321, track.getLast().getLatitude(), DELTA));
+	}
+
+	@Test
+	public void testWithoutTimestamps() throws Exception {
+		Track track = new Track();
+		track.add(new LatLng(0, 0));
+		track.add(0, 1);
+		Assertions.assertAll(
+				() -> Assertions.assertEquals(Haversine.distanceMeter(0, 0, 0, 1), track.getLastSegment().getMeter(),
+						DELTA),
+				() -> Assertions.assertTrue(Double.isNaN(track.getLastSpeed())),
+				() -> Assertions.assertEquals(0, track.getDurationMillis()));
+	}
+
+	@Test
+	public void testMixedTimestamps() throws Exception {
+		Track track = new Track();
+		track.add(0, 0);
+		track.add(0, 1, 1000);
+		track.add(0, 2);
+		track.add(0, 3, 3000);
+		// older than the latest timestamp, counts as a fix without timestamp
+		track.add(0, 4, 2000);
+		track.add(0, 5, 5000);
+
+		double degree = Haversine.distanceMeter(0, 0, 0, 1);
+		Assertions.assertAll(() -> Assertions.assertEquals(6, track.size()),
+				() -> Assertions.assertEquals(5 * degree, track.getTotalMeter(), DELTA),
+				() -> Assertions.assertEquals(4000, track.getDurationMillis()),
+				() -> Assertions.assertEquals(4 * degree / 4, track.getAverageSpeed(), DELTA),
+				() -> Assertions.assertTrue(Double.isNaN(track.getLastSpeed())),
+				() -> Assertions.assertTrue(Double.isNaN(track.getMaxSpeed())));
+
+		track.add(0, 6, 6000);
+		Assertions.assertAll(() -> Assertions.assertEquals(degree, track.getLastSpeed(), DELTA),
+				() -> Assertions.assertEquals(degree, track.getMaxSpeed(), DELTA),
+				() -> Assertions.assertEquals(5000, track.getDurationMillis()));
+	}
+}
@@ -0,0 +1,56 @@
+package de.ihrigb.commons;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class VincentyTest {
+
+	private final static double DELTA = 0.001d;
+
+	@Test
+	public void testDistance() throws Exception {
+		// Flinders Peak to Buninyong, Vincenty (1975)
+		LatLng flindersPeak = new LatLng(-(37 + 57 / 60d + 3.72030 / 3600), 144 + 25 / 60d + 29.52440 / 3600);
+		LatLng buninyong = new LatLng(-(37 + 39 / 60d + 10.15610 / 3600), 143 + 55 / 60d + 35.38390 / 3600);
+
+		Assertions.assertAll(
+				() -> Assertions.assertEquals(54972.271, Vincenty.distance(flindersPeak, buninyong).getMeter(), DELTA),
+				() -> Assertions.assertEquals(111319.491, Vincenty.distanceMeter(0, 0, 0, 1), DELTA),
+				() -> Assertions.assertEquals(20003931.459, Vincenty.distanceMeter(90, 0, -90, 0), DELTA),
+				() -> Assertions.assertEquals(0, Vincenty.distanceMeter(50, 8, 50, 8)));
+	}
+
+	@Test
+	public void testAntipodal() throws Exception {
+		// reference values of GeographicLib
+		Assertions.assertAll(() -> Assertions.assertEquals(20003931.459, Vincenty.distanceMeter(0, 0, 0, 180), DELTA),
+				() -> Assertions.assertEquals(19944127.421, Vincenty.distanceMeter(0, 0, 0.5, 179.7), DELTA),
+				() -> Assertions.assertEquals(19918204.673, Vincenty.distanceMeter(0, 0, 0.5, 179.2), DELTA),
+				() -> Assertions.assertEquals(19924989.889, Vincenty.distanceMeter(0, 0, 0.5, 179.3), DELTA),
+				() -> Assertions.assertEquals(19948452.750, Vincenty.distanceMeter(0, 0, 0, 179.2), DELTA),
+				() -> Assertions.assertEquals(19970715.517, Vincenty.distanceMeter(0, 0, 0, 179.4), DELTA),
+				() -> Assertions.assertEquals(20003931.459, Vincenty.distanceMeter(-30, 0, 30, 180), DELTA),
+				() -> Assertions.assertEquals(19946639.299, Vincenty.distanceMeter(10, 20, -10.5, -160.2), DELTA));
+
+		// grows with the longitude difference along the equator
+		double previous = 0;
+		for (int i = 0; i <= 1000; i++) {
+			double meter = Vincenty.distanceMeter(0, 0, 0, 179 + i * 0.001);
+			Assertions.assertTrue(meter >= previous);
+			previous = meter;
+		}
+	}
+
+	@Test
+	public void testOrigin() throws Exception {
+		Vincenty.Origin origin = Vincenty.origin(new LatLng(50, 8));
+		double[] meters = new double[3];
+		origin.distances(new double[] { 51, 49, 50 }, new double[] { 9, 7, 8 }, 0, 3, meters, 0);
+
+		Assertions.assertAll(() -> Assertions.assertEquals(50, origin.getLatLng().getLatitude()),
+				() -> Assertions.assertEquals(Vincenty.distanceMeter(50, 8, 51, 9), meters[0]),
+				() -> Assertions.assertEquals(Vincenty.distanceMeter(50, 8, 49, 7), meters[1]),
+				() -> Assertions.assertEquals(0, meters[2]),
+				() -> Assertions.assertEquals(meters[0], origin.distanceTo(new LatLng(51, 9)).getMeter()));
+	}
+}